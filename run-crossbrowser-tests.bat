@@ -0,0 +1,22 @@
+@echo off
+echo ==========================================
+echo   Cross-Browser Test Execution
+echo   Chrome + Firefox (+ Edge when installed)
+echo ==========================================
+
+echo Step 1: Running @WEB scenarios on every browser concurrently...
+call mvn clean test -DsuiteXmlFile=testng-crossbrowser.xml
+
+echo.
+echo Step 2: Generating reports...
+call mvn allure:report
+
+echo.
+echo ==========================================
+echo   Cross-Browser Execution Complete!
+echo ==========================================
+
+if exist "target\allure-report\index.html" (
+    echo ✓ Allure Report: target\allure-report\index.html
+)
+pause
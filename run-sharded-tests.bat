@@ -0,0 +1,30 @@
+@echo off
+set SHARDS=%1
+if "%SHARDS%"=="" set SHARDS=2
+
+echo ==========================================
+echo   Sharded Test Execution
+echo   %SHARDS% JVMs, split by scenario history
+echo ==========================================
+
+echo Step 1: Compiling tests once for all shards...
+call mvn clean test-compile
+
+echo.
+echo Step 2: Running %SHARDS% shards and merging their reports...
+call mvn exec:java -Dexec.mainClass=utils.ShardLauncher -Dexec.classpathScope=test -Dexec.args="%SHARDS%"
+
+echo.
+echo Step 3: Generating reports...
+call mvn allure:report
+
+echo.
+echo ==========================================
+echo   Sharded Execution Complete!
+echo ==========================================
+
+if exist "target\allure-report\index.html" (
+    echo ✓ Allure Report: target\allure-report\index.html
+)
+echo ✓ Shard logs: target\shards\shard-*\maven.log
+pause
@@ -7,6 +7,8 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 
+import utils.PageReadiness;
+
 public class UI_DashboardPage {
     WebDriver driver;
     WebDriverWait wait;
@@ -39,6 +41,7 @@ public class UI_DashboardPage {
         driver.findElement(usernameField).sendKeys(username);
         driver.findElement(passwordField).sendKeys(password);
         driver.findElement(loginButton).click();
+        PageReadiness.waitForPageSettled(driver);
     }
 
     /*
@@ -48,21 +51,17 @@ public class UI_DashboardPage {
      */
 
     public void verifyDashboardIsVisible() {
-        // Try a slightly longer wait and fallback strategies to avoid flaky failures
-        WebDriverWait longerWait = new WebDriverWait(driver, Duration.ofSeconds(15));
+        // Wait for the page to settle, then check the header and fallback strategies
+        // without waiting again for each of them
         try {
-            longerWait.until(ExpectedConditions.visibilityOfElementLocated(dashboardHeader));
+            wait.until(ExpectedConditions.visibilityOfElementLocated(dashboardHeader));
         } catch (org.openqa.selenium.TimeoutException e) {
             // fallback: try a contains() match or check page title as a last resort
             By altHeader = By.xpath(
                     "//h6[contains(translate(., 'ABCDEFGHIJKLMNOPQRSTUVWXYZ', 'abcdefghijklmnopqrstuvwxyz'), 'dashboard')]");
-            try {
-                longerWait.until(ExpectedConditions.visibilityOfElementLocated(altHeader));
-            } catch (org.openqa.selenium.TimeoutException e2) {
-                // final attempt: check page title contains Dashboard
-                if (!driver.getTitle().toLowerCase().contains("dashboard")) {
-                    throw new AssertionError("Dashboard not visible. Login might have failed.");
-                }
+            if (!PageReadiness.isDisplayedWhenSettled(driver, altHeader, Duration.ZERO)
+                    && !driver.getTitle().toLowerCase().contains("dashboard")) {
+                throw new AssertionError("Dashboard not visible. Login might have failed.");
             }
         }
     }
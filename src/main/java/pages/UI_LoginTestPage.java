@@ -7,6 +7,7 @@ import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.ElementClickInterceptedException;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import org.openqa.selenium.support.ui.ExpectedConditions;
+import utils.PageReadiness;
 import utils.URLManager;
 import java.time.Duration;
 
@@ -42,6 +43,7 @@ public class UI_LoginTestPage {
         String url = URLManager.getTesterBudLoginUrl();
         URLManager.logNavigation("Login Test", url);
         driver.get(url);
+        PageReadiness.waitForPageSettled(driver);
     }
 
     // Input methods
@@ -73,6 +75,7 @@ public class UI_LoginTestPage {
             // If regular click fails, use JavaScript click
             ((JavascriptExecutor) driver).executeScript("arguments[0].click();", loginButtonElement);
         }
+        PageReadiness.waitForPageSettled(driver);
     }
 
     // Verification methods
@@ -136,85 +139,40 @@ public class UI_LoginTestPage {
 
     // Success message verification
     public boolean isSuccessMessageDisplayed() {
-        try {
-            wait.until(ExpectedConditions.visibilityOfElementLocated(successMessage));
-            return driver.findElement(successMessage).isDisplayed();
-        } catch (Exception e) {
-            return false;
-        }
+        return PageReadiness.isDisplayedWhenSettled(driver, successMessage);
     }
 
     public String getSuccessMessageText() {
-        try {
-            wait.until(ExpectedConditions.visibilityOfElementLocated(successMessage));
-            return driver.findElement(successMessage).getText();
-        } catch (Exception e) {
-            return "";
-        }
+        return PageReadiness.getTextWhenSettled(driver, successMessage);
     }
 
     public boolean isBackToLoginButtonDisplayed() {
-        try {
-            wait.until(ExpectedConditions.visibilityOfElementLocated(backToLoginButton));
-            return driver.findElement(backToLoginButton).isDisplayed();
-        } catch (Exception e) {
-            return false;
-        }
+        return PageReadiness.isDisplayedWhenSettled(driver, backToLoginButton);
     }
 
     // Error message verification methods
     public boolean isInvalidCredentialsErrorDisplayed() {
-        try {
-            wait.until(ExpectedConditions.visibilityOfElementLocated(invalidCredentialsError));
-            return driver.findElement(invalidCredentialsError).isDisplayed();
-        } catch (Exception e) {
-            return false;
-        }
+        return PageReadiness.isDisplayedWhenSettled(driver, invalidCredentialsError);
     }
 
     public String getInvalidCredentialsErrorText() {
-        try {
-            wait.until(ExpectedConditions.visibilityOfElementLocated(invalidCredentialsError));
-            return driver.findElement(invalidCredentialsError).getText();
-        } catch (Exception e) {
-            return "";
-        }
+        return PageReadiness.getTextWhenSettled(driver, invalidCredentialsError);
     }
 
     public boolean isEmailPasswordRequiredErrorDisplayed() {
-        try {
-            wait.until(ExpectedConditions.visibilityOfElementLocated(emailRequiredError));
-            return driver.findElement(emailRequiredError).isDisplayed();
-        } catch (Exception e) {
-            return false;
-        }
+        return PageReadiness.isDisplayedWhenSettled(driver, emailRequiredError);
     }
 
     public String getEmailPasswordRequiredErrorText() {
-        try {
-            wait.until(ExpectedConditions.visibilityOfElementLocated(emailRequiredError));
-            return driver.findElement(emailRequiredError).getText();
-        } catch (Exception e) {
-            return "";
-        }
+        return PageReadiness.getTextWhenSettled(driver, emailRequiredError);
     }
 
     public boolean isPasswordRequiredErrorDisplayed() {
-        try {
-            wait.until(ExpectedConditions.visibilityOfElementLocated(passwordRequiredError));
-            return driver.findElement(passwordRequiredError).isDisplayed();
-        } catch (Exception e) {
-            return false;
-        }
+        return PageReadiness.isDisplayedWhenSettled(driver, passwordRequiredError);
     }
 
     public String getPasswordRequiredErrorText() {
-        try {
-            wait.until(ExpectedConditions.visibilityOfElementLocated(passwordRequiredError));
-            return driver.findElement(passwordRequiredError).getText();
-        } catch (Exception e) {
-            return "";
-        }
+        return PageReadiness.getTextWhenSettled(driver, passwordRequiredError);
     }
 
     // Browser validation message (for HTML5 validation)
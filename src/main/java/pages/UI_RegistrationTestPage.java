@@ -7,6 +7,7 @@ import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.ElementClickInterceptedException;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import org.openqa.selenium.support.ui.ExpectedConditions;
+import utils.PageReadiness;
 import utils.URLManager;
 import java.time.Duration;
 
@@ -57,6 +58,7 @@ public class UI_RegistrationTestPage {
         String url = URLManager.getTesterBudRegisterUrl();
         URLManager.logNavigation("Registration Test", url);
         driver.get(url);
+        PageReadiness.waitForPageSettled(driver);
     }
 
     // Input methods
@@ -95,6 +97,7 @@ public class UI_RegistrationTestPage {
             // If regular click fails, use JavaScript click
             ((JavascriptExecutor) driver).executeScript("arguments[0].click();", registerButtonElement);
         }
+        PageReadiness.waitForPageSettled(driver);
     }
 
     public void clickSignInLink() {
@@ -109,6 +112,7 @@ public class UI_RegistrationTestPage {
         } catch (ElementClickInterceptedException e) {
             ((JavascriptExecutor) driver).executeScript("arguments[0].click();", signInLinkElement);
         }
+        PageReadiness.waitForPageSettled(driver);
     }
 
     // Verification methods
@@ -154,30 +158,15 @@ public class UI_RegistrationTestPage {
 
     // Success message verification
     public boolean isSuccessMessageDisplayed() {
-        try {
-            wait.until(ExpectedConditions.visibilityOfElementLocated(successMessage));
-            return driver.findElement(successMessage).isDisplayed();
-        } catch (Exception e) {
-            return false;
-        }
+        return PageReadiness.isDisplayedWhenSettled(driver, successMessage);
     }
 
     public String getSuccessMessageText() {
-        try {
-            wait.until(ExpectedConditions.visibilityOfElementLocated(successMessage));
-            return driver.findElement(successMessage).getText();
-        } catch (Exception e) {
-            return "";
-        }
+        return PageReadiness.getTextWhenSettled(driver, successMessage);
     }
 
     public boolean isGoToLoginButtonDisplayed() {
-        try {
-            wait.until(ExpectedConditions.visibilityOfElementLocated(goToLoginButton));
-            return driver.findElement(goToLoginButton).isDisplayed();
-        } catch (Exception e) {
-            return false;
-        }
+        return PageReadiness.isDisplayedWhenSettled(driver, goToLoginButton);
     }
 
     // Error message verification methods
@@ -1,6 +1,7 @@
 package utils;
 
 import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
 import io.qameta.allure.Attachment;
 import io.qameta.allure.Step;
 import org.openqa.selenium.OutputType;
@@ -12,8 +13,10 @@ import org.slf4j.LoggerFactory;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.InputStream;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Utility class for Allure reporting features
@@ -141,6 +144,23 @@ public class AllureManager {
         // Environment info can be added via environment.properties file
     }
 
+    /**
+     * Tag the current test with the browser it runs on. The browser is added to the
+     * test name and history id so runs of the same scenario on different browsers
+     * are reported as separate results instead of retries.
+     * 
+     * @param browser Browser name
+     */
+    public static void tagBrowser(String browser) {
+        Allure.parameter("browser", browser);
+        Allure.getLifecycle().updateTestCase(result -> {
+            result.setName(result.getName() + " [" + browser + "]");
+            if (result.getHistoryId() != null) {
+                result.setHistoryId(result.getHistoryId() + "-" + browser);
+            }
+        });
+    }
+
     /**
      * Attach video recording to Allure report
      * 
@@ -190,6 +210,53 @@ public class AllureManager {
         }
     }
 
+    /**
+     * Attach a video that is still being encoded. The attachment is added to the
+     * current test now, so it shows up in the right place, and its content is
+     * written once the video is ready. If no video is created, the attachment gets a
+     * short note instead, so the report does not point at a missing file.
+     * 
+     * @param videoPath Completed with the path of the MP4, or null if none was created
+     * @param name      Video attachment name
+     */
+    public static void attachVideoWhenEncoded(CompletableFuture<String> videoPath, String name) {
+        if (videoPath.isDone()) {
+            String path = videoPath.exceptionally(error -> null).join();
+            if (path != null) {
+                attachVideo(path, name);
+            }
+            return;
+        }
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        String source = lifecycle.prepareAttachment(name, "video/mp4", ".mp4");
+        videoPath.whenComplete((path, error) -> {
+            if (path == null) {
+                logger.warn("⚠️ No video was created for attachment {}", name);
+                writeVideoPlaceholder(lifecycle, source, error != null
+                        ? "Video encoding failed: " + error.getMessage()
+                        : "No video was created for this scenario");
+                return;
+            }
+            try (InputStream video = java.nio.file.Files.newInputStream(new File(path).toPath())) {
+                lifecycle.writeAttachment(source, video);
+                logger.info("✅ Video file attached to Allure report: {} ({} KB)", name,
+                        new File(path).length() / 1024);
+            } catch (Exception e) {
+                logger.error("❌ Failed to attach video: {}", e.getMessage(), e);
+                writeVideoPlaceholder(lifecycle, source, "Video could not be attached: " + e.getMessage());
+            }
+        });
+    }
+
+    private static void writeVideoPlaceholder(AllureLifecycle lifecycle, String source, String note) {
+        try {
+            lifecycle.writeAttachment(source,
+                    new ByteArrayInputStream(note.getBytes(java.nio.charset.StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            logger.debug("Could not write video placeholder {}: {}", source, e.getMessage());
+        }
+    }
+
     /**
      * Attach frame folder to Allure report (legacy support)
      * 
@@ -272,9 +339,21 @@ public class AllureManager {
      * @param attachToReport Whether to attach video to report
      * @return Path to the recorded video
      */
-    @Step("Stopping video recording")
     public static String stopVideoRecording(boolean attachToReport) {
-        String videoPath = VideoRecorder.stopRecording();
+        return stopVideoRecording(attachToReport, true);
+    }
+
+    /**
+     * Stop video recording and optionally attach to Allure report; a failure-only
+     * recording of a passed scenario is dropped
+     * 
+     * @param attachToReport Whether to attach video to report
+     * @param scenarioFailed Whether the recorded scenario failed
+     * @return Path to the recorded video, or null if no video was kept
+     */
+    @Step("Stopping video recording")
+    public static String stopVideoRecording(boolean attachToReport, boolean scenarioFailed) {
+        String videoPath = VideoRecorder.stopRecording(scenarioFailed);
 
         if (attachToReport && videoPath != null) {
             String videoName = "Test_Recording_" + System.currentTimeMillis();
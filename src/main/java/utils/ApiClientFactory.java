@@ -7,23 +7,30 @@ import org.slf4j.LoggerFactory;
 
 public class ApiClientFactory {
     private static final Logger logger = LoggerFactory.getLogger(ApiClientFactory.class);
-    private static RequestSpecification apiClient;
+    // ThreadLocal for parallel execution - each scenario thread builds its own request spec
+    private static final ThreadLocal<RequestSpecification> apiClient = new ThreadLocal<>();
 
     public static void initApiClient() {
         String baseUri = ConfigReader.getProperty("api.baseUrl");
         logger.info("Initializing API Client with base URI: {}", baseUri);
-        apiClient = RestAssured.given()
+        apiClient.set(RestAssured.given()
                 .baseUri(baseUri)
-                .header("Authorization", "Bearer " + ConfigReader.getProperty("api.authToken"));
+                .header("Authorization", "Bearer " + ConfigReader.getProperty("api.authToken")));
         logger.info("API Client initialized successfully");
     }
 
+    // Request spec of the calling thread, built on first use
     public static RequestSpecification getApiClient() {
-        return apiClient;
+        if (apiClient.get() == null) {
+            initApiClient();
+        }
+        return apiClient.get();
     }
 
     public static void resetApiClient() {
-        logger.info("Resetting API Client");
-        apiClient = null;
+        if (apiClient.get() != null) {
+            logger.info("Resetting API Client");
+            apiClient.remove();
+        }
     }
 }
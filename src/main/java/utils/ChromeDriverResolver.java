@@ -0,0 +1,284 @@
+package utils;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * ChromeDriverResolver - Offline chromedriver resolution backed by a manifest on disk
+ * Fingerprints the installed Chrome version and looks up a chromedriver binary that
+ * was already downloaded and verified (path + SHA-256) for that version. Only a
+ * manifest miss falls back to WebDriverManager, whose result is then recorded so the
+ * next run resolves locally without any network access.
+ *
+ * Chromedriver compatibility follows the Chrome build number (MAJOR.MINOR.BUILD),
+ * so the manifest is keyed by that prefix of the browser version.
+ */
+public class ChromeDriverResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChromeDriverResolver.class);
+    private static final Pattern VERSION_PATTERN = Pattern.compile("(\\d+)\\.(\\d+)\\.(\\d+)(\\.\\d+)?");
+    private static final String DEFAULT_MANIFEST = System.getProperty("user.home")
+            + "/.cache/selenium-automation/chromedriver-manifest.properties";
+
+    private static volatile String resolvedDriverPath;
+
+    /**
+     * Resolve chromedriver once per JVM and register it through the
+     * webdriver.chrome.driver system property
+     *
+     * @return Path of the chromedriver binary
+     */
+    public static String resolve() {
+        if (resolvedDriverPath == null) {
+            synchronized (ChromeDriverResolver.class) {
+                if (resolvedDriverPath == null) {
+                    long start = System.currentTimeMillis();
+                    String driverPath = resolveDriverPath();
+                    System.setProperty("webdriver.chrome.driver", driverPath);
+                    resolvedDriverPath = driverPath;
+                    logger.info("ChromeDriver resolved in {} ms: {}", System.currentTimeMillis() - start, driverPath);
+                }
+            }
+        }
+        return resolvedDriverPath;
+    }
+
+    private static String resolveDriverPath() {
+        Path manifest = getManifestPath();
+        String chromeVersion = detectChromeVersion();
+        if (chromeVersion == null) {
+            logger.warn("⚠️ Could not detect the installed Chrome version, falling back to WebDriverManager");
+            return downloadDriver(null);
+        }
+
+        String buildKey = toBuildKey(chromeVersion);
+        String cachedPath = lookup(manifest, buildKey);
+        if (cachedPath != null) {
+            logger.debug("ChromeDriver manifest hit for Chrome {}: {}", chromeVersion, cachedPath);
+            return cachedPath;
+        }
+
+        logger.info("ChromeDriver manifest miss for Chrome {}, resolving with WebDriverManager", chromeVersion);
+        String driverPath = downloadDriver(chromeVersion);
+        try {
+            record(manifest, buildKey, Paths.get(driverPath));
+        } catch (IOException e) {
+            logger.warn("⚠️ Failed to update ChromeDriver manifest {}: {}", manifest, e.getMessage());
+        }
+        return driverPath;
+    }
+
+    private static String downloadDriver(String chromeVersion) {
+        WebDriverManager manager = WebDriverManager.chromedriver();
+        if (chromeVersion != null) {
+            manager.browserVersion(chromeVersion.split("\\.")[0]);
+        }
+        manager.setup();
+        return manager.getDownloadedDriverPath();
+    }
+
+    private static Path getManifestPath() {
+        String configured = ConfigSnapshot.get().getString("web.driverManifest", "");
+        return Paths.get(!configured.isEmpty() ? configured : DEFAULT_MANIFEST);
+    }
+
+    /**
+     * Detect the installed Chrome version from the browser binary or, on Windows,
+     * from the registry
+     *
+     * @return Full Chrome version (e.g. 120.0.6099.109) or null if not found
+     */
+    public static String detectChromeVersion() {
+        List<List<String>> commands = new ArrayList<>();
+        String configuredBinary = ConfigSnapshot.get().getString("web.chromeBinary", "");
+        if (!configuredBinary.isEmpty()) {
+            commands.add(List.of(configuredBinary, "--version"));
+        }
+        String os = System.getProperty("os.name", "").toLowerCase();
+        if (os.contains("win")) {
+            commands.add(List.of("reg", "query", "HKEY_CURRENT_USER\\Software\\Google\\Chrome\\BLBeacon", "/v", "version"));
+            commands.add(List.of("reg", "query", "HKEY_LOCAL_MACHINE\\SOFTWARE\\Wow6432Node\\Google\\Chrome\\BLBeacon", "/v", "version"));
+        } else if (os.contains("mac")) {
+            commands.add(List.of("/Applications/Google Chrome.app/Contents/MacOS/Google Chrome", "--version"));
+        } else {
+            commands.add(List.of("google-chrome", "--version"));
+            commands.add(List.of("google-chrome-stable", "--version"));
+            commands.add(List.of("chromium", "--version"));
+            commands.add(List.of("chromium-browser", "--version"));
+        }
+
+        for (List<String> command : commands) {
+            String version = parseVersion(runCommand(command, 10));
+            if (version != null) {
+                return version;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Run a command and return its output
+     *
+     * @param command        Command and arguments
+     * @param timeoutSeconds Longest time the command may run before it is killed
+     * @return Output, or null if the command failed to start or timed out
+     */
+    static String runCommand(List<String> command, long timeoutSeconds) {
+        Path output = null;
+        try {
+            // Written to a file, so waiting for the exit is bounded even if the command never closes its output
+            output = Files.createTempFile("chrome-version", ".txt");
+            Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                    .redirectOutput(output.toFile()).start();
+            if (!process.waitFor(timeoutSeconds, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                logger.warn("⚠️ {} did not finish within {}s, skipping it", command.get(0), timeoutSeconds);
+                return null;
+            }
+            return new String(Files.readAllBytes(output), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            if (output != null) {
+                try {
+                    Files.deleteIfExists(output);
+                } catch (IOException e) {
+                    logger.debug("Could not delete {}: {}", output, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Extract a Chrome version from command output such as
+     * "Google Chrome 120.0.6099.109" or a registry query result
+     *
+     * @param output Command output
+     * @return Version string or null if none is present
+     */
+    static String parseVersion(String output) {
+        if (output == null) {
+            return null;
+        }
+        Matcher matcher = VERSION_PATTERN.matcher(output);
+        return matcher.find() ? matcher.group() : null;
+    }
+
+    /**
+     * Reduce a Chrome version to the MAJOR.MINOR.BUILD key used in the manifest
+     *
+     * @param version Full Chrome version
+     * @return Build key
+     */
+    static String toBuildKey(String version) {
+        Matcher matcher = VERSION_PATTERN.matcher(version);
+        if (!matcher.find()) {
+            throw new IllegalArgumentException("Not a Chrome version: " + version);
+        }
+        return matcher.group(1) + "." + matcher.group(2) + "." + matcher.group(3);
+    }
+
+    /**
+     * Look up a verified driver for a build key. The entry is only returned if the
+     * binary still exists and its checksum matches the recorded one.
+     *
+     * @param manifest Manifest file
+     * @param buildKey Chrome build key
+     * @return Driver path or null on a miss
+     */
+    static String lookup(Path manifest, String buildKey) {
+        Properties entries = load(manifest);
+        String path = entries.getProperty(buildKey + ".path");
+        String checksum = entries.getProperty(buildKey + ".sha256");
+        if (path == null || checksum == null) {
+            return null;
+        }
+        Path driver = Paths.get(path);
+        try {
+            if (Files.isRegularFile(driver) && checksum.equalsIgnoreCase(sha256(driver))) {
+                return driver.toString();
+            }
+        } catch (IOException e) {
+            logger.debug("Cannot read cached ChromeDriver {}: {}", driver, e.getMessage());
+        }
+        logger.warn("⚠️ Cached ChromeDriver for {} is missing or modified, ignoring manifest entry", buildKey);
+        return null;
+    }
+
+    /**
+     * Record a verified driver for a build key. The manifest is rewritten atomically
+     * so concurrent runs never read a partial file.
+     *
+     * @param manifest Manifest file
+     * @param buildKey Chrome build key
+     * @param driver   Driver binary
+     * @throws IOException if the manifest cannot be written
+     */
+    static synchronized void record(Path manifest, String buildKey, Path driver) throws IOException {
+        Properties entries = load(manifest);
+        entries.setProperty(buildKey + ".path", driver.toAbsolutePath().toString());
+        entries.setProperty(buildKey + ".sha256", sha256(driver));
+
+        Path parent = manifest.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, "chromedriver-manifest", ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            entries.store(out, "Verified chromedriver binaries by Chrome build");
+        }
+        Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("ChromeDriver manifest updated: {} -> {}", buildKey, driver);
+    }
+
+    private static Properties load(Path manifest) {
+        Properties entries = new Properties();
+        if (Files.isRegularFile(manifest)) {
+            try (InputStream in = Files.newInputStream(manifest)) {
+                entries.load(in);
+            } catch (IOException e) {
+                logger.warn("⚠️ Failed to read ChromeDriver manifest {}: {}", manifest, e.getMessage());
+            }
+        }
+        return entries;
+    }
+
+    private static String sha256(Path file) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = Files.newInputStream(file)) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ChromeProfile - Named Chrome execution profiles selected with web.profile
+ * default: headed Chrome with default options and a maximized window
+ * lean:    headless Chrome without GPU, extensions, background networking and
+ *          translate, using a fixed window size and optionally no images
+ */
+public class ChromeProfile {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChromeProfile.class);
+
+    public static final String DEFAULT = "default";
+    public static final String LEAN = "lean";
+
+    /**
+     * Get the profile selected in config.properties
+     *
+     * @return Profile name, "default" when not configured
+     */
+    public static String getActiveProfile() {
+        String profile = ConfigSnapshot.get().getString("web.profile", "").trim();
+        return profile.isEmpty() ? DEFAULT : profile.toLowerCase();
+    }
+
+    /**
+     * Build the Chrome options for a profile
+     *
+     * @param profile Profile name
+     * @return Chrome options
+     */
+    public static ChromeOptions buildOptions(String profile) {
+        ChromeOptions options = new ChromeOptions();
+        switch (profile) {
+            case DEFAULT:
+                break;
+            case LEAN:
+                options.addArguments(
+                        "--headless=new",
+                        "--disable-gpu",
+                        "--disable-extensions",
+                        "--disable-background-networking",
+                        "--disable-features=Translate",
+                        "--disable-sync",
+                        "--disable-default-apps",
+                        "--no-first-run",
+                        "--mute-audio",
+                        "--window-size=" + ConfigSnapshot.get().getString("web.profile.windowSize", "1920,1080"));
+                if (ConfigSnapshot.get().getBoolean("web.profile.disableImages", false)) {
+                    Map<String, Object> prefs = new HashMap<>();
+                    prefs.put("profile.managed_default_content_settings.images", 2);
+                    options.setExperimentalOption("prefs", prefs);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported web.profile: " + profile
+                        + " (expected " + DEFAULT + " or " + LEAN + ")");
+        }
+        logger.debug("Chrome options built for profile: {}", profile);
+        return options;
+    }
+
+    /**
+     * Size the browser window for a profile. The lean profile already sets a fixed
+     * window size on the command line.
+     *
+     * @param driver  New browser session
+     * @param profile Profile name
+     */
+    public static void applyWindow(WebDriver driver, String profile) {
+        if (DEFAULT.equals(profile)) {
+            driver.manage().window().maximize();
+        }
+    }
+}
@@ -1,37 +1,26 @@
 package utils;
 
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.util.Properties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class ConfigReader {
     private static final Logger logger = LoggerFactory.getLogger(ConfigReader.class);
-    private static Properties properties = new Properties();
 
+    /**
+     * Make sure the configuration is loaded. The configuration is read once per JVM
+     * into ConfigSnapshot, so repeated calls do not re-read the file.
+     *
+     * @param configFile Kept for compatibility, the master file is always src/test/resources/config/config.properties
+     */
     public static void loadProperties(String configFile) {
-        try {
-            logger.info("Loading configuration from: src/test/resources/config/config.properties");
-            // Load config
-            FileInputStream Config = new FileInputStream("src/test/resources/config/config.properties");
-            properties.load(Config);
-            Config.close();
-            logger.info(MessageFormatter.getConfigMessage("loaded", properties.size()));
-            if (properties.isEmpty()) {
-                logger.warn(MessageFormatter.getConfigMessage("file.empty"));
-            }
-
-        } catch (IOException e) {
-            logger.error("Failed to load configuration file", e);
-        }
+        ConfigSnapshot.get();
     }
 
     public static String getProperty(String key) {
-        String value = properties.getProperty(key);
+        String value = ConfigSnapshot.get().getString(key);
         if (value == null) {
             logger.warn(MessageFormatter.getConfigMessage("property.not.found", key));
-        } else {
+        } else if (logger.isDebugEnabled()) {
             logger.debug(MessageFormatter.getConfigMessage("property.retrieved", key, value));
         }
         return value;
@@ -0,0 +1,259 @@
+package utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * ConfigSnapshot - Configuration loaded once per JVM
+ * Layers, later ones override earlier ones:
+ *   1. src/test/resources/config/config.properties (master file)
+ *   2. config_<platform>.properties for each configured platform, if present
+ *   3. Environment variables named after a key, e.g. WEB_POOL_MAXSIZE for web.pool.maxSize
+ *   4. System properties, e.g. -Dweb.browser=firefox
+ *
+ * The snapshot is immutable once loaded, so lookups need no locking and never
+ * touch the file system again.
+ */
+public final class ConfigSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigSnapshot.class);
+    static final String MASTER_FILE = "src/test/resources/config/config.properties";
+
+    private static volatile ConfigSnapshot instance;
+
+    private final Map<String, String> values;
+
+    private ConfigSnapshot(Map<String, String> values) {
+        this.values = Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * Get the configuration of this JVM, loading it on first use
+     *
+     * @return Configuration snapshot
+     */
+    public static ConfigSnapshot get() {
+        ConfigSnapshot snapshot = instance;
+        if (snapshot == null) {
+            synchronized (ConfigSnapshot.class) {
+                snapshot = instance;
+                if (snapshot == null) {
+                    snapshot = load(Paths.get(MASTER_FILE), System.getenv(), System.getProperties());
+                    instance = snapshot;
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Build a snapshot from the given layers
+     *
+     * @param masterFile       Master config file
+     * @param environment      Environment variables
+     * @param systemProperties System properties
+     * @return Configuration snapshot
+     */
+    static ConfigSnapshot load(Path masterFile, Map<String, String> environment, Properties systemProperties) {
+        logger.info("Loading configuration from: {}", masterFile);
+        Map<String, String> values = new HashMap<>();
+        Properties master = readFile(masterFile, "config/config.properties");
+        if (master == null) {
+            logger.error("Failed to load configuration file: {}", masterFile);
+        } else {
+            putAll(values, master);
+        }
+
+        // The platform may itself be overridden, so resolve it before loading its files
+        String platform = systemProperties.getProperty("platform", environment.getOrDefault("PLATFORM",
+                values.get("platform")));
+        if (platform != null) {
+            for (String name : platform.split(",")) {
+                String fileName = "config_" + name.trim().toLowerCase() + ".properties";
+                Properties platformProps = readFile(masterFile.resolveSibling(fileName), "config/" + fileName);
+                if (platformProps != null) {
+                    putAll(values, platformProps);
+                    logger.info("Loaded platform configuration: {}", fileName);
+                }
+            }
+        }
+
+        Map<String, String> envNames = new HashMap<>();
+        for (String key : values.keySet()) {
+            envNames.put(toEnvironmentName(key), key);
+        }
+        int fromEnvironment = 0;
+        for (Map.Entry<String, String> variable : environment.entrySet()) {
+            String key = envNames.get(variable.getKey());
+            if (key != null) {
+                values.put(key, variable.getValue());
+                fromEnvironment++;
+            }
+        }
+        for (String key : systemProperties.stringPropertyNames()) {
+            values.put(key, systemProperties.getProperty(key));
+        }
+
+        logger.info(MessageFormatter.getConfigMessage("loaded", values.size()));
+        if (master == null || master.isEmpty()) {
+            logger.warn(MessageFormatter.getConfigMessage("file.empty"));
+        }
+        if (fromEnvironment > 0) {
+            logger.info("{} configuration value(s) overridden from environment variables", fromEnvironment);
+        }
+        return new ConfigSnapshot(values);
+    }
+
+    /**
+     * Get a value
+     *
+     * @param key Property key
+     * @return Value or null if the key is not configured
+     */
+    public String getString(String key) {
+        return values.get(key);
+    }
+
+    public String getString(String key, String defaultValue) {
+        String value = values.get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = trimmed(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw invalid(key, value, "an integer");
+        }
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = trimmed(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw invalid(key, value, "a number");
+        }
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = trimmed(key);
+        return value != null ? Boolean.parseBoolean(value) : defaultValue;
+    }
+
+    /**
+     * Get a duration. Plain numbers are read in the given unit (the unit is part of
+     * the key name, e.g. web.grid.pollMillis); ISO-8601 values such as PT5M are
+     * accepted as well.
+     *
+     * @param key          Property key
+     * @param unit         Unit of plain numbers
+     * @param defaultValue Default amount in the given unit
+     * @return Duration
+     */
+    public Duration getDuration(String key, ChronoUnit unit, long defaultValue) {
+        String value = trimmed(key);
+        if (value == null) {
+            return Duration.of(defaultValue, unit);
+        }
+        try {
+            if (value.startsWith("P") || value.startsWith("p")) {
+                return Duration.parse(value);
+            }
+            return Duration.of(Long.parseLong(value), unit);
+        } catch (RuntimeException e) {
+            throw invalid(key, value, "a duration");
+        }
+    }
+
+    /**
+     * Get a comma separated list
+     *
+     * @param key Property key
+     * @return Trimmed, non-empty entries; empty if the key is not configured
+     */
+    public List<String> getList(String key) {
+        String value = values.get(key);
+        if (value == null) {
+            return Collections.emptyList();
+        }
+        List<String> entries = new ArrayList<>();
+        for (String entry : value.split(",")) {
+            if (!entry.trim().isEmpty()) {
+                entries.add(entry.trim());
+            }
+        }
+        return Collections.unmodifiableList(entries);
+    }
+
+    public boolean contains(String key) {
+        return values.containsKey(key);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    static String toEnvironmentName(String key) {
+        return key.replaceAll("[^A-Za-z0-9]", "_").toUpperCase();
+    }
+
+    private String trimmed(String key) {
+        String value = values.get(key);
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    private static IllegalArgumentException invalid(String key, String value, String expected) {
+        return new IllegalArgumentException(
+                String.format("Config property '%s' must be %s but was '%s'", key, expected, value));
+    }
+
+    private static void putAll(Map<String, String> values, Properties properties) {
+        for (String key : properties.stringPropertyNames()) {
+            values.put(key, properties.getProperty(key));
+        }
+    }
+
+    private static Properties readFile(Path file, String classpathResource) {
+        try {
+            Properties properties = new Properties();
+            if (Files.isRegularFile(file)) {
+                try (InputStream in = Files.newInputStream(file)) {
+                    properties.load(in);
+                }
+                return properties;
+            }
+            try (InputStream in = ConfigSnapshot.class.getClassLoader().getResourceAsStream(classpathResource)) {
+                if (in == null) {
+                    return null;
+                }
+                properties.load(in);
+                return properties;
+            }
+        } catch (IOException e) {
+            logger.error("Failed to read configuration file: {}", file, e);
+            return null;
+        }
+    }
+}
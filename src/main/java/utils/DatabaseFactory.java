@@ -74,6 +74,7 @@ public class DatabaseFactory {
 
             System.out.println("🏗️ Created new connection pool for database type: " + type.toUpperCase());
 
+            ResourceRegistry.getInstance().register("database-pools", DatabaseFactory::shutdownAllPools);
             return new HikariDataSource(config);
         });
     }
@@ -0,0 +1,96 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * DevToolsChannel - The DevTools connection of a session, kept on the session's current tab
+ * A session has one DevTools connection, shared by NetworkBlocker and SessionVideoRecorder.
+ * SessionRecycler replaces the tab between scenarios; a DevTools session still attached
+ * to the closed tab receives no events, and commands sent to it have no effect. Features
+ * call attach() at the start of each scenario: the first caller moves the connection to
+ * the current tab, and each caller compares the returned window handle with the one its
+ * own tab-scoped commands (Network.enable, Network.setBlockedURLs, ...) were sent to.
+ *
+ * Listeners belong to the connection, not the tab, so they are added once per session.
+ */
+public class DevToolsChannel {
+
+    private static final Map<WebDriver, DevToolsChannel> channels = Collections.synchronizedMap(new WeakHashMap<>());
+    // Opens the channel of a session; replaced by tests
+    static Function<WebDriver, DevToolsChannel> opener =
+            driver -> new DevToolsChannel(driver, ((HasDevTools) driver).getDevTools());
+
+    private final WebDriver driver;
+    private final DevTools devTools;
+    private String windowHandle;
+
+    DevToolsChannel(WebDriver driver, DevTools devTools) {
+        this.driver = driver;
+        this.devTools = devTools;
+    }
+
+    /**
+     * Get the channel of a session, opening it on first use
+     *
+     * @param driver Session with DevTools support (see HasDevTools)
+     * @return Channel shared by every feature using DevTools on the session
+     */
+    public static DevToolsChannel of(WebDriver driver) {
+        return channels.computeIfAbsent(driver, opener);
+    }
+
+    /**
+     * Attach the connection to the session's current tab unless it already is
+     *
+     * @return Window handle of the tab the connection is attached to
+     */
+    public synchronized String attach() {
+        String current = driver.getWindowHandle();
+        if (!current.equals(windowHandle)) {
+            connect(current, windowHandle == null);
+            windowHandle = current;
+        }
+        return current;
+    }
+
+    /**
+     * @return Window handle of the attached tab, null before the first attach
+     */
+    public synchronized String getWindowHandle() {
+        return windowHandle;
+    }
+
+    public void send(String method, Map<String, Object> params) {
+        devTools.send(new Command<>(method, params));
+    }
+
+    public void addListener(String event, Consumer<Map<String, Object>> listener) {
+        devTools.addListener(new Event<Map<String, Object>>(event, input -> input.read(Json.MAP_TYPE)), listener);
+    }
+
+    /**
+     * Open a DevTools session on a tab
+     *
+     * @param windowHandle Tab to attach to
+     * @param first        No session has been opened through this channel yet
+     */
+    void connect(String windowHandle, boolean first) {
+        if (first) {
+            devTools.createSessionIfThereIsNotOne(windowHandle);
+        } else {
+            // The previous tab was closed along with its DevTools session
+            devTools.createSession(windowHandle);
+        }
+    }
+}
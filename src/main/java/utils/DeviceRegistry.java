@@ -0,0 +1,213 @@
+package utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DeviceRegistry - Leases mobile devices to scenarios running in parallel
+ * Each device has its own Appium server URL, udid and UiAutomator2 systemPort, so
+ * sessions on different emulators never collide. A scenario leases a free device,
+ * runs on it and releases it; when all devices are busy the lease waits.
+ *
+ * Devices are configured in config.properties:
+ *   mobile.devices=emulator1,emulator2
+ *   mobile.device.emulator1.serverUrl=http://127.0.0.1:4723/wd/hub
+ *   mobile.device.emulator1.udid=emulator-5554
+ *   mobile.device.emulator1.systemPort=8200
+ * A device without systemPort uses 8200 plus its index in mobile.devices.
+ * Without mobile.devices a single device is built from mobile.deviceName.
+ */
+public class DeviceRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceRegistry.class);
+    private static final String DEFAULT_SERVER_URL = "http://127.0.0.1:4723/wd/hub";
+    private static final int DEFAULT_SYSTEM_PORT = 8200;
+
+    private final List<Device> devices;
+    private final LinkedBlockingDeque<Device> freeDevices;
+    private final Duration leaseTimeout;
+    private final boolean healthCheck;
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+
+    /**
+     * A device and the Appium server that drives it
+     */
+    public static class Device {
+        private final String name;
+        private final String serverUrl;
+        private final String udid;
+        private final int systemPort;
+
+        public Device(String name, String serverUrl, String udid, int systemPort) {
+            this.name = name;
+            this.serverUrl = serverUrl.replaceAll("/+$", "");
+            this.udid = udid;
+            this.systemPort = systemPort;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getServerUrl() {
+            return serverUrl;
+        }
+
+        public String getUdid() {
+            return udid;
+        }
+
+        public int getSystemPort() {
+            return systemPort;
+        }
+
+        @Override
+        public String toString() {
+            return name + " (" + udid + " @ " + serverUrl + ")";
+        }
+    }
+
+    /**
+     * Create a registry
+     *
+     * @param devices      Devices available for leasing
+     * @param leaseTimeout Maximum time a scenario waits for a free device
+     * @param healthCheck  Skip devices whose Appium server does not answer /status
+     */
+    public DeviceRegistry(List<Device> devices, Duration leaseTimeout, boolean healthCheck) {
+        if (devices.isEmpty()) {
+            throw new IllegalArgumentException("Device registry needs at least one device");
+        }
+        this.devices = Collections.unmodifiableList(new ArrayList<>(devices));
+        this.freeDevices = new LinkedBlockingDeque<>(devices);
+        this.leaseTimeout = leaseTimeout;
+        this.healthCheck = healthCheck;
+        logger.info("📱 Device registry created with {} device(s): {}", devices.size(), devices);
+    }
+
+    /**
+     * Build the registry from config.properties
+     *
+     * @return Device registry
+     */
+    public static DeviceRegistry fromConfig() {
+        ConfigSnapshot config = ConfigSnapshot.get();
+        List<Device> devices = devicesFromConfig(config);
+        if (devices.isEmpty()) {
+            String deviceName = ConfigReader.getProperty("mobile.deviceName");
+            devices.add(new Device(deviceName, DEFAULT_SERVER_URL, deviceName, DEFAULT_SYSTEM_PORT));
+        }
+        return new DeviceRegistry(devices,
+                config.getDuration("mobile.device.leaseTimeoutSeconds", ChronoUnit.SECONDS, 300),
+                config.getBoolean("mobile.device.healthCheck", true));
+    }
+
+    /**
+     * Devices listed in mobile.devices. A device without a systemPort gets
+     * 8200 + its position in the list, so UiAutomator2 servers never share a port.
+     *
+     * @param config Configuration to read
+     * @return Configured devices, empty if mobile.devices is not set
+     */
+    static List<Device> devicesFromConfig(ConfigSnapshot config) {
+        List<Device> devices = new ArrayList<>();
+        List<String> configured = config.getList("mobile.devices");
+        for (int index = 0; index < configured.size(); index++) {
+            String name = configured.get(index);
+            String prefix = "mobile.device." + name + ".";
+            devices.add(new Device(name, config.getString(prefix + "serverUrl", DEFAULT_SERVER_URL),
+                    config.getString(prefix + "udid", name),
+                    config.getInt(prefix + "systemPort", DEFAULT_SYSTEM_PORT + index)));
+        }
+        return devices;
+    }
+
+    /**
+     * Lease a free device, waiting while all devices are busy
+     *
+     * @return Leased device
+     */
+    public Device lease() {
+        long deadline = System.nanoTime() + leaseTimeout.toNanos();
+        int unreachableInARow = 0;
+        try {
+            while (true) {
+                long remaining = deadline - System.nanoTime();
+                Device device = remaining > 0 ? freeDevices.pollFirst(remaining, TimeUnit.NANOSECONDS) : null;
+                if (device == null) {
+                    throw new IllegalStateException(String.format(
+                            "Timed out after %ds waiting for a free device (%d device(s), all busy or unreachable)",
+                            leaseTimeout.getSeconds(), devices.size()));
+                }
+                if (!healthCheck || isServerReachable(device)) {
+                    logger.info("📱 Leased {} to thread: {}", device, Thread.currentThread().getName());
+                    return device;
+                }
+                // Put it back behind the other free devices and try the next one
+                logger.warn("⚠️ Appium server for {} is not reachable, skipping it", device);
+                freeDevices.offerLast(device);
+                if (++unreachableInARow >= devices.size()) {
+                    unreachableInARow = 0;
+                    Thread.sleep(1000);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a free device", e);
+        }
+    }
+
+    /**
+     * Return a leased device
+     *
+     * @param device Device to release
+     */
+    public void release(Device device) {
+        if (device != null && devices.contains(device) && !freeDevices.contains(device)) {
+            freeDevices.offerFirst(device);
+            logger.debug("Released {} by thread: {}", device, Thread.currentThread().getName());
+        }
+    }
+
+    public List<Device> getDevices() {
+        return devices;
+    }
+
+    public int getFreeCount() {
+        return freeDevices.size();
+    }
+
+    /**
+     * Check whether the device's Appium server answers its /status endpoint
+     *
+     * @param device Device to check
+     * @return true if the server responded with HTTP 200
+     */
+    public boolean isServerReachable(Device device) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(device.getServerUrl() + "/status"))
+                    .timeout(Duration.ofSeconds(2))
+                    .GET()
+                    .build();
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            logger.debug("Appium status check failed for {}: {}", device, e.getMessage());
+            return false;
+        }
+    }
+}
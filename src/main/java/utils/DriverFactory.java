@@ -7,36 +7,208 @@ import io.restassured.RestAssured;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.openqa.selenium.Capabilities;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.edge.EdgeDriver;
+import org.openqa.selenium.edge.EdgeOptions;
+import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.firefox.FirefoxOptions;
 import org.openqa.selenium.remote.DesiredCapabilities;
 
 import java.net.URL;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DriverFactory {
     private static final Logger logger = LoggerFactory.getLogger(DriverFactory.class);
-    private static WebDriver webDriver;
+    // One session pool per browser; cross-browser runs use several at once
+    private static final Map<String, WebDriverPool> webDriverPools = new ConcurrentHashMap<>();
+    // Browser override for the calling thread, falls back to web.browser
+    private static final ThreadLocal<String> threadBrowser = new ThreadLocal<>();
+    // Set while the calling thread reruns a failed scenario, which must not reuse a session
+    private static final ThreadLocal<Boolean> freshSession = ThreadLocal.withInitial(() -> false);
+    private static volatile GridDispatcher gridDispatcher;
     private static String apiBaseUrl;
-    private static AppiumDriver mobileDriver;
 
-    // Web UI Driver
+    // ThreadLocal for parallel execution - each worker thread owns its mobile session
+    // on a device leased from the registry
+    private static final ThreadLocal<AppiumDriver> mobileDriver = new ThreadLocal<>();
+    private static final Map<AppiumDriver, DeviceRegistry.Device> activeMobileDrivers = new ConcurrentHashMap<>();
+    private static volatile DeviceRegistry deviceRegistry;
+
+    // Web UI Driver - checks out a session of the active browser owned by the calling thread
     public static WebDriver initWebDriver() {
+        WebDriverPool pool = getWebDriverPool(getActiveBrowser());
+        WebDriver webDriver = pool.current();
         if (webDriver == null) {
-            logger.info("Initializing Web Driver (Chrome)");
-            logger.debug(MessageFormatter.getDriverMessage("setup.chrome"));
-            // Automatically manage ChromeDriver version
-            WebDriverManager.chromedriver().setup();
-            webDriver = new ChromeDriver();
-            webDriver.manage().window().maximize();
-            logger.info("Web Driver initialized and window maximized");
-            // Note: Removed automatic navigation to baseUrl to allow individual tests to
-            // control navigation
+            webDriver = pool.checkout(freshSession.get());
+            logger.info("Web Driver ({}) ready for thread: {}", getActiveBrowser(), Thread.currentThread().getName());
+            if (NetworkBlocker.isEnabled()) {
+                NetworkBlocker.startScenario(webDriver);
+            }
         } else {
             logger.debug(MessageFormatter.getDriverMessage("already.initialized"));
         }
         return webDriver;
     }
 
+    // Start browser sessions in the background so the first scenarios find one ready
+    public static void prewarmWebDrivers() {
+        int target = ConfigSnapshot.get().getInt("web.pool.prewarm", 0);
+        if (target > 0) {
+            getWebDriverPool(getActiveBrowser()).prewarm(target);
+        }
+    }
+
+    // Run the calling thread's web scenarios on a specific browser (chrome, firefox, edge)
+    public static void setThreadBrowser(String browser) {
+        threadBrowser.set(normalizeBrowser(browser));
+    }
+
+    // Give the calling thread only sessions no scenario has used yet, e.g. for reruns
+    public static void setFreshSessionRequired(boolean required) {
+        freshSession.set(required);
+    }
+
+    public static void clearThreadBrowser() {
+        threadBrowser.remove();
+    }
+
+    public static boolean hasThreadBrowser() {
+        return threadBrowser.get() != null;
+    }
+
+    // Browser used by the calling thread: the thread override or web.browser
+    public static String getActiveBrowser() {
+        String browser = threadBrowser.get();
+        return browser != null ? browser : normalizeBrowser(ConfigSnapshot.get().getString("web.browser"));
+    }
+
+    // Whether sessions of a browser can be created: installed locally, or offered by a grid node
+    public static boolean isBrowserAvailable(String browser) {
+        browser = normalizeBrowser(browser);
+        if (isGridMode()) {
+            return getGridDispatcher().isBrowserAvailable(buildCapabilities(browser).getBrowserName());
+        }
+        switch (browser) {
+            case "chrome":
+                return true;
+            case "firefox":
+                return WebDriverManager.firefoxdriver().getBrowserPath().isPresent();
+            case "edge":
+                return WebDriverManager.edgedriver().getBrowserPath().isPresent();
+            default:
+                return false;
+        }
+    }
+
+    private static String normalizeBrowser(String browser) {
+        return browser != null && !browser.trim().isEmpty() ? browser.trim().toLowerCase() : "chrome";
+    }
+
+    private static WebDriverPool getWebDriverPool(String browser) {
+        return webDriverPools.computeIfAbsent(browser, key -> {
+            ConfigSnapshot config = ConfigSnapshot.get();
+            int size = config.getInt("web.pool.maxSize", 4);
+            Duration checkoutTimeout = config.getDuration("web.pool.checkoutTimeoutSeconds", ChronoUnit.SECONDS, 120);
+            String name = (isGridMode() ? "Grid " : "") + key.substring(0, 1).toUpperCase() + key.substring(1);
+            WebDriverPool pool = new WebDriverPool(name, () -> createWebDriver(key), size, checkoutTimeout);
+            // Recordings of a session are finished before the browser quits
+            ResourceRegistry.getInstance().register("web-pool:" + key, () -> shutdownPool(key, pool),
+                    VideoRecorderMP4.RESOURCE_NAME, SessionVideoRecorder.RESOURCE_NAME);
+            return pool;
+        });
+    }
+
+    private static WebDriver createWebDriver(String browser) {
+        String profile = ChromeProfile.getActiveProfile();
+        logger.info("Initializing Web Driver ({}, {} profile{})", browser, profile, isGridMode() ? ", Selenium Grid" : "");
+        Capabilities options = buildCapabilities(browser);
+        WebDriver webDriver;
+        if (isGridMode()) {
+            webDriver = getGridDispatcher().createSession(options);
+        } else {
+            switch (browser) {
+                case "chrome":
+                    logger.debug(MessageFormatter.getDriverMessage("setup.chrome"));
+                    // Resolved once per JVM from the local manifest; network only on a miss
+                    ChromeDriverResolver.resolve();
+                    webDriver = new ChromeDriver((ChromeOptions) options);
+                    break;
+                case "firefox":
+                    WebDriverManager.firefoxdriver().setup();
+                    webDriver = new FirefoxDriver((FirefoxOptions) options);
+                    break;
+                default:
+                    WebDriverManager.edgedriver().setup();
+                    webDriver = new EdgeDriver((EdgeOptions) options);
+                    break;
+            }
+        }
+        ChromeProfile.applyWindow(webDriver, profile);
+        PageReadiness.install(webDriver);
+        if (NetworkBlocker.isEnabled()) {
+            NetworkBlocker.install(webDriver);
+        }
+        logger.info("Web Driver initialized");
+        // Note: Removed automatic navigation to baseUrl to allow individual tests to
+        // control navigation
+        return webDriver;
+    }
+
+    // Browser options for the active web.profile; the lean profile runs every browser headless
+    private static Capabilities buildCapabilities(String browser) {
+        String profile = ChromeProfile.getActiveProfile();
+        boolean lean = ChromeProfile.LEAN.equals(profile);
+        switch (browser) {
+            case "chrome":
+                return ChromeProfile.buildOptions(profile);
+            case "firefox":
+                FirefoxOptions firefoxOptions = new FirefoxOptions();
+                if (lean) {
+                    firefoxOptions.addArguments("-headless");
+                }
+                return firefoxOptions;
+            case "edge":
+                EdgeOptions edgeOptions = new EdgeOptions();
+                if (lean) {
+                    edgeOptions.addArguments("--headless=new", "--disable-gpu", "--disable-extensions");
+                }
+                return edgeOptions;
+            default:
+                throw new IllegalArgumentException("Unsupported web.browser: " + browser
+                        + " (expected chrome, firefox or edge)");
+        }
+    }
+
+    // web.executionMode=grid creates RemoteWebDriver sessions on the Selenium Grid hub
+    public static boolean isGridMode() {
+        return "grid".equalsIgnoreCase(ConfigSnapshot.get().getString("web.executionMode"));
+    }
+
+    private static GridDispatcher getGridDispatcher() {
+        if (gridDispatcher == null) {
+            synchronized (DriverFactory.class) {
+                if (gridDispatcher == null) {
+                    // SELENIUM_HUB_URL is set by docker-compose for the automation-tests container
+                    ConfigSnapshot config = ConfigSnapshot.get();
+                    String hubUrl = System.getenv("SELENIUM_HUB_URL");
+                    if (hubUrl == null || hubUrl.isEmpty()) {
+                        hubUrl = config.getString("web.grid.url", "http://localhost:4444/wd/hub");
+                    }
+                    gridDispatcher = new GridDispatcher(hubUrl,
+                            config.getDuration("web.grid.pollMillis", ChronoUnit.MILLIS, 500),
+                            config.getDuration("web.grid.queueTimeoutSeconds", ChronoUnit.SECONDS, 300));
+                }
+            }
+        }
+        return gridDispatcher;
+    }
+
     // API Client Initialization
     public static void initApiClient() {
         logger.debug(MessageFormatter.getDriverMessage("api.url.reading"));
@@ -49,43 +221,67 @@ public class DriverFactory {
         return apiBaseUrl;
     }
 
-    // Mobile Driver (Appium)
+    // Mobile Driver (Appium) - runs on a device leased for the calling thread
     public static AppiumDriver initMobileDriver() {
-        if (mobileDriver == null) {
+        if (mobileDriver.get() == null) {
+            DeviceRegistry.Device device = getDeviceRegistry().lease();
             try {
-                logger.info("Initializing Mobile Driver (Appium)");
+                logger.info("Initializing Mobile Driver (Appium) on {}", device);
                 DesiredCapabilities caps = new DesiredCapabilities();
                 String platformName = ConfigReader.getProperty("mobile.platformName");
-                String deviceName = ConfigReader.getProperty("mobile.deviceName");
-                logger.debug(MessageFormatter.getDriverMessage("mobile.platform", platformName, deviceName));
+                logger.debug(MessageFormatter.getDriverMessage("mobile.platform", platformName, device.getName()));
                 caps.setCapability("platformName", platformName);
-                caps.setCapability("deviceName", deviceName);
+                caps.setCapability("deviceName", device.getName());
+                caps.setCapability("udid", device.getUdid());
+                caps.setCapability("systemPort", device.getSystemPort());
                 caps.setCapability("automationName", ConfigReader.getProperty("mobile.automationName"));
                 caps.setCapability("app", ConfigReader.getProperty("mobile.appPath"));
 
-                mobileDriver = new AndroidDriver(new URL("http://127.0.0.1:4723/wd/hub"), caps);
+                AppiumDriver driver = new AndroidDriver(new URL(device.getServerUrl()), caps);
+                mobileDriver.set(driver);
+                activeMobileDrivers.put(driver, device);
+                ResourceRegistry.getInstance().register("mobile-drivers", DriverFactory::quitMobileDrivers,
+                        VideoRecorderMP4.RESOURCE_NAME, SessionVideoRecorder.RESOURCE_NAME);
                 logger.info("Mobile Driver initialized successfully");
             } catch (Exception e) {
+                getDeviceRegistry().release(device);
                 logger.error("Failed to initialize mobile driver", e);
                 throw new RuntimeException("Failed to initialize mobile driver", e);
             }
         }
-        return mobileDriver;
+        return mobileDriver.get();
     }
 
-    // Quit drivers
+    private static DeviceRegistry getDeviceRegistry() {
+        if (deviceRegistry == null) {
+            synchronized (DriverFactory.class) {
+                if (deviceRegistry == null) {
+                    deviceRegistry = DeviceRegistry.fromConfig();
+                }
+            }
+        }
+        return deviceRegistry;
+    }
+
+    // Quit the calling thread's drivers
     public static void quitDriver() {
         boolean anyDriverClosed = false;
-        if (webDriver != null) {
+        WebDriverPool pool = webDriverPools.get(getActiveBrowser());
+        if (pool != null && pool.current() != null) {
             logger.info("Quitting Web Driver");
-            webDriver.quit();
-            webDriver = null;
+            pool.evict();
             anyDriverClosed = true;
         }
-        if (mobileDriver != null) {
+        AppiumDriver driver = mobileDriver.get();
+        if (driver != null) {
             logger.info("Quitting Mobile Driver");
-            mobileDriver.quit();
-            mobileDriver = null;
+            mobileDriver.remove();
+            DeviceRegistry.Device device = activeMobileDrivers.remove(driver);
+            try {
+                driver.quit();
+            } finally {
+                deviceRegistry.release(device);
+            }
             anyDriverClosed = true;
         }
         if (anyDriverClosed) {
@@ -95,12 +291,93 @@ public class DriverFactory {
         }
     }
 
-    // Getters
+    // Release the calling thread's drivers at the end of a scenario. With
+    // web.session.recycle enabled the browser session is reset and returned to the
+    // pool for the next scenario; it is quit instead when the reset fails or the
+    // session reached web.session.maxReuse
+    public static void releaseDriver() {
+        releaseDriver(false);
+    }
+
+    // Sessions of failed scenarios are always quit, they may be in a broken state
+    public static void releaseDriver(boolean scenarioFailed) {
+        WebDriverPool pool = webDriverPools.get(getActiveBrowser());
+        if (scenarioFailed && pool != null && pool.current() != null) {
+            logger.info("Scenario failed, retiring its Web Driver session");
+        } else if (pool != null && pool.current() != null && isSessionRecycleEnabled()) {
+            int limit = ConfigSnapshot.get().getInt("web.session.maxReuse", 20);
+            int uses = pool.getUseCount();
+            if (uses >= limit) {
+                logger.info("Web Driver used by {} scenarios (limit {}), retiring session", uses, limit);
+            } else if (SessionRecycler.reset(pool.current())) {
+                pool.checkin();
+                logger.info("♻️ Web Driver reset and returned to pool (used {} of {})", uses, limit);
+            }
+        }
+        // Anything not recycled above is quit
+        quitDriver();
+    }
+
+    private static boolean isSessionRecycleEnabled() {
+        return ConfigSnapshot.get().getBoolean("web.session.recycle", false);
+    }
+
+    // Quit every driver owned by any thread. At suite end the runner closes the
+    // pools and mobile sessions through ResourceRegistry instead, in parallel
+    public static void quitAllDrivers() {
+        for (Map.Entry<String, WebDriverPool> entry : webDriverPools.entrySet()) {
+            shutdownPool(entry.getKey(), entry.getValue());
+        }
+        quitMobileDrivers();
+    }
+
+    // A shut down pool refuses checkouts; the next initWebDriver() (also reached through
+    // getWebDriver()) creates and registers a new one
+    private static void shutdownPool(String browser, WebDriverPool pool) {
+        webDriverPools.remove(browser, pool);
+        pool.shutdown();
+    }
+
+    private static void quitMobileDrivers() {
+        for (Map.Entry<AppiumDriver, DeviceRegistry.Device> entry : activeMobileDrivers.entrySet()) {
+            try {
+                entry.getKey().quit();
+            } catch (Exception e) {
+                logger.warn("Failed to quit mobile driver: {}", e.getMessage());
+            } finally {
+                deviceRegistry.release(entry.getValue());
+            }
+        }
+        activeMobileDrivers.clear();
+        mobileDriver.remove();
+    }
+
+    // Getters - resolve the session owned by the calling thread, starting it on first
+    // use so scenarios whose steps never ask for a driver never launch one
     public static WebDriver getWebDriver() {
-        return webDriver;
+        WebDriver webDriver = currentWebDriver();
+        return webDriver != null ? webDriver : initWebDriver();
     }
 
     public static AppiumDriver getMobileDriver() {
-        return mobileDriver;
+        AppiumDriver driver = mobileDriver.get();
+        return driver != null ? driver : initMobileDriver();
+    }
+
+    // Session of the calling thread if one was started, never starts one (for listeners and teardown)
+    public static WebDriver currentWebDriver() {
+        WebDriverPool pool = webDriverPools.get(getActiveBrowser());
+        return pool != null ? pool.current() : null;
+    }
+
+    // Scenarios the calling thread's web session has been checked out for, including the
+    // current one; 0 without a session
+    public static int getWebSessionUseCount() {
+        WebDriverPool pool = webDriverPools.get(getActiveBrowser());
+        return pool != null ? pool.getUseCount() : 0;
+    }
+
+    public static AppiumDriver currentMobileDriver() {
+        return mobileDriver.get();
     }
 }
@@ -20,6 +20,7 @@ public class ExtentManager {
 
             extent = new ExtentReports();
             extent.attachReporter(sparkReporter);
+            ResourceRegistry.getInstance().register("extent-report", extent::flush, VideoRecorderMP4.RESOURCE_NAME);
 
            /* // Optional: Add system info
             extent.setSystemInfo("OS", System.getProperty("os.name"));
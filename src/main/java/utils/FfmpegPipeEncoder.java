@@ -0,0 +1,210 @@
+package utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FfmpegPipeEncoder - Encodes frames to MP4 while they are captured
+ * Starts ffmpeg reading raw BGR frames from its stdin and writes every frame to the
+ * pipe as soon as it is captured, so no frame is kept in memory or written as a PNG
+ * and the video is complete as soon as finish() returns. ffmpeg output goes to a
+ * .log file next to the video, which is deleted when encoding succeeds.
+ *
+ * Width and height are rounded down to even numbers (H.264 with yuv420p needs that);
+ * larger frames are cropped.
+ */
+public class FfmpegPipeEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(FfmpegPipeEncoder.class);
+
+    private final Process process;
+    private final OutputStream pipe;
+    private final File output;
+    private final File log;
+    private final int width;
+    private final int height;
+    // Reused for every frame, one row of pixels and one frame of BGR bytes
+    private final int[] row;
+    private final byte[] frameBytes;
+    private final FrameChangeDetector changes = new FrameChangeDetector();
+    private int frameCount;
+    private int duplicateCount;
+
+    private FfmpegPipeEncoder(Process process, File output, File log, int width, int height) {
+        this.process = process;
+        this.pipe = new BufferedOutputStream(process.getOutputStream(), 1 << 16);
+        this.output = output;
+        this.log = log;
+        this.width = width;
+        this.height = height;
+        this.row = new int[width];
+        this.frameBytes = new byte[width * height * 3];
+    }
+
+    /**
+     * Start ffmpeg
+     *
+     * @param ffmpegPath ffmpeg executable
+     * @param output     MP4 file to create
+     * @param width      Frame width
+     * @param height     Frame height
+     * @param frameRate  Frames per second
+     * @return Encoder accepting frames
+     * @throws IOException if ffmpeg cannot be started
+     */
+    public static FfmpegPipeEncoder start(String ffmpegPath, File output, int width, int height, int frameRate)
+            throws IOException {
+        int evenWidth = width & ~1;
+        int evenHeight = height & ~1;
+        if (evenWidth <= 0 || evenHeight <= 0) {
+            throw new IllegalArgumentException("Frame size too small to encode: " + width + "x" + height);
+        }
+        File log = new File(output.getPath() + ".log");
+        ProcessBuilder pb = new ProcessBuilder(
+                ffmpegPath,
+                "-y", // Overwrite output file if exists
+                "-loglevel", "warning",
+                "-f", "rawvideo", // Uncompressed frames on stdin
+                "-pix_fmt", "bgr24",
+                "-s", evenWidth + "x" + evenHeight,
+                "-framerate", String.valueOf(frameRate),
+                "-i", "-",
+                "-c:v", "libx264", // H.264 codec for MP4
+                "-pix_fmt", "yuv420p", // Compatible pixel format
+                "-preset", "veryfast", // Keeps up with live capture
+                "-crf", "23", // Quality (lower is better, 23 is default)
+                output.getPath());
+        pb.redirectErrorStream(true);
+        pb.redirectOutput(log);
+        FfmpegPipeEncoder encoder = new FfmpegPipeEncoder(pb.start(), output, log, evenWidth, evenHeight);
+        logger.debug("Streaming {}x{} frames at {} FPS to ffmpeg for {}", evenWidth, evenHeight, frameRate, output);
+        return encoder;
+    }
+
+    /**
+     * Write one frame to ffmpeg. Blocks while ffmpeg is behind, so memory use stays
+     * bounded whatever the capture rate. A frame repeating the previous one is written
+     * again from the last converted bytes.
+     *
+     * @param frame Captured frame, at least as large as the encoder's frame size
+     * @return true if the frame repeated the previous one
+     * @throws IOException if ffmpeg has exited
+     */
+    public synchronized boolean writeFrame(BufferedImage frame) throws IOException {
+        boolean duplicate = changes.isDuplicate(frame);
+        if (duplicate) {
+            duplicateCount++;
+        } else {
+            toBgr(frame, width, height, row, frameBytes);
+        }
+        pipe.write(frameBytes);
+        frameCount++;
+        return duplicate;
+    }
+
+    /**
+     * Write one frame already converted to BGR bytes of the encoder's frame size
+     *
+     * @param bgr width * height * 3 bytes
+     * @throws IOException if ffmpeg has exited
+     */
+    public synchronized void writeFrame(byte[] bgr) throws IOException {
+        if (bgr.length != frameBytes.length) {
+            throw new IllegalArgumentException(
+                    "Frame has " + bgr.length + " bytes, " + width + "x" + height + " needs " + frameBytes.length);
+        }
+        pipe.write(bgr);
+        frameCount++;
+    }
+
+    /**
+     * Close ffmpeg's input and wait for the video to be written
+     *
+     * @param timeout Longest wait for ffmpeg to finish
+     * @param unit    Unit of the timeout
+     * @return true if the video was created
+     */
+    public synchronized boolean finish(long timeout, TimeUnit unit) {
+        try {
+            pipe.close();
+        } catch (IOException e) {
+            logger.warn("⚠️ ffmpeg input closed early: {}", e.getMessage());
+        }
+        try {
+            if (!process.waitFor(timeout, unit)) {
+                logger.error("❌ ffmpeg did not finish {} within {} {}", output.getName(), timeout, unit);
+                process.destroyForcibly();
+                return false;
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        if (process.exitValue() != 0 || !output.isFile() || output.length() == 0) {
+            logger.error("❌ ffmpeg failed with exit code {}, see {}", process.exitValue(), log.getPath());
+            return false;
+        }
+        log.delete();
+        return true;
+    }
+
+    /**
+     * Stop ffmpeg and delete whatever was written
+     */
+    public synchronized void abort() {
+        try {
+            pipe.close();
+        } catch (IOException e) {
+            // ffmpeg has already gone
+        }
+        process.destroyForcibly();
+        output.delete();
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public int getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    /**
+     * @return Bytes of the reused frame buffers
+     */
+    public long getRetainedBytes() {
+        return frameBytes.length + (long) row.length * Integer.BYTES;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Copy the top left width x height pixels of an image as BGR bytes
+     */
+    static void toBgr(BufferedImage image, int width, int height, int[] row, byte[] target) {
+        int offset = 0;
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int x = 0; x < width; x++) {
+                int rgb = row[x];
+                target[offset++] = (byte) rgb;
+                target[offset++] = (byte) (rgb >> 8);
+                target[offset++] = (byte) (rgb >> 16);
+            }
+        }
+    }
+}
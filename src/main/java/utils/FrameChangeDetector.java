@@ -0,0 +1,63 @@
+package utils;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * FrameChangeDetector - Tells whether a captured frame shows the same thing as the previous one
+ * While a test waits the page does not change, so most frames are repeats. Frames are
+ * compared by a hash of every pixel of every fourth row: any change of text or layout
+ * at least four pixels tall is seen, and hashing reads a quarter of the pixels instead
+ * of keeping a copy of the previous frame to compare with. Recorders keep or encode a
+ * repeat as a reference to the previous frame instead of a copy.
+ */
+public class FrameChangeDetector {
+
+    private static final int ROW_STEP = 4;
+
+    private boolean hasLast;
+    private long lastHash;
+    private int lastWidth = -1;
+    private int lastHeight = -1;
+    private int[] row = new int[0];
+
+    /**
+     * Compare a frame with the previous one and remember it for the next call
+     *
+     * @param frame Captured frame
+     * @return true if the frame looks the same as the previous one
+     */
+    public synchronized boolean isDuplicate(BufferedImage frame) {
+        // Not compared by identity: recorders redraw reused images in place
+        long hash = hash(frame);
+        boolean duplicate = hasLast && frame.getWidth() == lastWidth && frame.getHeight() == lastHeight && hash == lastHash;
+        hasLast = true;
+        lastHash = hash;
+        lastWidth = frame.getWidth();
+        lastHeight = frame.getHeight();
+        return duplicate;
+    }
+
+    /**
+     * Forget the previous frame, e.g. when a new recording starts
+     */
+    public synchronized void reset() {
+        hasLast = false;
+        lastWidth = -1;
+        lastHeight = -1;
+    }
+
+    private long hash(BufferedImage frame) {
+        int width = frame.getWidth();
+        if (row.length < width) {
+            row = new int[width];
+        }
+        long hash = 1125899906842597L;
+        for (int y = 0; y < frame.getHeight(); y += ROW_STEP) {
+            frame.getRGB(0, y, width, 1, row, 0, width);
+            for (int x = 0; x < width; x++) {
+                hash = 31 * hash + row[x];
+            }
+        }
+        return hash;
+    }
+}
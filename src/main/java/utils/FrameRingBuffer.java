@@ -0,0 +1,174 @@
+package utils;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * FrameRingBuffer - Fixed number of the most recent frames, for failure-only recording
+ * Frames are stored as BGR bytes in pooled slots; once the buffer is full the oldest
+ * frame is dropped and its slot goes back to the pool, so recording allocates nothing
+ * after the first pass. A frame that repeats the previous one (see FrameChangeDetector)
+ * shares its slot instead of taking a copy, so a test waiting on a static page holds
+ * a single slot. A buffer is meant to be kept across recordings: clear() only forgets
+ * the frames. Each slot takes width * height * 3 bytes (6 MB at 1920x1080).
+ *
+ * Frames are cropped to even dimensions like FfmpegPipeEncoder does, so the slots can
+ * be written to the encoder as they are.
+ */
+public class FrameRingBuffer {
+
+    private final int width;
+    private final int height;
+    private final int[] row;
+    private final FrameChangeDetector changes = new FrameChangeDetector();
+
+    // Pool of slots: allocated lazily, never more than one per frame held
+    private final byte[][] slots;
+    private final int[] references;
+    private final int[] freeSlots;
+    private int freeCount;
+    private int allocatedSlots;
+
+    // Slot of each frame held, in order; next is where the next frame goes
+    private final int[] frames;
+    private int next;
+    private int size;
+
+    /**
+     * @param capacity Frames to keep
+     * @param width    Frame width
+     * @param height   Frame height
+     */
+    public FrameRingBuffer(int capacity, int width, int height) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Ring buffer capacity must be positive: " + capacity);
+        }
+        this.width = width & ~1;
+        this.height = height & ~1;
+        this.row = new int[this.width];
+        this.slots = new byte[capacity][];
+        this.references = new int[capacity];
+        this.freeSlots = new int[capacity];
+        this.frames = new int[capacity];
+    }
+
+    /**
+     * Whether this buffer can be reused for a recording of the given size
+     */
+    public boolean fits(int capacity, int width, int height) {
+        return frames.length == capacity && this.width == (width & ~1) && this.height == (height & ~1);
+    }
+
+    /**
+     * Store a frame, dropping the oldest one when the buffer is full
+     *
+     * @return true if the frame repeated the previous one and shares its slot
+     */
+    public synchronized boolean add(BufferedImage frame) {
+        boolean duplicate = changes.isDuplicate(frame) && size > 0;
+        int slot = -1;
+        if (duplicate) {
+            // Referenced before the oldest frame is dropped, which may be the same one
+            slot = frames[(next - 1 + frames.length) % frames.length];
+            references[slot]++;
+        }
+        if (size == frames.length) {
+            release(frames[next]);
+            size--;
+        }
+        if (!duplicate) {
+            slot = acquire();
+            FfmpegPipeEncoder.toBgr(frame, width, height, row, slots[slot]);
+        }
+        frames[next] = slot;
+        next = (next + 1) % frames.length;
+        size++;
+        return duplicate;
+    }
+
+    /**
+     * Write the frames held to an encoder, oldest first
+     *
+     * @return Frames written
+     * @throws IOException if the encoder stops accepting frames
+     */
+    public synchronized int writeTo(FfmpegPipeEncoder encoder) throws IOException {
+        int oldest = (next - size + frames.length) % frames.length;
+        for (int i = 0; i < size; i++) {
+            encoder.writeFrame(slots[frames[(oldest + i) % frames.length]]);
+        }
+        return size;
+    }
+
+    /**
+     * Forget the frames held; the slots are kept for the next recording
+     */
+    public synchronized void clear() {
+        int oldest = (next - size + frames.length) % frames.length;
+        for (int i = 0; i < size; i++) {
+            release(frames[(oldest + i) % frames.length]);
+        }
+        next = 0;
+        size = 0;
+        changes.reset();
+    }
+
+    /**
+     * Forget the frames held and free all but the given number of slots, for a
+     * buffer that waits idle for the next recording
+     *
+     * @param keepSlots Slots kept allocated
+     */
+    public synchronized void clear(int keepSlots) {
+        clear();
+        int keep = Math.max(0, Math.min(keepSlots, allocatedSlots));
+        for (int slot = keep; slot < allocatedSlots; slot++) {
+            slots[slot] = null;
+        }
+        allocatedSlots = keep;
+        freeCount = 0;
+        for (int slot = keep - 1; slot >= 0; slot--) {
+            freeSlots[freeCount++] = slot;
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return frames.length;
+    }
+
+    /**
+     * @return Slots holding at least one frame
+     */
+    public synchronized int getSlotsInUse() {
+        return allocatedSlots - freeCount;
+    }
+
+    /**
+     * @return Bytes allocated for frame slots so far
+     */
+    public synchronized long getRetainedBytes() {
+        return (long) allocatedSlots * width * height * 3;
+    }
+
+    private int acquire() {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            slot = allocatedSlots++;
+            slots[slot] = new byte[width * height * 3];
+        }
+        references[slot] = 1;
+        return slot;
+    }
+
+    private void release(int slot) {
+        if (--references[slot] == 0) {
+            freeSlots[freeCount++] = slot;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * GridDispatcher - Capacity-aware RemoteWebDriver creation against the Selenium Grid hub
+ * Session requests are queued on the client side, one fair queue per browser, and the
+ * head of the queue only sends its new-session request once the hub's /status reports
+ * a free slot for that browser. Requests never pile up in the grid's own queue, so the
+ * suite thread count can exceed the node slots without hitting grid queue timeouts.
+ *
+ * Queue-wait and session-create times of the last session created on a thread are
+ * available through {@link #takeLastTiming()}.
+ */
+public class GridDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(GridDispatcher.class);
+    private static final ThreadLocal<SessionTiming> lastTiming = new ThreadLocal<>();
+
+    private final URL hubUrl;
+    private final URI statusUri;
+    private final Duration pollInterval;
+    private final Duration queueTimeout;
+    private final HttpClient httpClient;
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    // Fair FIFO queue per browser and sessions requested but not yet visible in /status
+    private final Map<String, ReentrantLock> queues = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> pendingCreates = new ConcurrentHashMap<>();
+
+    /**
+     * Queue-wait and create time of a grid session
+     */
+    public static class SessionTiming {
+        private final long queueWaitMillis;
+        private final long createMillis;
+
+        SessionTiming(long queueWaitMillis, long createMillis) {
+            this.queueWaitMillis = queueWaitMillis;
+            this.createMillis = createMillis;
+        }
+
+        public long getQueueWaitMillis() {
+            return queueWaitMillis;
+        }
+
+        public long getCreateMillis() {
+            return createMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("queue wait %d ms, session create %d ms", queueWaitMillis, createMillis);
+        }
+    }
+
+    /**
+     * Create a dispatcher for a hub
+     *
+     * @param hubUrl       Hub URL, e.g. http://selenium-hub:4444/wd/hub
+     * @param pollInterval Interval between /status polls while waiting for a slot
+     * @param queueTimeout Maximum time a request waits for a free slot
+     */
+    public GridDispatcher(String hubUrl, Duration pollInterval, Duration queueTimeout) {
+        try {
+            this.hubUrl = new URL(hubUrl);
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("Invalid Selenium Grid URL: " + hubUrl, e);
+        }
+        String base = hubUrl.replaceAll("/+$", "").replaceAll("/wd/hub$", "");
+        this.statusUri = URI.create(base + "/status");
+        this.pollInterval = pollInterval;
+        this.queueTimeout = queueTimeout;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        logger.info("🌐 Selenium Grid dispatcher created for hub: {}", hubUrl);
+    }
+
+    /**
+     * Wait for a free slot for the requested browser, then create a session on the grid
+     *
+     * @param capabilities Requested capabilities
+     * @return Remote session
+     */
+    public WebDriver createSession(Capabilities capabilities) {
+        String browser = capabilities.getBrowserName().toLowerCase();
+        ReentrantLock queue = queues.computeIfAbsent(browser, key -> new ReentrantLock(true));
+        AtomicInteger pending = pendingCreates.computeIfAbsent(browser, key -> new AtomicInteger());
+
+        long queuedAt = System.nanoTime();
+        try {
+            if (!queue.tryLock(queueTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new IllegalStateException(timeoutMessage(browser));
+            }
+            try {
+                awaitFreeSlot(browser, pending, queuedAt + queueTimeout.toNanos());
+                pending.incrementAndGet();
+            } finally {
+                queue.unlock();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a " + browser + " grid slot", e);
+        }
+
+        long createStart = System.nanoTime();
+        try {
+            WebDriver driver = new RemoteWebDriver(hubUrl, capabilities);
+            SessionTiming timing = new SessionTiming(TimeUnit.NANOSECONDS.toMillis(createStart - queuedAt),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - createStart));
+            lastTiming.set(timing);
+            logger.info("🌐 Grid {} session created ({})", browser, timing);
+            return driver;
+        } finally {
+            pending.decrementAndGet();
+        }
+    }
+
+    /**
+     * Check whether any grid node offers the browser, busy or not
+     *
+     * @param browserName Capability browser name, e.g. chrome or MicrosoftEdge
+     * @return true if a node slot has a matching stereotype
+     */
+    public boolean isBrowserAvailable(String browserName) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(statusUri).timeout(Duration.ofSeconds(5)).GET().build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            for (JsonNode node : mapper.readTree(response.body()).path("value").path("nodes")) {
+                for (JsonNode slot : node.path("slots")) {
+                    if (browserName.equalsIgnoreCase(slot.path("stereotype").path("browserName").asText())) {
+                        return true;
+                    }
+                }
+            }
+        } catch (java.io.IOException e) {
+            logger.debug("Grid status not available: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    /**
+     * Get and clear the timing of the last session created on the calling thread
+     *
+     * @return Timing or null if the thread has not created a session since the last call
+     */
+    public static SessionTiming takeLastTiming() {
+        SessionTiming timing = lastTiming.get();
+        lastTiming.remove();
+        return timing;
+    }
+
+    private void awaitFreeSlot(String browser, AtomicInteger pending, long deadline) throws InterruptedException {
+        boolean loggedWait = false;
+        while (true) {
+            int freeSlots = queryFreeSlots(browser);
+            if (freeSlots - pending.get() > 0) {
+                return;
+            }
+            if (System.nanoTime() >= deadline) {
+                throw new IllegalStateException(timeoutMessage(browser));
+            }
+            if (!loggedWait) {
+                logger.info("⏳ No free {} slot on the grid, queueing thread: {}", browser,
+                        Thread.currentThread().getName());
+                loggedWait = true;
+            }
+            Thread.sleep(pollInterval.toMillis());
+        }
+    }
+
+    /**
+     * Count free slots for a browser from the hub's /status response. Returns 0 when
+     * the hub is not reachable or not ready, so callers keep waiting.
+     */
+    private int queryFreeSlots(String browser) throws InterruptedException {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(statusUri).timeout(Duration.ofSeconds(5)).GET().build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                logger.debug("Grid status returned HTTP {}", response.statusCode());
+                return 0;
+            }
+            return countFreeSlots(response.body(), browser);
+        } catch (java.io.IOException e) {
+            logger.debug("Grid status not available: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Count idle slots for a browser on nodes that are UP in a Grid 4 /status body.
+     * A hub that is not ready and a body that is not JSON count as no free slot.
+     */
+    static int countFreeSlots(String statusBody, String browser) {
+        JsonNode status;
+        try {
+            status = mapper.readTree(statusBody);
+        } catch (java.io.IOException e) {
+            logger.debug("Grid status is not valid JSON: {}", e.getMessage());
+            return 0;
+        }
+        if (status == null) {
+            return 0;
+        }
+        JsonNode value = status.path("value");
+        if (!value.path("ready").asBoolean(false)) {
+            return 0;
+        }
+        int free = 0;
+        for (JsonNode node : value.path("nodes")) {
+            if (!"UP".equalsIgnoreCase(node.path("availability").asText())) {
+                continue;
+            }
+            for (JsonNode slot : node.path("slots")) {
+                JsonNode session = slot.path("session");
+                boolean idle = session.isMissingNode() || session.isNull();
+                if (idle && browser.equalsIgnoreCase(slot.path("stereotype").path("browserName").asText())) {
+                    free++;
+                }
+            }
+        }
+        return free;
+    }
+
+    private String timeoutMessage(String browser) {
+        return String.format("Timed out after %ds waiting for a free %s slot on %s",
+                queueTimeout.getSeconds(), browser, statusUri);
+    }
+}
@@ -0,0 +1,243 @@
+package utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * HostHealthTracker - Circuit breaker per application host
+ * Hosts are the origins of the URLs passed to URLManager.logNavigation, e.g. the
+ * OrangeHRM and TesterBud base URLs. When a scenario fails, the hosts it visited are
+ * probed with a short HTTP request; a connection error, timeout or 5xx answer counts
+ * as a host failure. After host.circuit.failureThreshold failures in a row the circuit
+ * opens and later scenarios that need the host are skipped right away, before a
+ * browser is started when the feature is known to use the host. Once
+ * host.circuit.coolDownSeconds have passed, the next scenario probes the host again
+ * and closes the circuit if it answers.
+ */
+public class HostHealthTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(HostHealthTracker.class);
+    private static volatile HostHealthTracker instance;
+    private static final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    public enum State {
+        CLOSED, OPEN
+    }
+
+    private static class Circuit {
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openedAtNanos;
+        private String reason;
+    }
+
+    private final int failureThreshold;
+    private final Duration coolDown;
+    private final Predicate<String> prober;
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+    // Hosts each feature navigated to, so later scenarios can be skipped before setup
+    private final Map<String, Set<String>> featureHosts = new ConcurrentHashMap<>();
+    private final ThreadLocal<String> scenarioFeature = new ThreadLocal<>();
+    private final ThreadLocal<Set<String>> scenarioHosts = ThreadLocal.withInitial(LinkedHashSet::new);
+
+    /**
+     * Create a tracker
+     *
+     * @param failureThreshold Consecutive failures that open a circuit
+     * @param coolDown         Time an open circuit waits before probing the host again
+     * @param prober           Returns true if the host origin is reachable
+     */
+    public HostHealthTracker(int failureThreshold, Duration coolDown, Predicate<String> prober) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.coolDown = coolDown;
+        this.prober = prober;
+    }
+
+    public static boolean isEnabled() {
+        return ConfigSnapshot.get().getBoolean("host.circuit.enabled", false);
+    }
+
+    /**
+     * Get the tracker shared by all scenarios of this JVM
+     *
+     * @return Host health tracker
+     */
+    public static HostHealthTracker getInstance() {
+        if (instance == null) {
+            synchronized (HostHealthTracker.class) {
+                if (instance == null) {
+                    ConfigSnapshot config = ConfigSnapshot.get();
+                    Duration probeTimeout = config.getDuration("host.circuit.probeTimeoutSeconds",
+                            ChronoUnit.SECONDS, 5);
+                    instance = new HostHealthTracker(config.getInt("host.circuit.failureThreshold", 3),
+                            config.getDuration("host.circuit.coolDownSeconds", ChronoUnit.SECONDS, 60),
+                            origin -> isReachable(origin, probeTimeout));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Start tracking a scenario. Skips it when its feature uses a host whose circuit is open.
+     *
+     * @param featureUri Feature file of the scenario
+     * @throws HostUnavailableException if a host of the feature is down
+     */
+    public void startScenario(String featureUri) {
+        scenarioFeature.set(featureUri);
+        scenarioHosts.get().clear();
+        for (String origin : featureHosts.getOrDefault(featureUri, Collections.emptySet())) {
+            checkAvailable(origin);
+        }
+    }
+
+    /**
+     * Check a host before navigating to it and remember it for the current scenario
+     *
+     * @param url URL about to be opened
+     * @throws HostUnavailableException if the host's circuit is open
+     */
+    public void beforeNavigation(String url) {
+        String origin = originOf(url);
+        if (origin == null) {
+            return;
+        }
+        scenarioHosts.get().add(origin);
+        String feature = scenarioFeature.get();
+        if (feature != null) {
+            featureHosts.computeIfAbsent(feature, key -> ConcurrentHashMap.newKeySet()).add(origin);
+        }
+        checkAvailable(origin);
+    }
+
+    /**
+     * Finish the current scenario. The hosts of a failed scenario are probed so that an
+     * application failure is not mistaken for a host failure.
+     *
+     * @param failed Whether the scenario failed
+     */
+    public void finishScenario(boolean failed) {
+        try {
+            for (String origin : scenarioHosts.get()) {
+                Circuit circuit = circuits.computeIfAbsent(origin, key -> new Circuit());
+                synchronized (circuit) {
+                    if (circuit.state == State.OPEN) {
+                        continue;
+                    }
+                    if (!failed || prober.test(origin)) {
+                        circuit.consecutiveFailures = 0;
+                    } else {
+                        recordFailure(origin, circuit, "host did not respond after a failed scenario");
+                    }
+                }
+            }
+        } finally {
+            scenarioHosts.remove();
+            scenarioFeature.remove();
+        }
+    }
+
+    public State getState(String url) {
+        Circuit circuit = circuits.get(originOf(url));
+        return circuit != null ? circuit.state : State.CLOSED;
+    }
+
+    /**
+     * Get the origin (scheme, host and port) of a URL
+     *
+     * @param url URL
+     * @return Origin such as https://testerbud.com, or null for URLs without a host
+     */
+    public static String originOf(String url) {
+        if (url == null) {
+            return null;
+        }
+        try {
+            URI uri = URI.create(url.trim());
+            if (uri.getHost() == null) {
+                return null;
+            }
+            return uri.getScheme() + "://" + uri.getHost() + (uri.getPort() >= 0 ? ":" + uri.getPort() : "");
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void checkAvailable(String origin) {
+        Circuit circuit = circuits.get(origin);
+        if (circuit == null) {
+            return;
+        }
+        synchronized (circuit) {
+            if (circuit.state == State.CLOSED) {
+                return;
+            }
+            long openFor = System.nanoTime() - circuit.openedAtNanos;
+            if (openFor >= coolDown.toNanos()) {
+                // Cool-down over: one scenario probes while the others wait on the lock
+                if (prober.test(origin)) {
+                    logger.info("✅ {} is reachable again, circuit closed", origin);
+                    circuit.state = State.CLOSED;
+                    circuit.consecutiveFailures = 0;
+                    return;
+                }
+                circuit.openedAtNanos = System.nanoTime();
+                logger.warn("⚠️ {} is still down, circuit stays open for another {}s", origin, coolDown.getSeconds());
+            }
+            throw new HostUnavailableException(String.format("%s is unavailable (%s), circuit open after %d "
+                    + "consecutive failures; skipping scenario", origin, circuit.reason, circuit.consecutiveFailures));
+        }
+    }
+
+    private void recordFailure(String origin, Circuit circuit, String reason) {
+        circuit.consecutiveFailures++;
+        circuit.reason = reason;
+        logger.warn("⚠️ {} failure {} of {}: {}", origin, circuit.consecutiveFailures, failureThreshold, reason);
+        if (circuit.consecutiveFailures >= failureThreshold) {
+            circuit.state = State.OPEN;
+            circuit.openedAtNanos = System.nanoTime();
+            logger.error("🔌 Circuit opened for {}: remaining scenarios for this host will be skipped for {}s",
+                    origin, coolDown.getSeconds());
+        }
+    }
+
+    /**
+     * Probe a host with a GET request
+     *
+     * @param origin  Host origin
+     * @param timeout Connect and response timeout
+     * @return true if the host answered without a server error
+     */
+    static boolean isReachable(String origin, Duration timeout) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(origin + "/"))
+                    .timeout(timeout)
+                    .GET()
+                    .build();
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 500;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            logger.debug("Probe of {} failed: {}", origin, e.toString());
+            return false;
+        }
+    }
+}
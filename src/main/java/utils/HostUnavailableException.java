@@ -0,0 +1,16 @@
+package utils;
+
+import org.testng.SkipException;
+
+/**
+ * Thrown when a scenario needs a host whose circuit is open. Cucumber and TestNG
+ * report the scenario as skipped with this message instead of failing it.
+ */
+public class HostUnavailableException extends SkipException {
+
+    private static final long serialVersionUID = 1L;
+
+    public HostUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,565 @@
+package utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * ImpactIndex - Selects the scenarios affected by a change
+ * The index is built from the sources on every run:
+ *   classes      pages.*, utils.* and the other classes, with the classes each one uses
+ *   step methods the @Given/@When/@Then methods of stepdefinitions.* with the classes they use,
+ *                directly or through a field such as pimPage
+ *   scenarios    every scenario of the feature files (one per Examples row) with its steps,
+ *                background included
+ * A changed class affects every class that uses it, directly or indirectly; the scenarios
+ * with a step matching an affected step method are selected. A changed step definition
+ * class affects all its steps and a changed feature file all its scenarios. Classes used
+ * by hooks or runners, and files the index does not know (pom.xml, config, testng.xml,
+ * deleted classes), run on every scenario, so changing them selects the whole suite.
+ * Only documentation (*.md) is ignored.
+ *
+ * Configured in config.properties:
+ *   impact.selection.enabled=false
+ *   impact.baseRef=origin/main          changes are git diff against this ref, working tree included
+ *   impact.changedFiles=                comma-separated paths, used instead of git when set
+ *
+ * Dry run: mvn exec:java -Dexec.mainClass=utils.ImpactIndex -Dexec.classpathScope=test
+ */
+public class ImpactIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImpactIndex.class);
+
+    private static final String MAIN_JAVA = "src/main/java/";
+    private static final String TEST_JAVA = "src/test/java/";
+    private static final String FEATURES = "src/test/resources/features/";
+    private static final Set<String> GLOBAL_PACKAGES = new HashSet<>(Arrays.asList("hooks", "runners"));
+    // Changes that never affect a test run; any other file the index does not know selects every scenario
+    private static final List<String> IGNORED_SUFFIXES = Arrays.asList(".md");
+
+    private static final Pattern STEP_ANNOTATION = Pattern.compile(
+            "@(?:Given|When|Then|And|But)\\s*\\(\\s*\"((?:[^\"\\\\]|\\\\.)*)\"");
+    private static final Pattern CLASS_DECLARATION = Pattern.compile("\\b(?:class|interface|enum)\\s+(\\w+)");
+    private static final Pattern FIELD_DECLARATION = Pattern.compile(
+            "^\\s*(?:(?:private|protected|public|static|final)\\s+)*([A-Z]\\w*)(?:<[^;=]*>)?\\s+(\\w+)\\s*(=[^;]*)?;");
+    private static final Pattern METHOD_SIGNATURE = Pattern.compile("(\\w+)\\s*\\([^()]*\\)\\s*(?:throws[^{]*)?$");
+    private static final Pattern IDENTIFIER = Pattern.compile("\\b[A-Za-z_]\\w*\\b");
+    private static final Pattern STEP_KEYWORD = Pattern.compile("^(?:Given|When|Then|And|But|\\*)\\s+(.*)$");
+    private static final Pattern SCENARIO = Pattern.compile("^(?:Scenario|Example|Scenario Outline|Scenario Template)\\s*:.*");
+
+    private static class StepMethod {
+        private final String className;
+        private final String name;
+        private final List<Pattern> patterns = new ArrayList<>();
+        private final Set<String> uses = new HashSet<>();
+
+        private StepMethod(String className, String name) {
+            this.className = className;
+            this.name = name;
+        }
+    }
+
+    private static class Scenario {
+        private final String featureFile;
+        private final String key;
+        private final List<String> steps;
+
+        private Scenario(String featureFile, int line, List<String> steps) {
+            this.featureFile = featureFile;
+            this.key = ScenarioDurationHistory.key(featureFile, line);
+            this.steps = steps;
+        }
+    }
+
+    // Class name -> source file and the classes it uses
+    private final Map<String, String> classFiles = new HashMap<>();
+    private final Map<String, Set<String>> classUses = new HashMap<>();
+    private final Map<String, String> stepDefinitionFiles = new HashMap<>();
+    private final List<StepMethod> stepMethods = new ArrayList<>();
+    private final List<Scenario> scenarios = new ArrayList<>();
+
+    public static boolean isEnabled() {
+        return ConfigSnapshot.get().getBoolean("impact.selection.enabled", false);
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<String> changedFiles = args.length > 0 ? Arrays.asList(args) : getChangedFiles();
+        Set<String> affected = build(Paths.get(".")).findAffectedScenarios(changedFiles);
+        if (affected == null) {
+            logger.info("🎯 All scenarios are affected");
+            return;
+        }
+        affected.forEach(key -> logger.info("🎯 {}", key));
+    }
+
+    /**
+     * Build the index from the sources of a project
+     *
+     * @param projectDir Directory with src/main/java, src/test/java and src/test/resources/features
+     * @return Index
+     * @throws IOException if a source file cannot be read
+     */
+    public static ImpactIndex build(Path projectDir) throws IOException {
+        long start = System.nanoTime();
+        ImpactIndex index = new ImpactIndex();
+        for (Path javaFile : listFiles(projectDir, MAIN_JAVA, ".java")) {
+            index.indexClass(projectDir, javaFile);
+        }
+        for (Path javaFile : listFiles(projectDir, TEST_JAVA, ".java")) {
+            String path = relativePath(projectDir, javaFile);
+            if (path.startsWith(TEST_JAVA + "stepdefinitions/")) {
+                index.indexStepDefinitions(path, read(javaFile));
+            } else {
+                index.indexClass(projectDir, javaFile);
+            }
+        }
+        for (Path featureFile : listFiles(projectDir, FEATURES, ".feature")) {
+            index.indexFeature(relativePath(projectDir, featureFile), Files.readAllLines(featureFile,
+                    StandardCharsets.UTF_8));
+        }
+        logger.info("🎯 Impact index: {} class(es), {} step method(s), {} scenario(s) in {} ms",
+                index.classFiles.size(), index.stepMethods.size(), index.scenarios.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return index;
+    }
+
+    /**
+     * Get the changed files from impact.changedFiles or from git diff against impact.baseRef
+     *
+     * @return Changed paths relative to the project, or null if they cannot be determined
+     */
+    public static List<String> getChangedFiles() {
+        ConfigSnapshot config = ConfigSnapshot.get();
+        List<String> configured = config.getList("impact.changedFiles");
+        if (!configured.isEmpty()) {
+            return configured;
+        }
+        String baseRef = config.getString("impact.baseRef", "origin/main");
+        try {
+            Process process = new ProcessBuilder("git", "diff", "--name-only", "--relative", baseRef)
+                    .redirectErrorStream(true)
+                    .start();
+            List<String> output;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(),
+                    StandardCharsets.UTF_8))) {
+                output = reader.lines().filter(line -> !line.trim().isEmpty()).collect(Collectors.toList());
+            }
+            if (process.waitFor() != 0) {
+                logger.warn("⚠️ git diff against {} failed: {}", baseRef, String.join(" ", output));
+                return null;
+            }
+            logger.info("🎯 {} file(s) changed since {}", output.size(), baseRef);
+            return output;
+        } catch (IOException e) {
+            logger.warn("⚠️ Could not run git diff: {}", e.getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Find the scenarios affected by changed files
+     *
+     * @param changedFiles Paths relative to the project, or null if unknown
+     * @return Keys of the affected scenarios (see ScenarioDurationHistory.key), or null if
+     *         every scenario is affected
+     */
+    public Set<String> findAffectedScenarios(Collection<String> changedFiles) {
+        if (changedFiles == null) {
+            return null;
+        }
+        Set<String> changedClasses = new HashSet<>();
+        Set<String> changedStepClasses = new HashSet<>();
+        Set<String> changedFeatures = new HashSet<>();
+        for (String file : changedFiles) {
+            String path = file.trim().replace('\\', '/');
+            if (path.isEmpty() || IGNORED_SUFFIXES.stream().anyMatch(path::endsWith)) {
+                continue;
+            }
+            String className = classOf(path);
+            if (path.endsWith(".feature")) {
+                changedFeatures.add(path);
+            } else if (className != null && path.equals(stepDefinitionFiles.get(className))) {
+                changedStepClasses.add(className);
+            } else if (className != null && path.equals(classFiles.get(className))) {
+                changedClasses.add(className);
+            } else {
+                // Includes deleted classes and sources outside src/main/java and src/test/java
+                logger.info("🎯 {} is not covered by the impact index, running all scenarios", path);
+                return null;
+            }
+        }
+
+        Set<String> affectedClasses = findDependents(changedClasses);
+        for (String className : affectedClasses) {
+            String file = classFiles.get(className);
+            String pkg = file.startsWith(TEST_JAVA) ? file.substring(TEST_JAVA.length()).split("/")[0] : "";
+            if (GLOBAL_PACKAGES.contains(pkg)) {
+                logger.info("🎯 {} affects {}, running all scenarios", changedClasses, file);
+                return null;
+            }
+        }
+
+        List<StepMethod> affectedSteps = stepMethods.stream()
+                .filter(step -> changedStepClasses.contains(step.className)
+                        || step.uses.stream().anyMatch(affectedClasses::contains))
+                .collect(Collectors.toList());
+        affectedSteps.forEach(step -> logger.debug("Affected step method {}.{}", step.className, step.name));
+        Set<String> affected = new TreeSet<>();
+        for (Scenario scenario : scenarios) {
+            if (changedFeatures.contains(scenario.featureFile)
+                    || scenario.steps.stream().anyMatch(step -> matchesAny(step, affectedSteps))) {
+                affected.add(scenario.key);
+            }
+        }
+        logger.info("🎯 {} changed class(es) affect {} class(es), {} step method(s) and {} of {} scenario(s)",
+                changedClasses.size() + changedStepClasses.size(), affectedClasses.size(), affectedSteps.size(),
+                affected.size(), scenarios.size());
+        return affected;
+    }
+
+    private Set<String> findDependents(Set<String> changedClasses) {
+        Set<String> affected = new HashSet<>(changedClasses);
+        Deque<String> queue = new ArrayDeque<>(changedClasses);
+        while (!queue.isEmpty()) {
+            String used = queue.poll();
+            for (Map.Entry<String, Set<String>> entry : classUses.entrySet()) {
+                if (entry.getValue().contains(used) && affected.add(entry.getKey())) {
+                    queue.add(entry.getKey());
+                }
+            }
+        }
+        return affected;
+    }
+
+    private static boolean matchesAny(String stepText, List<StepMethod> steps) {
+        for (StepMethod step : steps) {
+            for (Pattern pattern : step.patterns) {
+                if (pattern.matcher(stepText).matches()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void indexClass(Path projectDir, Path javaFile) throws IOException {
+        String path = relativePath(projectDir, javaFile);
+        String className = classOf(path);
+        classFiles.put(className, path);
+        classUses.put(className, identifiers(stripCode(read(javaFile))));
+    }
+
+    void indexStepDefinitions(String path, String source) {
+        String className = classOf(path);
+        String code = stripCode(source);
+        stepDefinitionFiles.put(className, path);
+
+        // Method bodies, keyed by the position of their opening brace
+        Map<Integer, StepMethod> methods = new LinkedHashMap<>();
+        Map<Integer, Integer> bodyEnds = new HashMap<>();
+        Matcher annotation = STEP_ANNOTATION.matcher(source);
+        while (annotation.find()) {
+            if (code.charAt(annotation.start()) != '@') {
+                continue; // commented out
+            }
+            int open = code.indexOf('{', annotation.end());
+            if (open < 0) {
+                continue;
+            }
+            Matcher signature = METHOD_SIGNATURE.matcher(code.substring(annotation.end(), open));
+            String methodName = signature.find() ? signature.group(1) : "?";
+            StepMethod method = methods.computeIfAbsent(open, key -> new StepMethod(className, methodName));
+            method.patterns.add(toPattern(unescape(annotation.group(1))));
+            bodyEnds.put(open, findClosingBrace(code, open));
+        }
+
+        // Whatever is outside the step methods: imports, fields and their initializers, helpers
+        StringBuilder classLevel = new StringBuilder();
+        int position = 0;
+        for (Map.Entry<Integer, StepMethod> entry : methods.entrySet()) {
+            classLevel.append(code, position, entry.getKey()).append('\n');
+            position = bodyEnds.get(entry.getKey());
+        }
+        classLevel.append(code.substring(position));
+
+        Map<String, String> fieldTypes = new HashMap<>();
+        Set<String> sharedUses = new HashSet<>();
+        for (String line : classLevel.toString().split("\n")) {
+            if (line.trim().startsWith("import ")) {
+                continue;
+            }
+            Matcher field = FIELD_DECLARATION.matcher(line);
+            if (field.find()) {
+                fieldTypes.put(field.group(2), field.group(1));
+                if (field.group(3) != null) {
+                    // Initializers run for every step of the class; the field's own type is used through the field
+                    Set<String> initializer = identifiers(field.group(3));
+                    initializer.remove(field.group(1));
+                    sharedUses.addAll(initializer);
+                }
+            }
+        }
+        for (Map.Entry<Integer, StepMethod> entry : methods.entrySet()) {
+            StepMethod method = entry.getValue();
+            for (String identifier : identifiers(code.substring(entry.getKey(), bodyEnds.get(entry.getKey())))) {
+                method.uses.add(fieldTypes.getOrDefault(identifier, identifier));
+            }
+            method.uses.addAll(sharedUses);
+            stepMethods.add(method);
+        }
+    }
+
+    void indexFeature(String path, List<String> lines) {
+        List<String> background = new ArrayList<>();
+        List<String> steps = null;
+        int scenarioLine = 0;
+        List<String> header = null;
+        boolean inExamples = false;
+        boolean inDocString = false;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            int lineNumber = i + 1;
+            if (line.startsWith("\"\"\"") || line.startsWith("```")) {
+                inDocString = !inDocString;
+                continue;
+            }
+            if (inDocString || line.isEmpty() || line.startsWith("#") || line.startsWith("@")) {
+                continue;
+            }
+            if (line.startsWith("Background:")) {
+                addScenario(path, scenarioLine, steps, inExamples);
+                steps = background;
+                inExamples = false;
+            } else if (SCENARIO.matcher(line).matches()) {
+                addScenario(path, scenarioLine, steps, inExamples);
+                steps = new ArrayList<>(background);
+                scenarioLine = lineNumber;
+                inExamples = false;
+            } else if (line.startsWith("Examples:") || line.startsWith("Scenarios:")) {
+                inExamples = true;
+                header = null;
+            } else if (line.startsWith("Rule:") || line.startsWith("Feature:")) {
+                addScenario(path, scenarioLine, steps, inExamples);
+                steps = null;
+                inExamples = false;
+            } else if (inExamples && line.startsWith("|") && steps != null) {
+                List<String> cells = cells(line);
+                if (header == null) {
+                    header = cells;
+                } else {
+                    scenarios.add(new Scenario(path, lineNumber, substitute(steps, header, cells)));
+                }
+            } else if (steps != null && !line.startsWith("|")) {
+                Matcher step = STEP_KEYWORD.matcher(line);
+                if (step.matches()) {
+                    steps.add(step.group(1).trim());
+                }
+            }
+        }
+        addScenario(path, scenarioLine, steps, inExamples);
+    }
+
+    public int getScenarioCount() {
+        return scenarios.size();
+    }
+
+    // Outlines were added per Examples row; backgrounds are not scenarios of their own
+    private void addScenario(String path, int line, List<String> steps, boolean outline) {
+        if (steps != null && line > 0 && !outline) {
+            scenarios.add(new Scenario(path, line, steps));
+        }
+    }
+
+    private static List<String> substitute(List<String> steps, List<String> header, List<String> values) {
+        List<String> result = new ArrayList<>();
+        for (String step : steps) {
+            String text = step;
+            for (int i = 0; i < header.size() && i < values.size(); i++) {
+                text = text.replace("<" + header.get(i) + ">", values.get(i));
+            }
+            result.add(text);
+        }
+        return result;
+    }
+
+    private static List<String> cells(String row) {
+        String inner = row.substring(1, row.endsWith("|") && row.length() > 1 ? row.length() - 1 : row.length());
+        List<String> cells = new ArrayList<>();
+        for (String cell : inner.split("\\|", -1)) {
+            cells.add(cell.trim());
+        }
+        return cells;
+    }
+
+    /**
+     * Convert a step annotation to a regular expression. Regular expressions (^...$) are used
+     * as they are; Cucumber expressions have their parameters, optional text and
+     * alternatives replaced.
+     */
+    static Pattern toPattern(String expression) {
+        if (expression.startsWith("^") || expression.endsWith("$")) {
+            return Pattern.compile(expression);
+        }
+        StringBuilder regex = new StringBuilder();
+        Matcher token = Pattern.compile("\\{(\\w*)}|\\(([^)]*)\\)|([^\\s{}()/]+(?:/[^\\s{}()/]+)+)|(.)")
+                .matcher(expression);
+        while (token.find()) {
+            if (token.group(1) != null) {
+                regex.append(parameterRegex(token.group(1)));
+            } else if (token.group(2) != null) {
+                regex.append("(?:").append(Pattern.quote(token.group(2))).append(")?");
+            } else if (token.group(3) != null) {
+                regex.append(Arrays.stream(token.group(3).split("/")).map(Pattern::quote)
+                        .collect(Collectors.joining("|", "(?:", ")")));
+            } else {
+                regex.append(Pattern.quote(token.group(4)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static String parameterRegex(String type) {
+        switch (type) {
+            case "string":
+                return "(?:\"[^\"]*\"|'[^']*')";
+            case "int":
+            case "long":
+            case "byte":
+            case "short":
+            case "biginteger":
+                return "-?\\d+";
+            case "float":
+            case "double":
+            case "bigdecimal":
+                return "-?\\d*[.,]?\\d+";
+            case "word":
+                return "\\S+";
+            default:
+                return ".*";
+        }
+    }
+
+    private static String unescape(String javaString) {
+        return javaString.replaceAll("\\\\(.)", "$1");
+    }
+
+    private static Set<String> identifiers(String code) {
+        Set<String> identifiers = new HashSet<>();
+        Matcher matcher = IDENTIFIER.matcher(code);
+        while (matcher.find()) {
+            identifiers.add(matcher.group());
+        }
+        Matcher declaration = CLASS_DECLARATION.matcher(code);
+        while (declaration.find()) {
+            identifiers.remove(declaration.group(1));
+        }
+        return identifiers;
+    }
+
+    private static int findClosingBrace(String code, int open) {
+        int depth = 0;
+        for (int i = open; i < code.length(); i++) {
+            if (code.charAt(i) == '{') {
+                depth++;
+            } else if (code.charAt(i) == '}' && --depth == 0) {
+                return i + 1;
+            }
+        }
+        return code.length();
+    }
+
+    /**
+     * Blank out comments and the contents of string and character literals, keeping
+     * every other character at its position
+     */
+    static String stripCode(String source) {
+        StringBuilder code = new StringBuilder(source);
+        int i = 0;
+        while (i < code.length()) {
+            char c = code.charAt(i);
+            char next = i + 1 < code.length() ? code.charAt(i + 1) : 0;
+            int end;
+            if (c == '/' && next == '/') {
+                end = code.indexOf("\n", i);
+                end = end < 0 ? code.length() : end;
+                blank(code, i, end);
+            } else if (c == '/' && next == '*') {
+                end = code.indexOf("*/", i + 2);
+                end = end < 0 ? code.length() : end + 2;
+                blank(code, i, end);
+            } else if (c == '"' || c == '\'') {
+                end = i + 1;
+                while (end < code.length() && code.charAt(end) != c && code.charAt(end) != '\n') {
+                    end += code.charAt(end) == '\\' ? 2 : 1;
+                }
+                end = Math.min(end + 1, code.length());
+                blank(code, i + 1, end - 1);
+            } else {
+                end = i + 1;
+            }
+            i = end;
+        }
+        return code.toString();
+    }
+
+    private static void blank(StringBuilder code, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (code.charAt(i) != '\n') {
+                code.setCharAt(i, ' ');
+            }
+        }
+    }
+
+    private static String classOf(String path) {
+        if (!path.endsWith(".java")) {
+            return null;
+        }
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        return name.substring(0, name.length() - ".java".length());
+    }
+
+    private static List<Path> listFiles(Path projectDir, String dir, String extension) throws IOException {
+        Path root = projectDir.resolve(dir);
+        if (!Files.isDirectory(root)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(file -> file.toString().endsWith(extension)).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static String relativePath(Path projectDir, Path file) {
+        return projectDir.relativize(file).toString().replace('\\', '/');
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
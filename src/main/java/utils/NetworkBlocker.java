@@ -0,0 +1,254 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * NetworkBlocker - Blocks third-party and heavy assets through the Chrome DevTools Protocol
+ * URL patterns come from app.orangehrm.blockedUrls and app.testerbud.blockedUrls
+ * (comma separated, '*' wildcards). The block list applies to the whole browser
+ * session, so the lists of all applications are merged. It is sent again whenever the
+ * session has moved to a new tab (see DevToolsChannel), as SessionRecycler does between
+ * scenarios.
+ *
+ * Blocked requests are counted per scenario. With network.block.measureBytes=true the
+ * bytes saved are estimated from the Content-Length of each distinct blocked URL,
+ * fetched once in the background with a HEAD request and cached for the rest of the
+ * run; a URL still being measured when its scenario ends counts as 0 bytes.
+ */
+public class NetworkBlocker {
+
+    private static final Logger logger = LoggerFactory.getLogger(NetworkBlocker.class);
+    private static final String[] APPLICATIONS = { "orangehrm", "testerbud" };
+
+    private static final Map<WebDriver, NetworkBlocker> blockers = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final Map<String, Long> contentLengths = new ConcurrentHashMap<>();
+    private static final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(3))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+    // Measures blocked URLs off the DevTools and scenario threads
+    private static final ExecutorService measurer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "network-block-measure");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Requests of the current scenario, keyed by CDP request id
+    private final Map<String, String> requestUrls = new ConcurrentHashMap<>();
+    private final Set<String> blockedUrls = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger blockedCount = new AtomicInteger();
+    private final List<String> patterns;
+    private final boolean measureBytes;
+    // Tab the block list was sent to
+    private String blockedWindow;
+
+    NetworkBlocker(List<String> patterns, boolean measureBytes) {
+        this.patterns = patterns;
+        this.measureBytes = measureBytes;
+    }
+
+    /**
+     * Blocked requests of one scenario
+     */
+    public static class BlockingStats {
+        private final int blockedRequests;
+        private final int distinctUrls;
+        private final long bytesSaved;
+
+        BlockingStats(int blockedRequests, int distinctUrls, long bytesSaved) {
+            this.blockedRequests = blockedRequests;
+            this.distinctUrls = distinctUrls;
+            this.bytesSaved = bytesSaved;
+        }
+
+        public int getBlockedRequests() {
+            return blockedRequests;
+        }
+
+        /**
+         * @return Estimated bytes saved, or -1 if not measured (network.block.measureBytes)
+         */
+        public long getBytesSaved() {
+            return bytesSaved;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d request(s) blocked (%d distinct URLs)%s", blockedRequests, distinctUrls,
+                    bytesSaved >= 0 ? String.format(", ~%d KB saved", bytesSaved / 1024) : "");
+        }
+    }
+
+    public static boolean isEnabled() {
+        return ConfigSnapshot.get().getBoolean("network.block.enabled", false);
+    }
+
+    /**
+     * Install the block list on a new session. Sessions without DevTools support
+     * (e.g. Firefox or remote sessions) are left unchanged.
+     *
+     * @param driver New browser session
+     */
+    public static void install(WebDriver driver) {
+        install(driver, getBlockedPatterns(), ConfigSnapshot.get().getBoolean("network.block.measureBytes", false));
+    }
+
+    static void install(WebDriver driver, List<String> patterns, boolean measureBytes) {
+        if (!(driver instanceof HasDevTools)) {
+            logger.debug("Session has no DevTools support, request blocking skipped");
+            return;
+        }
+        if (patterns.isEmpty()) {
+            return;
+        }
+        try {
+            NetworkBlocker blocker = new NetworkBlocker(patterns, measureBytes);
+            DevToolsChannel channel = DevToolsChannel.of(driver);
+            channel.addListener("Network.requestWillBeSent", blocker::onRequestWillBeSent);
+            channel.addListener("Network.loadingFinished", blocker::onLoadingFinished);
+            channel.addListener("Network.loadingFailed", blocker::onLoadingFailed);
+            blocker.applyTo(channel);
+            blockers.put(driver, blocker);
+            logger.info("🚫 Request blocking installed with {} URL pattern(s)", patterns.size());
+        } catch (Exception e) {
+            logger.warn("⚠️ Failed to install request blocking: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reset the counters of a session at the start of a scenario. A recycled session
+     * is on a new tab, which gets the block list again.
+     *
+     * @param driver Session used by the scenario
+     */
+    public static void startScenario(WebDriver driver) {
+        NetworkBlocker blocker = blockers.get(driver);
+        if (blocker == null) {
+            return;
+        }
+        blocker.requestUrls.clear();
+        blocker.blockedUrls.clear();
+        blocker.blockedCount.set(0);
+        try {
+            blocker.applyTo(DevToolsChannel.of(driver));
+        } catch (Exception e) {
+            logger.warn("⚠️ Failed to restore request blocking on the session's new tab: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Enable the Network domain and send the block list on the channel's current tab,
+     * unless they were already sent to that tab
+     */
+    private synchronized void applyTo(DevToolsChannel channel) {
+        String windowHandle = channel.attach();
+        if (windowHandle.equals(blockedWindow)) {
+            return;
+        }
+        channel.send("Network.enable", new HashMap<>());
+        Map<String, Object> params = new HashMap<>();
+        params.put("urls", patterns);
+        channel.send("Network.setBlockedURLs", params);
+        if (blockedWindow != null) {
+            logger.debug("Request blocking moved to the session's new tab");
+        }
+        blockedWindow = windowHandle;
+    }
+
+    /**
+     * Get the blocked requests of the scenario that used a session
+     *
+     * @param driver Session used by the scenario
+     * @return Stats or null if blocking is not installed on the session
+     */
+    public static BlockingStats finishScenario(WebDriver driver) {
+        NetworkBlocker blocker = blockers.get(driver);
+        return blocker != null ? blocker.getStats() : null;
+    }
+
+    BlockingStats getStats() {
+        long bytes = -1;
+        if (measureBytes) {
+            bytes = 0;
+            for (String url : blockedUrls) {
+                bytes += contentLengths.getOrDefault(url, 0L);
+            }
+        }
+        return new BlockingStats(blockedCount.get(), blockedUrls.size(), bytes);
+    }
+
+    private static List<String> getBlockedPatterns() {
+        Set<String> patterns = new LinkedHashSet<>();
+        for (String application : APPLICATIONS) {
+            patterns.addAll(ConfigSnapshot.get().getList("app." + application + ".blockedUrls"));
+        }
+        return new ArrayList<>(patterns);
+    }
+
+    void onRequestWillBeSent(Map<String, Object> event) {
+        Object request = event.get("request");
+        if (request instanceof Map) {
+            requestUrls.put(String.valueOf(event.get("requestId")), String.valueOf(((Map<?, ?>) request).get("url")));
+        }
+    }
+
+    void onLoadingFinished(Map<String, Object> event) {
+        requestUrls.remove(String.valueOf(event.get("requestId")));
+    }
+
+    void onLoadingFailed(Map<String, Object> event) {
+        String requestId = String.valueOf(event.get("requestId"));
+        String url = requestUrls.remove(requestId);
+        // setBlockedURLs reports its blocks with blockedReason "inspector"; other reasons
+        // (mixed content, CSP, CORP) are the browser's own blocks
+        if ("inspector".equals(event.get("blockedReason"))) {
+            blockedCount.incrementAndGet();
+            if (url != null && blockedUrls.add(url) && measureBytes
+                    && contentLengths.putIfAbsent(url, 0L) == null) {
+                measurer.execute(() -> contentLengths.put(url, fetchContentLength(url)));
+            }
+        }
+    }
+
+    int getPendingRequestCount() {
+        return requestUrls.size();
+    }
+
+    private static long fetchContentLength(String url) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                    .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                    .timeout(Duration.ofSeconds(3))
+                    .build();
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            return response.headers().firstValueAsLong("Content-Length").orElse(0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (Exception e) {
+            logger.debug("Could not measure blocked URL {}: {}", url, e.getMessage());
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+import org.openqa.selenium.support.ui.WebDriverWait;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PageReadiness - Waits for the page to settle instead of sleeping for a fixed time
+ * A small script is injected into the page that counts in-flight XHR/fetch requests
+ * and records the time of the last DOM mutation through a MutationObserver. The page
+ * is settled when the document is loaded, no request is in flight and the DOM has
+ * been quiet for web.readiness.quietMillis.
+ *
+ * On Chromium sessions the script is registered to run on every new document, so
+ * requests started while the page loads are counted too. On other browsers it is
+ * injected on the first readiness check of each page.
+ *
+ * Configured in config.properties:
+ *   web.readiness.timeoutSeconds=10
+ *   web.readiness.quietMillis=300
+ *   web.readiness.elementGraceMillis=2000
+ */
+public class PageReadiness {
+
+    private static final Logger logger = LoggerFactory.getLogger(PageReadiness.class);
+
+    private static final String INSTRUMENT_SCRIPT = "(function () {"
+            + "  if (window.__pageReadiness) { return; }"
+            + "  var state = { pending: 0, lastMutation: Date.now() };"
+            + "  window.__pageReadiness = state;"
+            + "  new MutationObserver(function () { state.lastMutation = Date.now(); })"
+            + "    .observe(document, { childList: true, subtree: true, attributes: true, characterData: true });"
+            + "  var send = XMLHttpRequest.prototype.send;"
+            + "  XMLHttpRequest.prototype.send = function () {"
+            + "    state.pending++;"
+            + "    this.addEventListener('loadend', function () { state.pending--; });"
+            + "    return send.apply(this, arguments);"
+            + "  };"
+            + "  if (window.fetch) {"
+            + "    var fetch = window.fetch;"
+            + "    window.fetch = function () {"
+            + "      state.pending++;"
+            + "      return fetch.apply(this, arguments).finally(function () { state.pending--; });"
+            + "    };"
+            + "  }"
+            + "})();";
+
+    private static final String STATE_SCRIPT = INSTRUMENT_SCRIPT
+            + "var state = window.__pageReadiness;"
+            + "return [document.readyState, state.pending, Date.now() - state.lastMutation];";
+
+    /**
+     * Register the readiness script for every new document of a Chromium session
+     *
+     * @param driver New browser session
+     */
+    public static void install(WebDriver driver) {
+        if (driver instanceof HasCdp) {
+            try {
+                Map<String, Object> params = new HashMap<>();
+                params.put("source", INSTRUMENT_SCRIPT);
+                ((HasCdp) driver).executeCdpCommand("Page.addScriptToEvaluateOnNewDocument", params);
+            } catch (WebDriverException e) {
+                logger.debug("Could not register readiness script: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Condition that is met once the page has settled
+     *
+     * @param quietPeriod Time the DOM must stay unchanged
+     * @return Expected condition for WebDriverWait
+     */
+    public static ExpectedCondition<Boolean> pageSettled(Duration quietPeriod) {
+        return driver -> {
+            try {
+                List<?> state = (List<?>) ((JavascriptExecutor) driver).executeScript(STATE_SCRIPT);
+                return "complete".equals(state.get(0))
+                        && ((Number) state.get(1)).longValue() <= 0
+                        && ((Number) state.get(2)).longValue() >= quietPeriod.toMillis();
+            } catch (WebDriverException e) {
+                // Page is navigating, check again on the next poll
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Wait until the page has settled. A page that keeps changing (e.g. animations or
+     * polling) is logged and the wait returns, leaving element waits as the safety net.
+     *
+     * @param driver Browser session
+     */
+    public static void waitForPageSettled(WebDriver driver) {
+        ConfigSnapshot config = ConfigSnapshot.get();
+        Duration timeout = config.getDuration("web.readiness.timeoutSeconds", ChronoUnit.SECONDS, 10);
+        Duration quiet = config.getDuration("web.readiness.quietMillis", ChronoUnit.MILLIS, 300);
+        long start = System.currentTimeMillis();
+        try {
+            new WebDriverWait(driver, timeout, Duration.ofMillis(100)).until(pageSettled(quiet));
+            logger.debug("Page settled in {} ms", System.currentTimeMillis() - start);
+        } catch (TimeoutException e) {
+            logger.warn("⚠️ Page did not settle within {}s, continuing", timeout.getSeconds());
+        }
+    }
+
+    /**
+     * Wait for the page to settle, then check whether an element is displayed. An
+     * element that is not there yet gets web.readiness.elementGraceMillis to appear,
+     * for messages rendered from a timer or animation and navigations that had not
+     * started when the page settled.
+     *
+     * @param driver  Browser session
+     * @param locator Element locator
+     * @return true if a matching element is displayed
+     */
+    public static boolean isDisplayedWhenSettled(WebDriver driver, By locator) {
+        return isDisplayedWhenSettled(driver, locator, getElementGrace());
+    }
+
+    /**
+     * Wait for the page to settle, then check whether an element is displayed
+     *
+     * @param driver  Browser session
+     * @param locator Element locator
+     * @param grace   Time a missing element gets to appear; zero checks once, for
+     *                elements that are expected to be absent or already waited for
+     * @return true if a matching element is displayed
+     */
+    public static boolean isDisplayedWhenSettled(WebDriver driver, By locator, Duration grace) {
+        waitForPageSettled(driver);
+        return findDisplayed(driver, locator, grace) != null;
+    }
+
+    /**
+     * Wait for the page to settle, then get the text of the first displayed element,
+     * giving a missing element web.readiness.elementGraceMillis to appear
+     *
+     * @param driver  Browser session
+     * @param locator Element locator
+     * @return Element text or an empty string if no element is displayed
+     */
+    public static String getTextWhenSettled(WebDriver driver, By locator) {
+        waitForPageSettled(driver);
+        WebElement element = findDisplayed(driver, locator, getElementGrace());
+        if (element != null) {
+            try {
+                return element.getText();
+            } catch (WebDriverException e) {
+                logger.debug("Element text failed for {}: {}", locator, e.getMessage());
+            }
+        }
+        return "";
+    }
+
+    private static Duration getElementGrace() {
+        return ConfigSnapshot.get().getDuration("web.readiness.elementGraceMillis", ChronoUnit.MILLIS, 2000);
+    }
+
+    /**
+     * First displayed element, checked once and then polled for up to the grace period
+     */
+    private static WebElement findDisplayed(WebDriver driver, By locator, Duration grace) {
+        WebElement element = firstDisplayed(driver, locator);
+        if (element != null || grace.isZero() || grace.isNegative()) {
+            return element;
+        }
+        try {
+            return new WebDriverWait(driver, grace, Duration.ofMillis(100))
+                    .until(session -> firstDisplayed(session, locator));
+        } catch (TimeoutException e) {
+            logger.debug("{} not displayed within {} ms of the page settling", locator, grace.toMillis());
+            return null;
+        }
+    }
+
+    private static WebElement firstDisplayed(WebDriver driver, By locator) {
+        try {
+            for (WebElement element : driver.findElements(locator)) {
+                if (element.isDisplayed()) {
+                    return element;
+                }
+            }
+        } catch (WebDriverException e) {
+            // Element went stale or the page is navigating, treated as not displayed yet
+            logger.debug("Element check failed for {}: {}", locator, e.getMessage());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,278 @@
+package utils;
+
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * ProfileMetrics - Per-scenario wall time and Chrome memory for the active web.profile
+ * Enabled with web.profile.metrics=true. Each WEB scenario appends a row to
+ * web.profile.metricsFile (.profile-metrics/scenario-metrics.csv by default, outside
+ * target/ so it survives mvn clean); rows from earlier runs are kept so runs with
+ * different profiles can be compared in the summary logged at suite end.
+ *
+ * Chrome RSS is the resident memory of the session's browser process and all of its
+ * child processes, found through the session's user data directory. When the process
+ * command lines are not readable (e.g. on Windows) the RSS of every Chrome process
+ * started by this JVM is reported instead and the row is marked "all-sessions".
+ */
+public class ProfileMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProfileMetrics.class);
+    private static final String DEFAULT_METRICS_FILE = ".profile-metrics/scenario-metrics.csv";
+    private static final String HEADER = "timestamp,profile,scenario,status,wall_ms,chrome_rss_kb,rss_scope";
+
+    private static final ThreadLocal<Long> scenarioStart = new ThreadLocal<>();
+
+    public static boolean isEnabled() {
+        return ConfigSnapshot.get().getBoolean("web.profile.metrics", false);
+    }
+
+    /**
+     * Get the CSV the metrics of every run are appended to (web.profile.metricsFile)
+     *
+     * @return Metrics file
+     */
+    public static Path getMetricsFile() {
+        return Paths.get(ConfigSnapshot.get().getString("web.profile.metricsFile", DEFAULT_METRICS_FILE));
+    }
+
+    /**
+     * Mark the start of a scenario on the calling thread
+     */
+    public static void startScenario() {
+        scenarioStart.set(System.nanoTime());
+    }
+
+    /**
+     * Record wall time and Chrome RSS for the scenario started on the calling thread
+     *
+     * @param scenario Scenario name
+     * @param status   Scenario status
+     * @param driver   Session used by the scenario, may be null
+     */
+    public static void recordScenario(String scenario, String status, WebDriver driver) {
+        Long start = scenarioStart.get();
+        scenarioStart.remove();
+        if (start == null) {
+            return;
+        }
+        long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        long rssKb = -1;
+        String scope = "none";
+        if (driver != null) {
+            Optional<ProcessHandle> browser = findBrowserProcess(driver);
+            if (browser.isPresent()) {
+                List<ProcessHandle> processes = new ArrayList<>();
+                processes.add(browser.get());
+                browser.get().descendants().forEach(processes::add);
+                rssKb = sumRss(processes);
+                scope = "session";
+            } else {
+                rssKb = sumRss(ProcessHandle.current().descendants()
+                        .filter(ProfileMetrics::isChromeProcess)
+                        .collect(Collectors.toList()));
+                scope = "all-sessions";
+            }
+        }
+
+        String row = toCsvRow(LocalDateTime.now(), ChromeProfile.getActiveProfile(), scenario, status, wallMillis,
+                rssKb, scope);
+        append(getMetricsFile(), row);
+        logger.info("📊 {} [{}]: {} ms, Chrome RSS {} MB ({})", scenario, ChromeProfile.getActiveProfile(),
+                wallMillis, rssKb >= 0 ? rssKb / 1024 : "n/a", scope);
+    }
+
+    /**
+     * Log average wall time and Chrome RSS per profile over all recorded runs
+     */
+    public static void logSummary() {
+        Path metricsFile = getMetricsFile();
+        Map<String, String> summary;
+        try {
+            summary = summarize(metricsFile);
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("⚠️ Failed to read profile metrics: {}", e.getMessage());
+            return;
+        }
+        if (summary.isEmpty()) {
+            return;
+        }
+        logger.info("📊 Profile comparison ({}):", metricsFile);
+        summary.forEach((profile, line) -> logger.info("   {}: {}", profile, line));
+    }
+
+    /**
+     * Format one scenario as a CSV row
+     */
+    static String toCsvRow(LocalDateTime timestamp, String profile, String scenario, String status, long wallMillis,
+            long rssKb, String scope) {
+        return String.join(",", timestamp.toString(), profile, quote(scenario), status, String.valueOf(wallMillis),
+                String.valueOf(rssKb), scope);
+    }
+
+    /**
+     * Average wall time and Chrome RSS per profile
+     *
+     * @param metricsFile CSV written by recordScenario
+     * @return Summary line per profile, by profile name; empty if there is no file
+     * @throws IOException if the file cannot be read
+     */
+    static Map<String, String> summarize(Path metricsFile) throws IOException {
+        Map<String, String> summary = new TreeMap<>();
+        if (!Files.isRegularFile(metricsFile)) {
+            return summary;
+        }
+        Map<String, long[]> totals = new TreeMap<>();
+        List<String> lines = Files.readAllLines(metricsFile, StandardCharsets.UTF_8);
+        for (String line : lines.subList(Math.min(1, lines.size()), lines.size())) {
+            String[] columns = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
+            if (columns.length < 7) {
+                continue;
+            }
+            // count, wall total, rss total, rss samples
+            long[] total = totals.computeIfAbsent(columns[1], key -> new long[4]);
+            total[0]++;
+            total[1] += Long.parseLong(columns[4]);
+            long rss = Long.parseLong(columns[5]);
+            if (rss >= 0) {
+                total[2] += rss;
+                total[3]++;
+            }
+        }
+        totals.forEach((profile, total) -> summary.put(profile, String.format(
+                "%d scenarios, avg wall %d ms, avg Chrome RSS %s MB", total[0], total[1] / total[0],
+                total[3] > 0 ? String.valueOf(total[2] / total[3] / 1024) : "n/a")));
+        return summary;
+    }
+
+    static synchronized void append(Path metricsFile, String row) {
+        try {
+            Path folder = metricsFile.toAbsolutePath().getParent();
+            if (folder != null) {
+                Files.createDirectories(folder);
+            }
+            if (!Files.exists(metricsFile)) {
+                Files.write(metricsFile, List.of(HEADER), StandardCharsets.UTF_8);
+            }
+            Files.write(metricsFile, List.of(row), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            logger.warn("⚠️ Failed to write profile metrics: {}", e.getMessage());
+        }
+    }
+
+    private static Optional<ProcessHandle> findBrowserProcess(WebDriver driver) {
+        if (!(driver instanceof HasCapabilities)) {
+            return Optional.empty();
+        }
+        Capabilities capabilities = ((HasCapabilities) driver).getCapabilities();
+        Object chrome = capabilities.getCapability("chrome");
+        if (!(chrome instanceof Map) || ((Map<?, ?>) chrome).get("userDataDir") == null) {
+            return Optional.empty();
+        }
+        String userDataArg = "--user-data-dir=" + ((Map<?, ?>) chrome).get("userDataDir");
+        return ProcessHandle.current().descendants()
+                .filter(process -> process.info().arguments()
+                        .map(args -> List.of(args).contains(userDataArg))
+                        .orElse(false))
+                // The browser process is the one whose parent is not Chrome itself
+                .filter(process -> process.parent().map(parent -> !isChromeProcess(parent)).orElse(true))
+                .findFirst();
+    }
+
+    private static boolean isChromeProcess(ProcessHandle process) {
+        return process.info().command()
+                .map(command -> {
+                    String name = Paths.get(command).getFileName().toString().toLowerCase();
+                    return (name.startsWith("chrome") || name.startsWith("chromium")) && !name.startsWith("chromedriver");
+                })
+                .orElse(false);
+    }
+
+    private static long sumRss(List<ProcessHandle> processes) {
+        if (processes.isEmpty()) {
+            return -1;
+        }
+        Map<Long, Long> rssByPid = readRss(processes.stream().map(ProcessHandle::pid).collect(Collectors.toList()));
+        return rssByPid.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    // Resident set size in KB per pid: /proc on Linux, tasklist on Windows, ps elsewhere
+    private static Map<Long, Long> readRss(List<Long> pids) {
+        Map<Long, Long> rss = new HashMap<>();
+        if (Files.isDirectory(Paths.get("/proc"))) {
+            for (Long pid : pids) {
+                try {
+                    for (String line : Files.readAllLines(Paths.get("/proc", pid.toString(), "status"))) {
+                        if (line.startsWith("VmRSS:")) {
+                            rss.put(pid, Long.parseLong(line.replaceAll("[^0-9]", "")));
+                        }
+                    }
+                } catch (IOException e) {
+                    // Process exited
+                }
+            }
+        } else if (System.getProperty("os.name", "").toLowerCase().contains("win")) {
+            // "chrome.exe","1234","Console","1","123,456 K"
+            for (String line : runCommand("tasklist", "/FO", "CSV", "/NH")) {
+                String[] columns = line.replace("\"", "").split(",", 5);
+                if (columns.length == 5 && columns[1].matches("\\d+") && pids.contains(Long.parseLong(columns[1]))) {
+                    rss.put(Long.parseLong(columns[1]), Long.parseLong(columns[4].replaceAll("[^0-9]", "")));
+                }
+            }
+        } else {
+            String pidList = pids.stream().map(String::valueOf).collect(Collectors.joining(","));
+            for (String line : runCommand("ps", "-o", "pid=,rss=", "-p", pidList)) {
+                String[] columns = line.trim().split("\\s+");
+                if (columns.length == 2 && columns[0].matches("\\d+") && columns[1].matches("\\d+")) {
+                    rss.put(Long.parseLong(columns[0]), Long.parseLong(columns[1]));
+                }
+            }
+        }
+        return rss;
+    }
+
+    private static List<String> runCommand(String... command) {
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            List<String> lines;
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                lines = reader.lines().collect(Collectors.toList());
+            }
+            process.waitFor(10, TimeUnit.SECONDS);
+            return lines;
+        } catch (IOException e) {
+            logger.debug("Failed to read process memory: {}", e.getMessage());
+            return List.of();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        }
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,71 @@
+package utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RecordingStats - Frame and memory figures of one video recording
+ * Counts captured and duplicate frames, the bytes allocated for frames while
+ * recording and the frame bytes still held when it stops, logged by the recorders
+ * when a recording stops.
+ */
+public class RecordingStats {
+
+    private final long startNanos = System.nanoTime();
+    private int capturedFrames;
+    private int duplicateFrames;
+    private long allocatedBytes;
+    private long retainedBytes;
+
+    /**
+     * Count a captured frame
+     *
+     * @param duplicate      Whether it repeats the previous frame
+     * @param allocatedBytes Bytes allocated to capture and store it
+     */
+    public synchronized void frameCaptured(boolean duplicate, long allocatedBytes) {
+        capturedFrames++;
+        if (duplicate) {
+            duplicateFrames++;
+        }
+        this.allocatedBytes += allocatedBytes;
+    }
+
+    public synchronized void setRetainedBytes(long retainedBytes) {
+        this.retainedBytes = retainedBytes;
+    }
+
+    public synchronized int getCapturedFrames() {
+        return capturedFrames;
+    }
+
+    public synchronized int getDuplicateFrames() {
+        return duplicateFrames;
+    }
+
+    public synchronized long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public synchronized long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    /**
+     * @return Bytes allocated for frames per second of recording
+     */
+    public synchronized long getAllocationRate() {
+        long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        return allocatedBytes * 1000 / millis;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d frames captured, %d duplicate(s), %.1f MB retained, %.1f MB allocated (%.1f MB/s)",
+                capturedFrames, duplicateFrames, megabytes(retainedBytes), megabytes(allocatedBytes),
+                megabytes(getAllocationRate()));
+    }
+
+    private static double megabytes(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+}
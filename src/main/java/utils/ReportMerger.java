@@ -0,0 +1,269 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * ReportMerger - Combines the reports of sharded runs into one report
+ * Each shard directory (target/shards/shard-0, shard-1, ...) holds:
+ *   cucumber.json      Cucumber JSON report
+ *   cucumber.xml       Cucumber JUnit XML report
+ *   allure-results/    Allure result files
+ *   rerun-report.json  First-attempt and rerun outcomes (see RerunQueue)
+ * The merged reports are written to target/cucumber-reports/cucumber.json,
+ * target/cucumber-reports/cucumber.xml, target/cucumber-reports/rerun-report.json
+ * and target/allure-results, so the usual
+ * report commands (mvn allure:report) work on the combined run. Features split
+ * across shards are joined back into one feature, scenarios in file order.
+ *
+ * Run after the shards: mvn exec:java -Dexec.mainClass=utils.ReportMerger [-Dexec.args=target/shards]
+ */
+public class ReportMerger {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportMerger.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static final Path DEFAULT_SHARDS_DIR = Paths.get("target/shards");
+    public static final Path DEFAULT_REPORTS_DIR = Paths.get("target/cucumber-reports");
+    public static final Path DEFAULT_ALLURE_RESULTS = Paths.get("target/allure-results");
+
+    public static void main(String[] args) throws IOException {
+        Path shardsDir = args.length > 0 ? Paths.get(args[0]) : DEFAULT_SHARDS_DIR;
+        merge(shardsDir, DEFAULT_REPORTS_DIR, DEFAULT_ALLURE_RESULTS);
+    }
+
+    /**
+     * Merge the reports of all shards and add their durations to the scenario history
+     *
+     * @param shardsDir      Directory with one sub-directory per shard
+     * @param reportsDir     Output directory for cucumber.json and cucumber.xml
+     * @param allureResults  Output directory for Allure results
+     * @throws IOException if a report cannot be read or written
+     */
+    public static void merge(Path shardsDir, Path reportsDir, Path allureResults) throws IOException {
+        List<Path> shards = listShards(shardsDir);
+        if (shards.isEmpty()) {
+            logger.warn("⚠️ No shard reports found in {}", shardsDir);
+            return;
+        }
+        Files.createDirectories(reportsDir);
+        Path mergedJson = reportsDir.resolve("cucumber.json");
+        int features = mergeCucumberJson(shards, mergedJson);
+        int testCases = mergeJUnitXml(shards, reportsDir.resolve("cucumber.xml"));
+        int allureFiles = mergeAllureResults(shards, allureResults);
+        mergeRerunReports(shards, reportsDir.resolve("rerun-report.json"));
+        logger.info("🧩 Merged {} shard(s): {} feature(s), {} JUnit test case(s), {} Allure file(s)", shards.size(),
+                features, testCases, allureFiles);
+
+        ScenarioDurationHistory history = new ScenarioDurationHistory();
+        history.readHistory(ScenarioDurationHistory.getHistoryFile());
+        if (history.readCucumberReport(mergedJson) > 0) {
+            history.save(ScenarioDurationHistory.getHistoryFile());
+        }
+    }
+
+    static List<Path> listShards(Path shardsDir) throws IOException {
+        if (!Files.isDirectory(shardsDir)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> entries = Files.list(shardsDir)) {
+            return entries.filter(Files::isDirectory).sorted().collect(Collectors.toList());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static int mergeCucumberJson(List<Path> shards, Path output) throws IOException {
+        Map<String, Map<String, Object>> features = new LinkedHashMap<>();
+        Map<String, List<List<Map<String, Object>>>> scenarioGroups = new LinkedHashMap<>();
+        for (Path shard : shards) {
+            Path report = shard.resolve("cucumber.json");
+            if (!Files.isRegularFile(report) || Files.size(report) == 0) {
+                logger.warn("⚠️ Shard {} has no Cucumber JSON report", shard.getFileName());
+                continue;
+            }
+            for (Map<String, Object> feature : (List<Map<String, Object>>) objectMapper.readValue(report.toFile(),
+                    List.class)) {
+                String uri = String.valueOf(feature.get("uri"));
+                features.putIfAbsent(uri, feature);
+                scenarioGroups.computeIfAbsent(uri, key -> new ArrayList<>())
+                        .addAll(groupScenarios((List<Map<String, Object>>) feature.get("elements")));
+            }
+        }
+        List<Map<String, Object>> merged = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Object>> entry : features.entrySet()) {
+            List<List<Map<String, Object>>> groups = scenarioGroups.get(entry.getKey());
+            // Order by the scenario line, the last element of each group
+            groups.sort(Comparator.comparingInt(group -> lineOf(group.get(group.size() - 1))));
+            List<Map<String, Object>> elements = new ArrayList<>();
+            groups.forEach(elements::addAll);
+            Map<String, Object> feature = new LinkedHashMap<>(entry.getValue());
+            feature.put("elements", elements);
+            merged.add(feature);
+        }
+        objectMapper.writeValue(output.toFile(), merged);
+        return merged.size();
+    }
+
+    // A background element is repeated before every scenario it applies to; keep them together
+    private static List<List<Map<String, Object>>> groupScenarios(List<Map<String, Object>> elements) {
+        List<List<Map<String, Object>>> groups = new ArrayList<>();
+        if (elements == null) {
+            return groups;
+        }
+        List<Map<String, Object>> group = new ArrayList<>();
+        for (Map<String, Object> element : elements) {
+            group.add(element);
+            if (!"background".equals(element.get("type"))) {
+                groups.add(group);
+                group = new ArrayList<>();
+            }
+        }
+        return groups;
+    }
+
+    private static int lineOf(Map<String, Object> element) {
+        Object line = element.get("line");
+        return line instanceof Number ? ((Number) line).intValue() : 0;
+    }
+
+    static int mergeJUnitXml(List<Path> shards, Path output) throws IOException {
+        try {
+            DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+            Document merged = builder.newDocument();
+            Element suite = null;
+            int tests = 0;
+            int failures = 0;
+            int errors = 0;
+            int skipped = 0;
+            double time = 0;
+            for (Path shard : shards) {
+                Path report = shard.resolve("cucumber.xml");
+                if (!Files.isRegularFile(report) || Files.size(report) == 0) {
+                    logger.warn("⚠️ Shard {} has no JUnit XML report", shard.getFileName());
+                    continue;
+                }
+                Element shardSuite = builder.parse(report.toFile()).getDocumentElement();
+                if (suite == null) {
+                    suite = (Element) merged.importNode(shardSuite, false);
+                    merged.appendChild(suite);
+                }
+                tests += intAttribute(shardSuite, "tests");
+                failures += intAttribute(shardSuite, "failures");
+                errors += intAttribute(shardSuite, "errors");
+                skipped += intAttribute(shardSuite, "skipped");
+                time += doubleAttribute(shardSuite, "time");
+                NodeList testCases = shardSuite.getElementsByTagName("testcase");
+                for (int i = 0; i < testCases.getLength(); i++) {
+                    suite.appendChild(merged.importNode(testCases.item(i), true));
+                }
+            }
+            if (suite == null) {
+                return 0;
+            }
+            suite.setAttribute("tests", String.valueOf(tests));
+            suite.setAttribute("failures", String.valueOf(failures));
+            suite.setAttribute("errors", String.valueOf(errors));
+            suite.setAttribute("skipped", String.valueOf(skipped));
+            suite.setAttribute("time", String.format(Locale.ROOT, "%.3f", time));
+
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+            transformer.transform(new DOMSource(merged), new StreamResult(output.toFile()));
+            return suite.getElementsByTagName("testcase").getLength();
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to merge JUnit XML reports", e);
+        }
+    }
+
+    private static int intAttribute(Element element, String name) {
+        String value = element.getAttribute(name);
+        return value.matches("\\d+") ? Integer.parseInt(value) : 0;
+    }
+
+    private static double doubleAttribute(Element element, String name) {
+        try {
+            return Double.parseDouble(element.getAttribute(name).replace(",", ""));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // Counters are added up, scenario outcomes concatenated
+    @SuppressWarnings("unchecked")
+    static int mergeRerunReports(List<Path> shards, Path output) throws IOException {
+        Map<String, Object> merged = new LinkedHashMap<>();
+        List<Object> scenarios = new ArrayList<>();
+        int reports = 0;
+        for (Path shard : shards) {
+            Path report = shard.resolve("rerun-report.json");
+            if (!Files.isRegularFile(report) || Files.size(report) == 0) {
+                continue;
+            }
+            Map<String, Object> shardReport = objectMapper.readValue(report.toFile(), Map.class);
+            for (Map.Entry<String, Object> entry : shardReport.entrySet()) {
+                if (entry.getValue() instanceof Map) {
+                    Map<String, Object> counters = (Map<String, Object>) merged.computeIfAbsent(entry.getKey(),
+                            key -> new LinkedHashMap<String, Object>());
+                    ((Map<String, Object>) entry.getValue()).forEach((name, value) -> counters.merge(name,
+                            value, (a, b) -> ((Number) a).intValue() + ((Number) b).intValue()));
+                } else if (entry.getValue() instanceof List) {
+                    scenarios.addAll((List<Object>) entry.getValue());
+                }
+            }
+            reports++;
+        }
+        if (reports > 0) {
+            merged.put("scenarios", scenarios);
+            objectMapper.writeValue(output.toFile(), merged);
+        }
+        return reports;
+    }
+
+    // Result files have unique names; shared files (environment, categories) are kept from the first shard
+    static int mergeAllureResults(List<Path> shards, Path output) throws IOException {
+        Files.createDirectories(output);
+        int copied = 0;
+        for (Path shard : shards) {
+            Path results = shard.resolve("allure-results");
+            if (!Files.isDirectory(results)) {
+                continue;
+            }
+            try (Stream<Path> files = Files.list(results)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Path target = output.resolve(file.getFileName().toString());
+                    if (Files.isRegularFile(file) && !Files.exists(target)) {
+                        Files.copy(file, target);
+                        copied++;
+                    }
+                }
+            }
+        }
+        return copied;
+    }
+}
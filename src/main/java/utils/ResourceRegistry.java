@@ -0,0 +1,297 @@
+package utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ResourceRegistry - Suite-wide resources and their teardown
+ * Subsystems register what has to be closed at suite end (browser pools, mobile
+ * sessions, database pools, video recordings, reports) when they create it. At
+ * suite end closeAll() closes every resource on its own thread as soon as the
+ * resources it must wait for are closed, so independent resources close in
+ * parallel. Each close has a timeout; a resource that fails or times out is
+ * reported as leaked. If the JVM exits without closeAll() (aborted run), a
+ * shutdown hook closes what is left so no browser processes are orphaned.
+ *
+ * Configured in config.properties:
+ *   lifecycle.teardownTimeoutSeconds=30
+ */
+public class ResourceRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResourceRegistry.class);
+    private static final ResourceRegistry instance = new ResourceRegistry();
+
+    public enum Outcome {
+        CLOSED, FAILED, TIMED_OUT
+    }
+
+    /**
+     * Outcome of closing one resource
+     */
+    public static class Result {
+        private final String name;
+        private final Outcome outcome;
+        private final long millis;
+        private final String error;
+
+        private Result(String name, Outcome outcome, long millis, String error) {
+            this.name = name;
+            this.outcome = outcome;
+            this.millis = millis;
+            this.error = error;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public boolean isLeaked() {
+            return outcome != Outcome.CLOSED;
+        }
+
+        @Override
+        public String toString() {
+            switch (outcome) {
+                case CLOSED:
+                    return String.format("%s closed in %d ms", name, millis);
+                case FAILED:
+                    return String.format("%s failed after %d ms: %s", name, millis, error);
+                default:
+                    return String.format("%s timed out after %d ms", name, millis);
+            }
+        }
+    }
+
+    private static class Entry {
+        private final String name;
+        private final AutoCloseable resource;
+        private final Duration timeout;
+        private final Set<String> closeAfter;
+
+        private Entry(String name, AutoCloseable resource, Duration timeout, Set<String> closeAfter) {
+            this.name = name;
+            this.resource = resource;
+            this.timeout = timeout;
+            this.closeAfter = closeAfter;
+        }
+    }
+
+    // Registration order is kept for the report
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private boolean shutdownHookInstalled;
+
+    ResourceRegistry() {
+    }
+
+    public static ResourceRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * Register a resource with the default timeout (lifecycle.teardownTimeoutSeconds)
+     *
+     * @param name       Unique name, e.g. web-pool:chrome
+     * @param resource   Closes the resource
+     * @param closeAfter Resources that must be closed first; names not registered are ignored
+     * @return false if a resource of that name is already registered
+     */
+    public boolean register(String name, AutoCloseable resource, String... closeAfter) {
+        return register(name, resource, ConfigSnapshot.get().getDuration("lifecycle.teardownTimeoutSeconds",
+                ChronoUnit.SECONDS, 30), closeAfter);
+    }
+
+    /**
+     * Register a resource
+     *
+     * @param name       Unique name, e.g. web-pool:chrome
+     * @param resource   Closes the resource
+     * @param timeout    Longest time the close may take
+     * @param closeAfter Resources that must be closed first; names not registered are ignored
+     * @return false if a resource of that name is already registered
+     * @throws IllegalArgumentException if the order would be circular
+     */
+    public synchronized boolean register(String name, AutoCloseable resource, Duration timeout,
+            String... closeAfter) {
+        if (entries.containsKey(name)) {
+            return false;
+        }
+        Set<String> dependencies = new LinkedHashSet<>(Arrays.asList(closeAfter));
+        if (dependsOn(dependencies, name)) {
+            throw new IllegalArgumentException("Circular teardown order for resource " + name);
+        }
+        entries.put(name, new Entry(name, resource, timeout, dependencies));
+        installShutdownHook();
+        logger.debug("Registered resource {} (closes after {})", name, dependencies);
+        return true;
+    }
+
+    public synchronized boolean isRegistered(String name) {
+        return entries.containsKey(name);
+    }
+
+    /**
+     * Close one resource now and remove it from the registry, e.g. when a test is
+     * done with a shared resource. Resources that close after it are not waited for.
+     *
+     * @param name Name the resource was registered with
+     * @return false if no resource of that name is registered
+     * @throws Exception if the resource fails to close; it is removed either way
+     */
+    public boolean close(String name) throws Exception {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.remove(name);
+        }
+        if (entry == null) {
+            return false;
+        }
+        entry.resource.close();
+        return true;
+    }
+
+    /**
+     * Close every registered resource, in parallel where the order allows. Resources
+     * registered afterwards belong to the next closeAll().
+     *
+     * @return Outcome of each resource, in registration order
+     */
+    public List<Result> closeAll() {
+        Map<String, Entry> toClose;
+        synchronized (this) {
+            toClose = new LinkedHashMap<>(entries);
+            entries.clear();
+        }
+        if (toClose.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        long start = System.nanoTime();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "teardown-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Result> results = new ArrayList<>();
+        try {
+            Map<String, CompletableFuture<Result>> closing = new HashMap<>();
+            for (String name : toClose.keySet()) {
+                schedule(name, toClose, closing, executor);
+            }
+            for (String name : toClose.keySet()) {
+                results.add(closing.get(name).join());
+            }
+        } finally {
+            // Interrupts closes that timed out; they are reported below
+            executor.shutdownNow();
+        }
+
+        long leaked = results.stream().filter(Result::isLeaked).count();
+        logger.info("🧹 Closed {} of {} resource(s) in {} ms", results.size() - leaked, results.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        for (Result result : results) {
+            if (result.isLeaked()) {
+                logger.warn("⚠️ Leaked: {}", result);
+            } else {
+                logger.debug("{}", result);
+            }
+        }
+        return results;
+    }
+
+    private CompletableFuture<Result> schedule(String name, Map<String, Entry> toClose,
+            Map<String, CompletableFuture<Result>> closing, ExecutorService executor) {
+        CompletableFuture<Result> scheduled = closing.get(name);
+        if (scheduled != null) {
+            return scheduled;
+        }
+        Entry entry = toClose.get(name);
+        CompletableFuture<?>[] dependencies = entry.closeAfter.stream()
+                .filter(toClose::containsKey)
+                .map(dependency -> schedule(dependency, toClose, closing, executor))
+                .toArray(CompletableFuture[]::new);
+        // Dependencies never complete exceptionally, a failed close is a Result as well
+        CompletableFuture<Result> future = CompletableFuture.allOf(dependencies)
+                .thenCompose(ignored -> close(entry, executor));
+        closing.put(name, future);
+        return future;
+    }
+
+    private static CompletableFuture<Result> close(Entry entry, ExecutorService executor) {
+        long timeoutMillis = entry.timeout.toMillis();
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                entry.resource.close();
+                return new Result(entry.name, Outcome.CLOSED, elapsedMillis(start), null);
+            } catch (Exception e) {
+                return new Result(entry.name, Outcome.FAILED, elapsedMillis(start), e.toString());
+            }
+        }, executor).completeOnTimeout(new Result(entry.name, Outcome.TIMED_OUT, timeoutMillis, null),
+                timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    // Whether any of the resources closes after the named one, directly or indirectly
+    private boolean dependsOn(Set<String> resources, String name) {
+        Deque<String> queue = new ArrayDeque<>(resources);
+        Set<String> seen = new LinkedHashSet<>();
+        while (!queue.isEmpty()) {
+            String resource = queue.poll();
+            if (resource.equals(name)) {
+                return true;
+            }
+            Entry entry = entries.get(resource);
+            if (seen.add(resource) && entry != null) {
+                queue.addAll(entry.closeAfter);
+            }
+        }
+        return false;
+    }
+
+    private void installShutdownHook() {
+        if (shutdownHookInstalled) {
+            return;
+        }
+        shutdownHookInstalled = true;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (!isEmpty()) {
+                logger.warn("⚠️ JVM exiting with open resources, closing them");
+                closeAll();
+            }
+        }, "resource-registry-shutdown"));
+    }
+
+    private synchronized boolean isEmpty() {
+        return entries.isEmpty();
+    }
+}
@@ -0,0 +1,188 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ScenarioDurationHistory - Past run times of scenarios, used to schedule long scenarios first
+ * Durations are read from Cucumber JSON reports (sum of hook and step durations,
+ * including the background) and kept in a small properties file so they survive
+ * mvn clean. Scenarios are keyed by feature path and line, e.g.
+ * features/web/UI_OrangeHRM_PIMPage.feature:12
+ */
+public class ScenarioDurationHistory {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScenarioDurationHistory.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<String, Long> durations = new TreeMap<>();
+
+    /**
+     * Get the history file from scheduler.historyFile
+     *
+     * @return History file path
+     */
+    public static Path getHistoryFile() {
+        return Paths.get(ConfigSnapshot.get().getString("scheduler.historyFile",
+                ".scenario-history/durations.properties"));
+    }
+
+    /**
+     * Build the key of a scenario
+     *
+     * @param uri  Feature file URI or path, absolute or relative
+     * @param line Line of the scenario (or example row of an outline)
+     * @return Key independent of the working directory
+     */
+    public static String key(String uri, int line) {
+        String path = uri.replace('\\', '/');
+        int resources = path.lastIndexOf("src/test/resources/");
+        if (resources >= 0) {
+            path = path.substring(resources + "src/test/resources/".length());
+        } else if (path.contains("features/")) {
+            path = path.substring(path.lastIndexOf("features/"));
+        }
+        return path + ":" + line;
+    }
+
+    /**
+     * Read durations saved by an earlier run
+     *
+     * @param historyFile Properties file of scenario key to milliseconds
+     * @return true if the file existed and was read
+     */
+    public boolean readHistory(Path historyFile) {
+        if (!Files.isRegularFile(historyFile)) {
+            return false;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(historyFile)) {
+            properties.load(in);
+        } catch (IOException e) {
+            logger.warn("⚠️ Could not read scenario history {}: {}", historyFile, e.getMessage());
+            return false;
+        }
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key).trim();
+            if (value.matches("\\d+")) {
+                durations.put(key, Long.parseLong(value));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Merge the scenario durations of a Cucumber JSON report. A scenario already in the
+     * history is averaged with its new duration, so one slow run does not dominate.
+     *
+     * @param report Cucumber JSON report
+     * @return Number of scenarios read
+     */
+    public int readCucumberReport(Path report) {
+        if (!Files.isRegularFile(report)) {
+            return 0;
+        }
+        JsonNode features;
+        try {
+            features = objectMapper.readTree(report.toFile());
+        } catch (IOException e) {
+            // An interrupted run can leave the report incomplete
+            logger.warn("⚠️ Could not read Cucumber report {}: {}", report, e.getMessage());
+            return 0;
+        }
+        int scenarios = 0;
+        for (JsonNode feature : features) {
+            String uri = feature.path("uri").asText("");
+            long backgroundNanos = 0;
+            for (JsonNode element : feature.path("elements")) {
+                long nanos = sumDurations(element, "before") + sumDurations(element, "steps")
+                        + sumDurations(element, "after");
+                if ("background".equals(element.path("type").asText())) {
+                    backgroundNanos = nanos;
+                    continue;
+                }
+                nanos += backgroundNanos;
+                backgroundNanos = 0;
+                if (nanos > 0 && !uri.isEmpty()) {
+                    long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+                    durations.merge(key(uri, element.path("line").asInt()), millis, (old, now) -> (old + now) / 2);
+                    scenarios++;
+                }
+            }
+        }
+        return scenarios;
+    }
+
+    /**
+     * Save the durations for the next run
+     *
+     * @param historyFile Properties file to write
+     */
+    public void save(Path historyFile) {
+        Properties properties = new Properties();
+        durations.forEach((key, millis) -> properties.setProperty(key, String.valueOf(millis)));
+        try {
+            if (historyFile.getParent() != null) {
+                Files.createDirectories(historyFile.getParent());
+            }
+            try (OutputStream out = Files.newOutputStream(historyFile)) {
+                properties.store(out, "Scenario durations in milliseconds");
+            }
+        } catch (IOException e) {
+            logger.warn("⚠️ Could not save scenario history {}: {}", historyFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Get the recorded duration of a scenario
+     *
+     * @param key Scenario key
+     * @return Duration in milliseconds or null if the scenario has not run before
+     */
+    public Long getDurationMillis(String key) {
+        return durations.get(key);
+    }
+
+    /**
+     * Estimate for scenarios without history: the median of the known durations
+     *
+     * @param fallbackMillis Estimate used when there is no history at all
+     * @return Estimate in milliseconds
+     */
+    public long getDefaultEstimateMillis(long fallbackMillis) {
+        if (durations.isEmpty()) {
+            return fallbackMillis;
+        }
+        List<Long> sorted = new ArrayList<>(durations.values());
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+
+    public int size() {
+        return durations.size();
+    }
+
+    private static long sumDurations(JsonNode element, String field) {
+        long nanos = 0;
+        for (JsonNode entry : element.path(field)) {
+            nanos += entry.path("result").path("duration").asLong(0);
+        }
+        return nanos;
+    }
+}
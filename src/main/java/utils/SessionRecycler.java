@@ -0,0 +1,128 @@
+package utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.chromium.HasCdp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SessionRecycler - Resets a browser session so it can be handed to the next scenario
+ * Clears cookies, localStorage, sessionStorage, IndexedDB and cache for the application
+ * origins, closes extra windows and leaves the session on about:blank.
+ */
+public class SessionRecycler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionRecycler.class);
+
+    private static final String CLEAR_STORAGE_SCRIPT = "try { window.localStorage.clear(); } catch (e) {}"
+            + "try { window.sessionStorage.clear(); } catch (e) {}"
+            + "try { if (window.indexedDB && indexedDB.databases) {"
+            + "  indexedDB.databases().then(function (dbs) {"
+            + "    dbs.forEach(function (db) { indexedDB.deleteDatabase(db.name); }); }); } } catch (e) {}";
+
+    /**
+     * Reset the session for the OrangeHRM and TesterBud origins
+     *
+     * @param driver Session to reset
+     * @return true if the session is clean and can be reused
+     */
+    public static boolean reset(WebDriver driver) {
+        return reset(driver, getApplicationOrigins());
+    }
+
+    /**
+     * Reset the session for the given origins
+     *
+     * @param driver  Session to reset
+     * @param origins Origins (scheme://host[:port]) whose data must be wiped
+     * @return true if the session is clean and can be reused
+     */
+    public static boolean reset(WebDriver driver, List<String> origins) {
+        long start = System.currentTimeMillis();
+        try {
+            // A fresh tab also drops the old tab's sessionStorage
+            String cleanTab = openCleanTab(driver);
+
+            if (driver instanceof HasCdp) {
+                clearWithCdp((HasCdp) driver, origins);
+            } else {
+                clearWithScript(driver, origins);
+            }
+
+            driver.switchTo().window(cleanTab);
+            driver.get("about:blank");
+            logger.debug("Browser session reset in {} ms for origins: {}", System.currentTimeMillis() - start, origins);
+            return true;
+        } catch (Exception e) {
+            logger.warn("⚠️ Browser session reset failed, session will be discarded: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Get the origins of the configured applications
+     *
+     * @return Distinct origins of the OrangeHRM and TesterBud base URLs
+     */
+    public static List<String> getApplicationOrigins() {
+        Set<String> origins = new LinkedHashSet<>();
+        addOrigin(origins, URLManager.getOrangeHrmBaseUrl());
+        addOrigin(origins, URLManager.getTesterBudBaseUrl());
+        return new ArrayList<>(origins);
+    }
+
+    private static void addOrigin(Set<String> origins, String url) {
+        if (url == null || url.isEmpty()) {
+            return;
+        }
+        try {
+            URI uri = URI.create(url);
+            String origin = uri.getScheme() + "://" + uri.getHost() + (uri.getPort() != -1 ? ":" + uri.getPort() : "");
+            origins.add(origin);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Ignoring invalid application URL for session reset: {}", url);
+        }
+    }
+
+    private static String openCleanTab(WebDriver driver) {
+        Set<String> oldHandles = driver.getWindowHandles();
+        driver.switchTo().newWindow(WindowType.TAB);
+        String cleanTab = driver.getWindowHandle();
+        for (String handle : oldHandles) {
+            driver.switchTo().window(handle);
+            driver.close();
+        }
+        driver.switchTo().window(cleanTab);
+        return cleanTab;
+    }
+
+    private static void clearWithCdp(HasCdp cdp, List<String> origins) {
+        cdp.executeCdpCommand("Network.clearBrowserCookies", new HashMap<>());
+        cdp.executeCdpCommand("Network.clearBrowserCache", new HashMap<>());
+        for (String origin : origins) {
+            Map<String, Object> params = new HashMap<>();
+            params.put("origin", origin);
+            params.put("storageTypes", "all");
+            cdp.executeCdpCommand("Storage.clearDataForOrigin", params);
+        }
+    }
+
+    // Browsers without CDP: visit each origin and clear its storage from the page
+    private static void clearWithScript(WebDriver driver, List<String> origins) {
+        for (String origin : origins) {
+            driver.get(origin);
+            driver.manage().deleteAllCookies();
+            ((JavascriptExecutor) driver).executeScript(CLEAR_STORAGE_SCRIPT);
+        }
+    }
+}
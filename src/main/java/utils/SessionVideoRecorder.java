@@ -0,0 +1,459 @@
+package utils;
+
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SessionVideoRecorder - Records the page of one browser session
+ * Unlike the screen recorders, which capture the whole desktop through AWT Robot,
+ * frames come from the session itself, so parallel scenarios each get a video of
+ * their own browser, headless browsers included:
+ *   - Chrome/Edge: DevTools Page.startScreencast pushes a frame whenever the page changes
+ *   - other sessions (Firefox, Grid, Appium): a WebDriver screenshot is taken on every tick
+ *
+ * Frames are written at a constant frame rate, repeating the last frame while the
+ * page does not change, and streamed to ffmpeg as in VideoRecorderMP4. The first
+ * frame fixes the video size; later frames of another size are scaled to it. A
+ * failure-only recording keeps the last seconds in a FrameRingBuffer instead, see
+ * stop(WebDriver, boolean).
+ *
+ * Screenshots identical to the previous one are not decoded again, and frames are
+ * decoded into one reused image. Frame counts and memory use are logged per recording.
+ *
+ * stopAsync() only stops the capture and leaves encoding to VideoEncodingQueue, so
+ * teardown does not wait for ffmpeg.
+ */
+public class SessionVideoRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionVideoRecorder.class);
+    // Name in ResourceRegistry; sessions are quit after their recordings are finished
+    public static final String RESOURCE_NAME = "session-videos";
+    private static final long ENCODE_TIMEOUT_SECONDS = 60;
+
+    private static final Map<WebDriver, SessionVideoRecorder> recorders = new ConcurrentHashMap<>();
+    // Screencast listeners are installed once per pooled session and forward to its current recorder
+    private static final Set<WebDriver> screencastSessions =
+            Collections.newSetFromMap(Collections.synchronizedMap(new WeakHashMap<>()));
+    // Ring buffers of finished failure-only recordings, reused by later ones of the same size.
+    // No more are kept than recordings ever ran at once, each with a few slots allocated
+    private static final Queue<FrameRingBuffer> spareRingBuffers = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger peakRecordings = new AtomicInteger();
+    private static final int SPARE_RING_BUFFER_SLOTS = 4;
+
+    private final WebDriver driver;
+    private final File output;
+    private final String ffmpegPath;
+    private final int frameRate;
+    private final int failureSeconds;
+    private final ScheduledExecutorService scheduler;
+    private DevToolsChannel screencast;
+
+    // Latest screencast frame (JPEG), replaced by the DevTools thread
+    private volatile byte[] pushedFrame;
+    private byte[] decodedFrame;
+    private byte[] lastScreenshot;
+    // Frames are decoded into one reused image while the frame size and type stay the same
+    private BufferedImage decodeTarget;
+    private ImageTypeSpecifier decodeType;
+    private long decodeAllocatedBytes;
+    private BufferedImage lastFrame;
+    private BufferedImage canvas;
+    private FfmpegPipeEncoder encoder;
+    private FrameRingBuffer ringBuffer;
+    private int frameCount;
+    private final RecordingStats stats = new RecordingStats();
+    private boolean captureFailureLogged;
+
+    private SessionVideoRecorder(WebDriver driver, File output, String ffmpegPath, int frameRate,
+            int failureSeconds) {
+        this.driver = driver;
+        this.output = output;
+        this.ffmpegPath = ffmpegPath;
+        this.frameRate = frameRate;
+        this.failureSeconds = failureSeconds;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-video-" + output.getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start recording a session
+     *
+     * @param driver         Session to record
+     * @param output         MP4 file to create
+     * @param frameRate      Frames per second
+     * @param failureSeconds Seconds kept for a failure-only recording, 0 to record everything
+     * @return false if the recording could not be started
+     */
+    public static boolean start(WebDriver driver, File output, int frameRate, int failureSeconds) {
+        if (!VideoRecorderMP4.isFFmpegAvailable()) {
+            logger.warn("⚠️ FFmpeg not detected, session recording skipped for {}", output.getName());
+            return false;
+        }
+        return start(driver, output, VideoRecorderMP4.getFFmpegPath(), frameRate, failureSeconds);
+    }
+
+    static boolean start(WebDriver driver, File output, String ffmpegPath, int frameRate, int failureSeconds) {
+        if (recorders.containsKey(driver)) {
+            logger.warn("⚠️ Session already recording, dropping the previous recording");
+            stop(driver, false);
+        }
+        File folder = output.getAbsoluteFile().getParentFile();
+        if (folder != null) {
+            folder.mkdirs();
+        }
+        SessionVideoRecorder recorder = new SessionVideoRecorder(driver, output, ffmpegPath, frameRate,
+                Math.max(0, failureSeconds));
+        recorders.put(driver, recorder);
+        peakRecordings.accumulateAndGet(recorders.size(), Math::max);
+        // Recordings still running at suite end are finished before the browsers quit
+        ResourceRegistry.getInstance().register(RESOURCE_NAME, SessionVideoRecorder::stopAll);
+
+        boolean screencast = recorder.startScreencast();
+        recorder.scheduler.scheduleAtFixedRate(recorder::tick, 0, 1000 / frameRate, TimeUnit.MILLISECONDS);
+        logger.info("🎥 Session recording started: {} ({}, {} FPS{})", output.getName(),
+                screencast ? "DevTools screencast" : "WebDriver screenshots", frameRate,
+                failureSeconds > 0 ? ", last " + failureSeconds + " s kept for failures" : "");
+        return true;
+    }
+
+    /**
+     * Stop recording a session. A failure-only recording is encoded only if the
+     * scenario failed, otherwise its frames are dropped.
+     *
+     * @param driver         Recorded session
+     * @param scenarioFailed Whether the recorded scenario failed
+     * @return Path of the video, or null if none was kept
+     */
+    public static String stop(WebDriver driver, boolean scenarioFailed) {
+        SessionVideoRecorder recorder = recorders.remove(driver);
+        return recorder != null ? recorder.finish(scenarioFailed) : null;
+    }
+
+    /**
+     * Stop recording a session without waiting for the video. Capture stops before
+     * this returns, so the session can be reused at once; the video is created by
+     * VideoEncodingQueue.
+     *
+     * @param driver         Recorded session
+     * @param scenarioFailed Whether the recorded scenario failed
+     * @return Path of the video once created, or null if none was kept
+     */
+    public static CompletableFuture<String> stopAsync(WebDriver driver, boolean scenarioFailed) {
+        SessionVideoRecorder recorder = recorders.remove(driver);
+        Callable<String> encoding = recorder != null ? recorder.stopCapture(scenarioFailed) : null;
+        if (encoding == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return VideoEncodingQueue.getInstance().submit(recorder.output.getName(), encoding);
+    }
+
+    public static boolean isRecording(WebDriver driver) {
+        return driver != null && recorders.containsKey(driver);
+    }
+
+    /**
+     * Finish every running recording, keeping failure-only recordings
+     */
+    public static void stopAll() {
+        for (WebDriver driver : recorders.keySet()) {
+            stop(driver, true);
+        }
+    }
+
+    private boolean startScreencast() {
+        if (!(driver instanceof HasDevTools)) {
+            return false;
+        }
+        try {
+            DevToolsChannel channel = DevToolsChannel.of(driver);
+            if (!screencastSessions.contains(driver)) {
+                channel.addListener("Page.screencastFrame", event -> onScreencastFrame(driver, event));
+                screencastSessions.add(driver);
+            }
+            // SessionRecycler replaces the tab between scenarios; the old tab sends no frames
+            channel.attach();
+            screencast = channel;
+            Map<String, Object> params = new HashMap<>();
+            params.put("format", "jpeg");
+            params.put("quality", 80);
+            screencast.send("Page.startScreencast", params);
+            return true;
+        } catch (Exception e) {
+            logger.debug("DevTools screencast unavailable, using screenshots: {}", e.getMessage());
+            screencast = null;
+            return false;
+        }
+    }
+
+    static void onScreencastFrame(WebDriver driver, Map<String, Object> event) {
+        SessionVideoRecorder recorder = recorders.get(driver);
+        if (recorder == null || recorder.screencast == null) {
+            return;
+        }
+        recorder.pushedFrame = Base64.getDecoder().decode(String.valueOf(event.get("data")));
+        // Chrome sends the next frame once this one is acknowledged; acknowledged off the
+        // DevTools thread, which must not wait for a command response itself
+        Map<String, Object> ack = new HashMap<>();
+        ack.put("sessionId", event.get("sessionId"));
+        try {
+            recorder.scheduler.execute(() -> recorder.send("Page.screencastFrameAck", ack));
+        } catch (RuntimeException e) {
+            // Recording stopped in the meantime
+        }
+    }
+
+    private void send(String method, Map<String, Object> params) {
+        try {
+            screencast.send(method, params);
+        } catch (Exception e) {
+            logger.debug("DevTools {} failed: {}", method, e.getMessage());
+        }
+    }
+
+    // Runs on the recorder thread at the frame rate
+    private void tick() {
+        try {
+            long allocatedBefore = decodeAllocatedBytes;
+            BufferedImage frame = nextFrame();
+            if (frame == null) {
+                return;
+            }
+            if (encoder == null && ringBuffer == null) {
+                openOutput(frame.getWidth(), frame.getHeight());
+            }
+            BufferedImage fitted = fit(frame);
+            boolean duplicate = ringBuffer != null ? ringBuffer.add(fitted) : encoder.writeFrame(fitted);
+            stats.frameCaptured(duplicate, decodeAllocatedBytes - allocatedBefore);
+            frameCount++;
+        } catch (Exception e) {
+            if (!captureFailureLogged) {
+                captureFailureLogged = true;
+                logger.warn("⚠️ Session frame capture failed for {}: {}", output.getName(), e.getMessage());
+            }
+        }
+    }
+
+    private BufferedImage nextFrame() throws IOException {
+        byte[] bytes;
+        if (screencast != null) {
+            bytes = pushedFrame;
+            // The page did not change since the last screencast frame
+            if (bytes == null || bytes == decodedFrame) {
+                return lastFrame;
+            }
+            decodedFrame = bytes;
+        } else {
+            bytes = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+            // Allocated by WebDriver for every screenshot
+            decodeAllocatedBytes += bytes.length;
+            // An identical screenshot is not decoded again
+            if (lastFrame != null && Arrays.equals(bytes, lastScreenshot)) {
+                return lastFrame;
+            }
+            lastScreenshot = bytes;
+        }
+        BufferedImage image = decode(bytes);
+        if (image != null) {
+            lastFrame = image;
+        }
+        return lastFrame;
+    }
+
+    private BufferedImage decode(byte[] bytes) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                ImageTypeSpecifier type = reader.getImageTypes(0).next();
+                if (decodeTarget == null || decodeTarget.getWidth() != width || decodeTarget.getHeight() != height
+                        || !type.equals(decodeType)) {
+                    decodeTarget = type.createBufferedImage(width, height);
+                    decodeType = type;
+                    decodeAllocatedBytes += (long) width * height * type.getSampleModel().getNumBands();
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setDestination(decodeTarget);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private void openOutput(int width, int height) throws IOException {
+        canvas = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        if (failureSeconds > 0) {
+            int capacity = failureSeconds * frameRate;
+            for (FrameRingBuffer spare : spareRingBuffers) {
+                if (spare.fits(capacity, width, height) && spareRingBuffers.remove(spare)) {
+                    ringBuffer = spare;
+                    return;
+                }
+            }
+            ringBuffer = new FrameRingBuffer(capacity, width, height);
+        } else {
+            encoder = FfmpegPipeEncoder.start(ffmpegPath, output, width, height, frameRate);
+        }
+    }
+
+    // Frames after a window resize are scaled to the size of the first frame
+    private BufferedImage fit(BufferedImage frame) {
+        if (frame.getWidth() == canvas.getWidth() && frame.getHeight() == canvas.getHeight()) {
+            return frame;
+        }
+        Graphics2D graphics = canvas.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(frame, 0, 0, canvas.getWidth(), canvas.getHeight(), null);
+        } finally {
+            graphics.dispose();
+        }
+        return canvas;
+    }
+
+    private String finish(boolean scenarioFailed) {
+        return stopCapture(scenarioFailed) != null ? createVideo() : null;
+    }
+
+    /**
+     * Stop capturing frames; what is left to do to create the video is returned as a
+     * job, which may run on another thread as it is the only user of this recorder then
+     *
+     * @return Job creating the video and returning its path, or null if no video is kept
+     */
+    private Callable<String> stopCapture(boolean scenarioFailed) {
+        if (screencast != null) {
+            send("Page.stopScreencast", new HashMap<>());
+        }
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        long retainedBytes = decodeTarget != null
+                ? (long) decodeTarget.getWidth() * decodeTarget.getHeight() * decodeType.getSampleModel().getNumBands()
+                : 0;
+        if (canvas != null) {
+            retainedBytes += (long) canvas.getWidth() * canvas.getHeight() * Integer.BYTES;
+        }
+        retainedBytes += ringBuffer != null ? ringBuffer.getRetainedBytes()
+                : encoder != null ? encoder.getRetainedBytes() : 0;
+        stats.setRetainedBytes(retainedBytes);
+        logger.info("📊 Recording stats for {}: {}", output.getName(), stats);
+
+        if (ringBuffer != null && !scenarioFailed) {
+            dropBufferedFrames();
+            releaseRingBuffer();
+            return null;
+        }
+        if (ringBuffer == null && encoder == null) {
+            logger.warn("⚠️ No frames captured for {}, cannot create video", output.getName());
+            return null;
+        }
+        return this::createVideo;
+    }
+
+    private String createVideo() {
+        try {
+            return ringBuffer != null ? encodeBufferedFrames() : finishEncoding();
+        } catch (IOException e) {
+            logger.error("❌ Failed to create session video {}: {}", output.getName(), e.getMessage());
+            if (encoder != null) {
+                encoder.abort();
+            }
+            return null;
+        } finally {
+            releaseRingBuffer();
+        }
+    }
+
+    private void releaseRingBuffer() {
+        if (ringBuffer == null) {
+            return;
+        }
+        // Most frames of a waiting page repeat the last one, so a few slots cover the start of a recording
+        ringBuffer.clear(SPARE_RING_BUFFER_SLOTS);
+        synchronized (spareRingBuffers) {
+            // The oldest spare makes room, it may be of a size no longer recorded
+            while (spareRingBuffers.size() >= Math.max(1, peakRecordings.get())) {
+                spareRingBuffers.poll();
+            }
+            spareRingBuffers.add(ringBuffer);
+        }
+        ringBuffer = null;
+    }
+
+    /**
+     * @return Ring buffers kept for later failure-only recordings
+     */
+    static int getSpareRingBufferCount() {
+        return spareRingBuffers.size();
+    }
+
+    private String encodeBufferedFrames() throws IOException {
+        logger.info("🎬 Scenario failed, encoding the last {} frames of {}", ringBuffer.size(), output.getName());
+        encoder = FfmpegPipeEncoder.start(ffmpegPath, output, canvas.getWidth(), canvas.getHeight(), frameRate);
+        ringBuffer.writeTo(encoder);
+        return finishEncoding();
+    }
+
+    private void dropBufferedFrames() {
+        logger.debug("Scenario passed, dropped {} buffered frames of {}", ringBuffer.size(), output.getName());
+    }
+
+    private String finishEncoding() {
+        if (!encoder.finish(ENCODE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            return null;
+        }
+        logger.info("✅ Session video created: {} ({} frames, {} KB)", output.getPath(), frameCount,
+                output.length() / 1024);
+        return output.getPath();
+    }
+}
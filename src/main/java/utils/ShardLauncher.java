@@ -0,0 +1,109 @@
+package utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * ShardLauncher - Runs the suite as N shards in forked JVMs on this machine, then merges the reports
+ * Every shard is a separate Maven Surefire run with -Dshard.index/-Dshard.total, so
+ * each has its own browser pool and TestRunner. Shards write their reports to
+ * target/shards/shard-I and their console output to target/shards/shard-I/maven.log.
+ * target/shards is cleared first, so shards of an earlier run are not merged.
+ * Compile first (mvn test-compile), the shards only run surefire:test.
+ *
+ * Usage: mvn exec:java -Dexec.mainClass=utils.ShardLauncher -Dexec.args="3 -DsuiteXmlFile=testng.xml"
+ * The first argument is the number of shards (default shard.total); the rest are
+ * passed to every shard's Maven command.
+ *
+ * On CI, run one shard per agent with mvn test -Dshard.index=I -Dshard.total=N, copy each
+ * agent's cucumber.json, cucumber.xml and allure-results into target/shards/shard-I
+ * and run utils.ReportMerger.
+ */
+public class ShardLauncher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardLauncher.class);
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : ShardPlanner.getShardTotal();
+        List<String> extraArgs = args.length > 1 ? Arrays.asList(args).subList(1, args.length) : new ArrayList<>();
+        int failedShards = runShards(total, extraArgs);
+        ReportMerger.merge(ReportMerger.DEFAULT_SHARDS_DIR, ReportMerger.DEFAULT_REPORTS_DIR,
+                ReportMerger.DEFAULT_ALLURE_RESULTS);
+        if (failedShards > 0) {
+            logger.error("❌ {} of {} shard(s) failed, see target/shards/shard-*/maven.log", failedShards, total);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Start all shards and wait for them
+     *
+     * @param total     Number of shards
+     * @param extraArgs Additional Maven arguments for every shard
+     * @return Number of shards that exited with an error
+     */
+    public static int runShards(int total, List<String> extraArgs) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        deleteDirectory(ReportMerger.DEFAULT_SHARDS_DIR);
+        List<Process> processes = new ArrayList<>();
+        for (int index = 0; index < total; index++) {
+            Path shardDir = ReportMerger.DEFAULT_SHARDS_DIR.resolve("shard-" + index);
+            Files.createDirectories(shardDir);
+            ProcessBuilder builder = new ProcessBuilder(buildCommand(index, total, shardDir, extraArgs))
+                    .redirectErrorStream(true)
+                    .redirectOutput(shardDir.resolve("maven.log").toFile());
+            processes.add(builder.start());
+            logger.info("🧩 Shard {}/{} started, output in {}", index, total, shardDir.resolve("maven.log"));
+        }
+
+        int failed = 0;
+        for (int index = 0; index < total; index++) {
+            int exitCode = processes.get(index).waitFor();
+            logger.info("🧩 Shard {}/{} finished with exit code {} after {} s", index, total, exitCode,
+                    TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+            if (exitCode != 0) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    static List<String> buildCommand(int index, int total, Path shardDir, List<String> extraArgs) {
+        String dir = shardDir.toString().replace(File.separatorChar, '/');
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("os.name", "").toLowerCase().contains("win") ? "mvn.cmd" : "mvn");
+        command.add("-B");
+        command.add("surefire:test");
+        command.add("-Dshard.index=" + index);
+        command.add("-Dshard.total=" + total);
+        // TestRunner writes the Cucumber reports and step latencies there (see ShardPlanner.getOutputDir)
+        command.add("-Dshard.outputDir=" + dir);
+        command.add("-Dallure.results.directory=" + dir + "/allure-results");
+        command.add("-Drerun.reportFile=" + dir + "/rerun-report.json");
+        command.addAll(extraArgs);
+        return command;
+    }
+
+    static void deleteDirectory(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+}
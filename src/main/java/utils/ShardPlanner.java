@@ -0,0 +1,111 @@
+package utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * ShardPlanner - Splits scenarios across JVMs or CI agents by historical duration
+ * Each shard runs its own TestRunner with -Dshard.index=I -Dshard.total=N
+ * (I counts from 0). Every shard computes the same plan from the same scenario list
+ * and duration history: scenarios are taken longest-first and each goes to the
+ * shard with the least estimated work so far, so shards finish at about the same
+ * time instead of holding the same number of feature files.
+ */
+public class ShardPlanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardPlanner.class);
+
+    public static int getShardTotal() {
+        return Math.max(1, ConfigSnapshot.get().getInt("shard.total", 1));
+    }
+
+    public static int getShardIndex() {
+        return ConfigSnapshot.get().getInt("shard.index", 0);
+    }
+
+    public static boolean isSharded() {
+        return getShardTotal() > 1;
+    }
+
+    /**
+     * Directory for the report files of a shard started by ShardLauncher (-Dshard.outputDir)
+     *
+     * @return Shard directory, or null when reports go to their default locations
+     */
+    public static String getOutputDir() {
+        String dir = ConfigSnapshot.get().getString("shard.outputDir", "");
+        return dir.isEmpty() ? null : dir;
+    }
+
+    /**
+     * Plan all shards
+     *
+     * @param items    Items to split, e.g. scenarios
+     * @param key      Stable key of an item, used to break ties the same way in every shard
+     * @param estimate Estimated duration of an item
+     * @param total    Number of shards
+     * @return Items of each shard, in input order
+     */
+    public static <T> List<List<T>> plan(List<T> items, Function<T, String> key, ToLongFunction<T> estimate,
+            int total) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.<Integer>comparingLong(i -> estimate.applyAsLong(items.get(i))).reversed()
+                .thenComparing(i -> key.apply(items.get(i))));
+
+        int[] shardOf = new int[items.size()];
+        long[] loads = new long[total];
+        for (int i : order) {
+            int lightest = 0;
+            for (int shard = 1; shard < total; shard++) {
+                if (loads[shard] < loads[lightest]) {
+                    lightest = shard;
+                }
+            }
+            shardOf[i] = lightest;
+            loads[lightest] += estimate.applyAsLong(items.get(i));
+        }
+
+        List<List<T>> shards = new ArrayList<>();
+        for (int shard = 0; shard < total; shard++) {
+            shards.add(new ArrayList<>());
+        }
+        for (int i = 0; i < items.size(); i++) {
+            shards.get(shardOf[i]).add(items.get(i));
+        }
+        for (int shard = 0; shard < total; shard++) {
+            logger.debug("Shard {}/{}: {} item(s), estimated {} ms", shard, total, shards.get(shard).size(),
+                    loads[shard]);
+        }
+        return shards;
+    }
+
+    /**
+     * Select the items of one shard
+     *
+     * @param items    Items to split
+     * @param key      Stable key of an item
+     * @param estimate Estimated duration of an item
+     * @param index    Shard index, from 0
+     * @param total    Number of shards
+     * @return Items of the shard, in input order
+     */
+    public static <T> List<T> select(List<T> items, Function<T, String> key, ToLongFunction<T> estimate, int index,
+            int total) {
+        if (index < 0 || index >= total) {
+            throw new IllegalArgumentException(
+                    String.format("shard.index must be between 0 and %d but was %d", total - 1, index));
+        }
+        List<T> shard = plan(items, key, estimate, total).get(index);
+        logger.info("🧩 Shard {}/{} runs {} of {} item(s)", index, total, shard.size(), items.size());
+        return shard;
+    }
+}
@@ -146,12 +146,16 @@ public class URLManager {
     }
 
     /**
-     * Log URL navigation for debugging
+     * Log URL navigation for debugging. With host.circuit.enabled the host is checked
+     * first, and the scenario is skipped if its circuit is open (see HostHealthTracker).
      * 
      * @param pageName Page name being navigated to
      * @param url      URL being accessed
      */
     public static void logNavigation(String pageName, String url) {
         logger.info("Navigating to {} page: {}", pageName, url);
+        if (HostHealthTracker.isEnabled()) {
+            HostHealthTracker.getInstance().beforeNavigation(url);
+        }
     }
 }
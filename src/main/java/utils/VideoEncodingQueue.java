@@ -0,0 +1,175 @@
+package utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * VideoEncodingQueue - Creates recorded videos in the background
+ * Recorders stop capturing in the scenario's teardown and submit what is left
+ * (ffmpeg finishing, a failure-only ring buffer being encoded, PNG frames being
+ * written) as a job, so the next scenario does not wait for it. Jobs run on a few
+ * daemon threads behind a bounded queue; when the queue is full the job runs on the
+ * submitting thread instead, which holds scenarios back rather than piling up
+ * unencoded frames in memory. At suite end the queue is drained before the JVM exits.
+ *
+ * Configured in config.properties:
+ *   video.encoding.async=true
+ *   video.encoding.threads=2
+ *   video.encoding.queueSize=8
+ *   video.encoding.drainTimeoutSeconds=300
+ */
+public class VideoEncodingQueue implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(VideoEncodingQueue.class);
+    // Name in ResourceRegistry; drained once running recordings have been stopped
+    public static final String RESOURCE_NAME = "video-encoding";
+
+    private static VideoEncodingQueue instance;
+
+    private final ThreadPoolExecutor executor;
+    private final Set<CompletableFuture<String>> pending = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param threads   Videos encoded at the same time
+     * @param queueSize Jobs waiting for a thread before jobs run on the submitting thread
+     */
+    VideoEncodingQueue(int threads, int queueSize) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "video-encoding-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, (job, pool) -> {
+                    logger.warn("⚠️ Video encoding queue full ({} jobs), encoding on the calling thread",
+                            pool.getQueue().size());
+                    if (!pool.isShutdown()) {
+                        job.run();
+                    }
+                });
+    }
+
+    /**
+     * Queue of the current suite, created from config.properties on first use
+     *
+     * @return Shared queue
+     */
+    public static synchronized VideoEncodingQueue getInstance() {
+        if (instance == null) {
+            ConfigSnapshot config = ConfigSnapshot.get();
+            instance = new VideoEncodingQueue(Math.max(1, config.getInt("video.encoding.threads", 2)),
+                    Math.max(1, config.getInt("video.encoding.queueSize", 8)));
+            ResourceRegistry.getInstance().register(RESOURCE_NAME, instance,
+                    config.getDuration("video.encoding.drainTimeoutSeconds", ChronoUnit.SECONDS, 300),
+                    SessionVideoRecorder.RESOURCE_NAME, VideoRecorderMP4.RESOURCE_NAME);
+        }
+        return instance;
+    }
+
+    /**
+     * Check if videos are created in the background (video.encoding.async)
+     *
+     * @return true if recorders should submit their encoding here
+     */
+    public static boolean isEnabled() {
+        return ConfigSnapshot.get().getBoolean("video.encoding.async", true);
+    }
+
+    /**
+     * Submit a video to be created
+     *
+     * @param videoName Name used in log messages
+     * @param job       Creates the video and returns its path, or null if none was created
+     * @return Completed with the job's result once it has run
+     */
+    public CompletableFuture<String> submit(String videoName, Callable<String> job) {
+        CompletableFuture<String> video = new CompletableFuture<>();
+        pending.add(video);
+        video.whenComplete((path, error) -> pending.remove(video));
+        long submitted = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                logger.debug("Encoding {} after {} ms in the queue", videoName,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submitted));
+                try {
+                    video.complete(job.call());
+                } catch (Throwable e) {
+                    logger.error("❌ Encoding {} failed: {}", videoName, e.getMessage(), e);
+                    video.completeExceptionally(e);
+                }
+            });
+        } finally {
+            if (!video.isDone() && executor.isShutdown()) {
+                video.completeExceptionally(new IllegalStateException("Video encoding queue closed"));
+            }
+        }
+        return video;
+    }
+
+    /**
+     * @return Jobs submitted and not finished yet
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Wait for every job submitted so far
+     *
+     * @param timeout Longest wait
+     * @return false if jobs were still running when the timeout expired
+     */
+    public boolean drain(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!pending.isEmpty()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            try {
+                CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0]))
+                        .get(remaining, TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                // Reported by the job
+            } catch (TimeoutException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Wait for the jobs left and stop the threads; a later getInstance() creates a new queue
+     */
+    @Override
+    public void close() {
+        synchronized (VideoEncodingQueue.class) {
+            if (instance == this) {
+                instance = null;
+            }
+        }
+        int left = pending.size();
+        if (left > 0) {
+            logger.info("⏳ Waiting for {} video(s) to finish encoding", left);
+        }
+        // Bounded by the registry, which interrupts a close that times out
+        drain(Duration.ofDays(1));
+        executor.shutdown();
+    }
+}
@@ -1,8 +1,13 @@
 package utils;
 
+import org.openqa.selenium.WebDriver;
+
 import java.io.File;
+import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Video Management utility class
@@ -47,7 +52,9 @@ public class VideoManager {
      * @param testName Name of the test
      */
     public static void startRecording(String testName) {
-        if (isRecordingEnabled()) {
+        if (isRecordingEnabled() && isFailureOnlyRecording()) {
+            VideoRecorder.startFailureOnlyRecording(testName, getFailureRecordingSeconds());
+        } else if (isRecordingEnabled()) {
             VideoRecorder.startRecording(testName);
         } else {
             System.out.println("🚫 Video recording is disabled - skipping for: " + testName);
@@ -67,6 +74,126 @@ public class VideoManager {
         return null;
     }
 
+    /**
+     * Stop video recording if active; in failure-only mode the video of a passed
+     * scenario is dropped without being encoded
+     * 
+     * @param attachToReport Whether to attach to report
+     * @param scenarioFailed Whether the recorded scenario failed
+     * @return Path to recorded video or null
+     */
+    public static String stopRecording(boolean attachToReport, boolean scenarioFailed) {
+        if (VideoRecorder.isRecording()) {
+            return AllureManager.stopVideoRecording(attachToReport, scenarioFailed);
+        }
+        return null;
+    }
+
+    /**
+     * Stop video recording if active without waiting for the video to be encoded
+     * (video.encoding.async); the report attachment is completed once it is
+     * 
+     * @param attachToReport Whether to attach to report
+     * @param scenarioFailed Whether the recorded scenario failed
+     * @return Path to recorded video once encoded, or null
+     */
+    public static CompletableFuture<String> stopRecordingAsync(boolean attachToReport, boolean scenarioFailed) {
+        if (!VideoRecorder.isRecording()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        // Without FFmpeg the frames are only saved for manual conversion, attached as they are
+        if (!VideoEncodingQueue.isEnabled() || !VideoRecorder.isFFmpegAvailable()) {
+            return CompletableFuture.completedFuture(stopRecording(attachToReport, scenarioFailed));
+        }
+        CompletableFuture<String> videoPath = VideoRecorder.stopRecordingAsync(scenarioFailed);
+        if (attachToReport) {
+            AllureManager.attachVideoWhenEncoded(videoPath, "Test_Recording_" + System.currentTimeMillis());
+        }
+        return videoPath;
+    }
+
+    /**
+     * Check if videos are recorded from the browser session rather than the screen
+     * (video.recording.backend=session)
+     * 
+     * @return true if each scenario records its own session
+     */
+    public static boolean isSessionRecording() {
+        return "session".equalsIgnoreCase(ConfigSnapshot.get().getString("video.recording.backend", "session"));
+    }
+
+    /**
+     * Start recording a browser or app session if enabled
+     * 
+     * @param driver   Session used by the test
+     * @param testName Name of the test
+     */
+    public static void startRecording(WebDriver driver, String testName) {
+        if (!isRecordingEnabled()) {
+            System.out.println("🚫 Video recording is disabled - skipping for: " + testName);
+            return;
+        }
+        String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss_SSS").format(new Date());
+        File output = new File(getVideoFolder(), testName.replaceAll("[^a-zA-Z0-9]", "_") + "_" + timestamp + ".mp4");
+        SessionVideoRecorder.start(driver, output, VideoRecorder.getFrameRate(),
+                isFailureOnlyRecording() ? getFailureRecordingSeconds() : 0);
+    }
+
+    /**
+     * Stop recording a session if active
+     * 
+     * @param driver         Session used by the test
+     * @param attachToReport Whether to attach to report
+     * @param scenarioFailed Whether the recorded scenario failed
+     * @return Path to recorded video or null
+     */
+    public static String stopRecording(WebDriver driver, boolean attachToReport, boolean scenarioFailed) {
+        String videoPath = SessionVideoRecorder.stop(driver, scenarioFailed);
+        if (attachToReport && videoPath != null) {
+            AllureManager.attachVideo(videoPath, "Test_Recording_" + System.currentTimeMillis());
+        }
+        return videoPath;
+    }
+
+    /**
+     * Stop recording a session without waiting for the video to be encoded
+     * (video.encoding.async); the report attachment is completed once it is
+     * 
+     * @param driver         Session used by the test
+     * @param attachToReport Whether to attach to report
+     * @param scenarioFailed Whether the recorded scenario failed
+     * @return Path to recorded video once encoded, or null
+     */
+    public static CompletableFuture<String> stopRecordingAsync(WebDriver driver, boolean attachToReport,
+            boolean scenarioFailed) {
+        if (!VideoEncodingQueue.isEnabled()) {
+            return CompletableFuture.completedFuture(stopRecording(driver, attachToReport, scenarioFailed));
+        }
+        CompletableFuture<String> videoPath = SessionVideoRecorder.stopAsync(driver, scenarioFailed);
+        if (attachToReport) {
+            AllureManager.attachVideoWhenEncoded(videoPath, "Test_Recording_" + System.currentTimeMillis());
+        }
+        return videoPath;
+    }
+
+    /**
+     * Check if only failed scenarios keep their video (video.recording.mode=onFailure)
+     * 
+     * @return true if passing scenarios are not encoded
+     */
+    public static boolean isFailureOnlyRecording() {
+        return "onFailure".equalsIgnoreCase(ConfigSnapshot.get().getString("video.recording.mode", "always"));
+    }
+
+    /**
+     * Get the seconds of video kept for a failed scenario in failure-only mode
+     * 
+     * @return Seconds before the end of the scenario
+     */
+    public static int getFailureRecordingSeconds() {
+        return ConfigSnapshot.get().getInt("video.recording.failureSeconds", 10);
+    }
+
     /**
      * Get video statistics
      * 
@@ -208,6 +335,12 @@ public class VideoManager {
         summary.append("🎥 Video Recording Configuration:\n");
         summary.append("  - Enabled: ").append(isRecordingEnabled()).append("\n");
         summary.append("  - Folder: ").append(getVideoFolder()).append("\n");
+        summary.append("  - Source: ").append(isSessionRecording() ? "browser session" : "screen").append("\n");
+        summary.append("  - Mode: ").append(isFailureOnlyRecording()
+                ? "failed scenarios only, last " + getFailureRecordingSeconds() + " s"
+                : "always").append("\n");
+        summary.append("  - Encoding: ").append(VideoEncodingQueue.isEnabled() ? "background" : "in teardown")
+                .append("\n");
 
         try {
             String format = ConfigReader.getProperty("video.recording.format");
@@ -1,5 +1,7 @@
 package utils;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Video Recording facade class
  * Provides a simple interface for video recording operations
@@ -16,6 +18,17 @@ public class VideoRecorder {
         VideoRecorderMP4.startRecording(testName);
     }
 
+    /**
+     * Start a recording that keeps only the last seconds of frames, encoded only
+     * if the scenario fails
+     * 
+     * @param testName Name of the test being recorded
+     * @param seconds  Seconds of frames to keep
+     */
+    public static void startFailureOnlyRecording(String testName, int seconds) {
+        VideoRecorderMP4.startFailureOnlyRecording(testName, seconds);
+    }
+
     /**
      * Stop video recording and generate MP4 file
      * 
@@ -25,6 +38,26 @@ public class VideoRecorder {
         return VideoRecorderMP4.stopRecording();
     }
 
+    /**
+     * Stop video recording; a failure-only recording is dropped if the scenario passed
+     * 
+     * @param scenarioFailed Whether the recorded scenario failed
+     * @return Path to the recorded video file, or null if no video was kept
+     */
+    public static String stopRecording(boolean scenarioFailed) {
+        return VideoRecorderMP4.stopRecording(scenarioFailed);
+    }
+
+    /**
+     * Stop video recording without waiting for the MP4 to be encoded
+     * 
+     * @param scenarioFailed Whether the recorded scenario failed
+     * @return Path to the recorded video file once encoded, or null if no video was kept
+     */
+    public static CompletableFuture<String> stopRecordingAsync(boolean scenarioFailed) {
+        return VideoRecorderMP4.stopRecordingAsync(scenarioFailed);
+    }
+
     /**
      * Check if FFmpeg is available for video generation
      * 
@@ -52,13 +85,22 @@ public class VideoRecorder {
         VideoRecorderMP4.setFrameRate(fps);
     }
 
+    /**
+     * Get frame rate for video recording
+     * 
+     * @return Frames per second
+     */
+    public static int getFrameRate() {
+        return VideoRecorderMP4.getFrameRate();
+    }
+
     /**
      * Check if recording is currently active
      * 
      * @return true if recording is active
      */
     public static boolean isRecording() {
-        return VideoRecorderWebM.isRecording();
+        return VideoRecorderMP4.isRecording();
     }
 
     /**
@@ -67,7 +109,7 @@ public class VideoRecorder {
      * @return Current video name
      */
     public static String getCurrentVideoName() {
-        return VideoRecorderWebM.getCurrentVideoName();
+        return VideoRecorderMP4.getCurrentVideoName();
     }
 
     /**
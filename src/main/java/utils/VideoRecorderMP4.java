@@ -4,8 +4,12 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -19,10 +23,24 @@ import org.slf4j.LoggerFactory;
  * MP4 Video Recording utility class that creates actual MP4 video files
  * Uses Java AWT Robot for screen capture and FFmpeg for MP4 video generation
  * Automatically detects FFmpeg and creates MP4 videos
+ *
+ * With FFmpeg available, frames are streamed to FFmpeg while they are captured
+ * (video.recording.streaming=true, the default), so the MP4 is ready as soon as
+ * the recording stops. Otherwise frames are kept in memory and written as PNGs
+ * when it stops.
+ *
+ * A failure-only recording keeps just the last seconds of frames in a FrameRingBuffer
+ * and encodes them only if the scenario failed; for a passing scenario the frames are
+ * dropped without any encoding or disk I/O.
+ *
+ * stopRecordingAsync() leaves creating the video to VideoEncodingQueue, so the
+ * scenario's teardown only waits for the capture to stop.
  */
 public class VideoRecorderMP4 {
 
     private static final Logger logger = LoggerFactory.getLogger(VideoRecorderMP4.class);
+    // Name in ResourceRegistry; browsers and reports are closed after it
+    public static final String RESOURCE_NAME = "video-recorder";
 
     private static boolean isRecording = false;
     private static String videoFolderPath = "test-output/videos/";
@@ -30,12 +48,20 @@ public class VideoRecorderMP4 {
     private static ScheduledExecutorService scheduler;
     private static Robot robot;
     private static List<BufferedImage> capturedFrames;
+    private static FfmpegPipeEncoder encoder;
+    // Reused by every failure-only recording of the same size
+    private static FrameRingBuffer ringBuffer;
+    private static boolean failureOnly;
+    // Repeated frames are kept as references to the previous frame
+    private static final FrameChangeDetector frameChanges = new FrameChangeDetector();
+    private static RecordingStats stats = new RecordingStats();
     private static Rectangle screenRect;
     private static int frameCount = 0;
     private static long recordingStartTime;
     private static int frameRate = 10; // 10 FPS for smoother playback
     private static boolean ffmpegAvailable = false;
     private static String ffmpegPath = "ffmpeg"; // Default assumes FFmpeg in PATH
+    private static final long ENCODE_TIMEOUT_SECONDS = 60;
 
     static {
         // Check FFmpeg availability at startup
@@ -75,6 +101,15 @@ public class VideoRecorderMP4 {
         checkFFmpegAvailability();
     }
 
+    /**
+     * Get the FFmpeg executable in use
+     * 
+     * @return Path to FFmpeg executable
+     */
+    public static String getFFmpegPath() {
+        return ffmpegPath;
+    }
+
     /**
      * Check if FFmpeg is available
      * 
@@ -90,6 +125,22 @@ public class VideoRecorderMP4 {
      * @param testName Name of the test being recorded
      */
     public static synchronized void startRecording(String testName) {
+        startRecording(testName, 0);
+    }
+
+    /**
+     * Start a recording that keeps only the last seconds of frames and is encoded
+     * only if the scenario fails, see stopRecording(boolean)
+     * 
+     * @param testName Name of the test being recorded
+     * @param seconds  Seconds of frames to keep
+     */
+    public static synchronized void startFailureOnlyRecording(String testName, int seconds) {
+        startRecording(testName, Math.max(1, seconds));
+    }
+
+    // failureSeconds 0 records the whole scenario
+    private static synchronized void startRecording(String testName, int failureSeconds) {
         try {
             if (isRecording) {
                 logger.warn("⚠️ Recording already in progress. Stopping previous recording...");
@@ -116,9 +167,29 @@ public class VideoRecorderMP4 {
             Dimension screenSize = Toolkit.getDefaultToolkit().getScreenSize();
             screenRect = new Rectangle(screenSize);
 
-            // Initialize frame list for in-memory storage
-            capturedFrames = new ArrayList<>();
+            // Stream frames to FFmpeg, or keep them in memory until the recording stops
+            encoder = null;
+            capturedFrames = null;
+            failureOnly = failureSeconds > 0 && ffmpegAvailable;
+            if (failureSeconds > 0 && !ffmpegAvailable) {
+                logger.warn("⚠️ Failure-only recording needs FFmpeg, recording the whole scenario instead");
+            }
+            if (failureOnly) {
+                int capacity = failureSeconds * frameRate;
+                if (ringBuffer == null || !ringBuffer.fits(capacity, screenRect.width, screenRect.height)) {
+                    ringBuffer = new FrameRingBuffer(capacity, screenRect.width, screenRect.height);
+                }
+                ringBuffer.clear();
+            } else if (ffmpegAvailable && isStreamingEnabled()) {
+                encoder = FfmpegPipeEncoder.start(ffmpegPath,
+                        new File(videoFolderPath + currentVideoName + ".mp4"), screenRect.width, screenRect.height,
+                        frameRate);
+            } else {
+                capturedFrames = new ArrayList<>();
+            }
             frameCount = 0;
+            frameChanges.reset();
+            stats = new RecordingStats();
             recordingStartTime = System.currentTimeMillis();
 
             // Calculate capture interval based on frame rate
@@ -135,7 +206,14 @@ public class VideoRecorderMP4 {
             }, 0, captureIntervalMs, TimeUnit.MILLISECONDS);
 
             isRecording = true;
-            logger.info("🎥 MP4 video recording started: {}", currentVideoName);
+            // A recording still running at suite end is finished before the browsers quit
+            ResourceRegistry.getInstance().register(RESOURCE_NAME, () -> {
+                if (isRecording()) {
+                    stopRecording();
+                }
+            });
+            logger.info("🎥 MP4 video recording started: {}{}", currentVideoName,
+                    failureOnly ? " (last " + failureSeconds + " s kept for failures)" : "");
             logger.info("📊 Frame rate: {} FPS", frameRate);
             logger.info("📺 Screen resolution: {}x{}", screenRect.width, screenRect.height);
 
@@ -148,18 +226,42 @@ public class VideoRecorderMP4 {
      * Capture a single frame from the screen
      */
     private static void captureFrame() {
-        if (robot != null && screenRect != null) {
-            BufferedImage screenshot = robot.createScreenCapture(screenRect);
-            synchronized (capturedFrames) {
-                capturedFrames.add(screenshot);
+        FfmpegPipeEncoder streamTo = encoder;
+        List<BufferedImage> frames = capturedFrames;
+        FrameRingBuffer ring = failureOnly ? ringBuffer : null;
+        if (robot == null || screenRect == null || (streamTo == null && frames == null && ring == null)) {
+            return;
+        }
+        BufferedImage screenshot = robot.createScreenCapture(screenRect);
+        // Robot allocates a new image for every capture
+        long captureBytes = (long) screenshot.getWidth() * screenshot.getHeight() * Integer.BYTES;
+        if (ring != null) {
+            stats.frameCaptured(ring.add(screenshot), captureBytes);
+            frameCount++;
+        } else if (streamTo != null) {
+            try {
+                stats.frameCaptured(streamTo.writeFrame(screenshot), captureBytes);
+            } catch (IOException e) {
+                logger.error("❌ FFmpeg stopped accepting frames, recording of {} lost: {}", currentVideoName,
+                        e.getMessage());
+                encoder = null;
+                streamTo.abort();
+                return;
+            }
+            frameCount++;
+        } else {
+            synchronized (frames) {
+                boolean duplicate = frameChanges.isDuplicate(screenshot) && !frames.isEmpty();
+                frames.add(duplicate ? frames.get(frames.size() - 1) : screenshot);
+                stats.frameCaptured(duplicate, captureBytes);
                 frameCount++;
-
-                // Log progress every 50 frames
-                if (frameCount % 50 == 0) {
-                    logger.debug("📹 Captured {} frames...", frameCount);
-                }
             }
         }
+
+        // Log progress every 50 frames
+        if (frameCount % 50 == 0) {
+            logger.debug("📹 Captured {} frames...", frameCount);
+        }
     }
 
     /**
@@ -168,85 +270,239 @@ public class VideoRecorderMP4 {
      * @return Path to the recorded video file
      */
     public static synchronized String stopRecording() {
+        return stopRecording(true);
+    }
+
+    /**
+     * Stop video recording; a failure-only recording is encoded only if the scenario failed
+     * 
+     * @param scenarioFailed Whether the recorded scenario failed
+     * @return Path to the recorded video file, or null if no video was kept
+     */
+    public static synchronized String stopRecording(boolean scenarioFailed) {
         try {
-            if (!isRecording) {
-                logger.warn("⚠️ No recording in progress");
-                return null;
-            }
+            Callable<String> encoding = stopCapture(scenarioFailed);
+            return encoding != null ? encoding.call() : null;
+        } catch (Exception e) {
+            logger.error("❌ Failed to stop recording: {}", e.getMessage(), e);
+            return null;
+        }
+    }
 
-            isRecording = false;
+    /**
+     * Stop video recording without waiting for the video; capture stops before this
+     * returns and the video is created by VideoEncodingQueue, so the next recording
+     * can start at once
+     * 
+     * @param scenarioFailed Whether the recorded scenario failed
+     * @return Path to the recorded video file once created, or null if no video was kept
+     */
+    public static synchronized CompletableFuture<String> stopRecordingAsync(boolean scenarioFailed) {
+        String videoName = currentVideoName;
+        Callable<String> encoding;
+        try {
+            encoding = stopCapture(scenarioFailed);
+        } catch (Exception e) {
+            logger.error("❌ Failed to stop recording: {}", e.getMessage(), e);
+            encoding = null;
+        }
+        if (encoding == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return VideoEncodingQueue.getInstance().submit(videoName, encoding);
+    }
 
-            // Stop the scheduler
-            if (scheduler != null && !scheduler.isShutdown()) {
-                scheduler.shutdown();
-                try {
-                    if (!scheduler.awaitTermination(2, TimeUnit.SECONDS)) {
-                        scheduler.shutdownNow();
-                    }
-                } catch (InterruptedException e) {
+    /**
+     * Stop capturing frames and hand them to the job creating the video, so the
+     * recorder's state is free for the next recording
+     *
+     * @return Job creating the video and returning its path, or null if no video is kept
+     */
+    private static synchronized Callable<String> stopCapture(boolean scenarioFailed) {
+        if (!isRecording) {
+            logger.warn("⚠️ No recording in progress");
+            return null;
+        }
+
+        isRecording = false;
+
+        // Stop the scheduler
+        if (scheduler != null && !scheduler.isShutdown()) {
+            scheduler.shutdown();
+            try {
+                if (!scheduler.awaitTermination(2, TimeUnit.SECONDS)) {
                     scheduler.shutdownNow();
-                    Thread.currentThread().interrupt();
                 }
+            } catch (InterruptedException e) {
+                scheduler.shutdownNow();
+                Thread.currentThread().interrupt();
             }
+        }
 
-            long recordingDuration = System.currentTimeMillis() - recordingStartTime;
-
-            logger.info("✅ Recording stopped");
-            logger.info("📊 Captured {} frames in {:.2f} seconds", frameCount, recordingDuration / 1000.0);
+        long recordingDuration = System.currentTimeMillis() - recordingStartTime;
+
+        logger.info("✅ Recording stopped");
+        logger.info("📊 Captured {} frames in {:.2f} seconds", frameCount, recordingDuration / 1000.0);
+        stats.setRetainedBytes(getRetainedBytes());
+        logger.info("📊 Recording stats: {}", stats);
+
+        String folder = videoFolderPath;
+        String videoName = currentVideoName;
+        FfmpegPipeEncoder streamedTo = encoder;
+        List<BufferedImage> frames = capturedFrames;
+        encoder = null;
+        capturedFrames = null;
+
+        if (failureOnly) {
+            failureOnly = false;
+            if (!scenarioFailed) {
+                dropBufferedFrames(videoName);
+                ringBuffer.clear();
+                return null;
+            }
+            // The next recording takes another ring buffer until this one is encoded
+            FrameRingBuffer ring = ringBuffer;
+            Rectangle rect = screenRect;
+            ringBuffer = null;
+            return () -> encodeBufferedFrames(ring, rect, folder, videoName);
+        } else if (streamedTo != null) {
+            return () -> finishStreamedVideo(streamedTo, folder, videoName);
+        } else if (frames != null && !frames.isEmpty()) {
+            return () -> createMP4Video(frames, folder, videoName, recordingDuration);
+        } else {
+            logger.warn("⚠️ No frames captured, cannot create video");
+            return null;
+        }
+    }
 
-            // Create the actual video file
-            if (capturedFrames != null && !capturedFrames.isEmpty()) {
-                return createMP4Video();
-            } else {
+    /**
+     * Encode the frames kept by a failure-only recording
+     *
+     * @return Path to the created video file
+     */
+    private static String encodeBufferedFrames(FrameRingBuffer ring, Rectangle rect, String folder,
+            String videoName) {
+        FfmpegPipeEncoder bufferedTo = null;
+        try {
+            if (ring.size() == 0) {
                 logger.warn("⚠️ No frames captured, cannot create video");
                 return null;
             }
-
-        } catch (Exception e) {
-            logger.error("❌ Failed to stop recording: {}", e.getMessage(), e);
+            logger.info("🎬 Scenario failed, encoding its last {} frames", ring.size());
+            bufferedTo = FfmpegPipeEncoder.start(ffmpegPath, new File(folder + videoName + ".mp4"),
+                    rect.width, rect.height, frameRate);
+            ring.writeTo(bufferedTo);
+            return finishStreamedVideo(bufferedTo, folder, videoName);
+        } catch (IOException e) {
+            logger.error("❌ Failed to encode buffered frames of {}: {}", videoName, e.getMessage(), e);
+            if (bufferedTo != null) {
+                bufferedTo.abort();
+            }
             return null;
         } finally {
-            // Clear frames from memory
-            if (capturedFrames != null) {
-                capturedFrames.clear();
+            ring.clear();
+            synchronized (VideoRecorderMP4.class) {
+                if (ringBuffer == null) {
+                    ringBuffer = ring;
+                }
             }
         }
     }
 
+    private static void dropBufferedFrames(String videoName) {
+        logger.debug("Scenario passed, dropped {} buffered frames of {}", ringBuffer.size(), videoName);
+    }
+
+    /**
+     * Wait for FFmpeg to encode the frames already streamed to it
+     *
+     * @return Path to the created video file
+     */
+    private static String finishStreamedVideo(FfmpegPipeEncoder streamedTo, String folder, String videoName) {
+        String videoPath = folder + videoName + ".mp4";
+        if (streamedTo.getFrameCount() == 0) {
+            logger.warn("⚠️ No frames captured, cannot create video");
+            streamedTo.abort();
+            return null;
+        }
+        long start = System.currentTimeMillis();
+        if (!streamedTo.finish(ENCODE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            return null;
+        }
+        File videoFile = new File(videoPath);
+        logger.info("✅ MP4 video created successfully!");
+        logger.info("📁 Video path: {}", videoPath);
+        logger.info("📊 File size: {} MB, finished {} ms after recording stopped",
+                String.format("%.2f", videoFile.length() / (1024.0 * 1024.0)), System.currentTimeMillis() - start);
+        return videoPath;
+    }
+
+    // Frame bytes held by the recording when it stops
+    private static long getRetainedBytes() {
+        if (failureOnly) {
+            return ringBuffer.getRetainedBytes();
+        }
+        if (encoder != null) {
+            return encoder.getRetainedBytes();
+        }
+        long uniqueFrames = capturedFrames == null ? 0 : stats.getCapturedFrames() - stats.getDuplicateFrames();
+        return uniqueFrames * screenRect.width * screenRect.height * Integer.BYTES;
+    }
+
+    /**
+     * Get the frame and memory figures of the current or last recording
+     * 
+     * @return Recording statistics
+     */
+    public static RecordingStats getRecordingStats() {
+        return stats;
+    }
+
+    private static boolean isStreamingEnabled() {
+        return ConfigSnapshot.get().getBoolean("video.recording.streaming", true);
+    }
+
     /**
      * Create MP4 video file from captured frames using FFmpeg
      * 
      * @return Path to the created video file
      */
-    private static String createMP4Video() {
-        String videoPath = videoFolderPath + currentVideoName + ".mp4";
+    private static String createMP4Video(List<BufferedImage> frames, String folder, String videoName,
+            long recordingDuration) {
+        String videoPath = folder + videoName + ".mp4";
         File frameDir = null;
 
         try {
-            logger.info("🎬 Processing {} captured frames for MP4 video...", capturedFrames.size());
+            logger.info("🎬 Processing {} captured frames for MP4 video...", frames.size());
 
-            if (capturedFrames.isEmpty()) {
+            if (frames.isEmpty()) {
                 logger.warn("⚠️ No frames to process");
                 return null;
             }
 
             // Create temporary frame directory for this recording
-            frameDir = new File(videoFolderPath + "temp_frames_" + currentVideoName);
+            frameDir = new File(folder + "temp_frames_" + videoName);
             if (!frameDir.exists()) {
                 frameDir.mkdirs();
             }
 
             // Save frames as individual PNG files
-            logger.info("💾 Saving {} frames to temporary directory...", capturedFrames.size());
+            logger.info("💾 Saving {} frames to temporary directory...", frames.size());
 
-            for (int i = 0; i < capturedFrames.size(); i++) {
-                BufferedImage frame = capturedFrames.get(i);
+            for (int i = 0; i < frames.size(); i++) {
+                BufferedImage frame = frames.get(i);
                 File frameFile = new File(frameDir, String.format("frame_%06d.png", i));
-                ImageIO.write(frame, "PNG", frameFile);
+                if (i > 0 && frame == frames.get(i - 1)) {
+                    // Repeated frame, copy the PNG instead of encoding it again
+                    Files.copy(new File(frameDir, String.format("frame_%06d.png", i - 1)).toPath(),
+                            frameFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                } else {
+                    ImageIO.write(frame, "PNG", frameFile);
+                }
 
                 // Log progress for large frame counts
                 if ((i + 1) % 100 == 0) {
-                    logger.debug("💾 Saved {}/{} frames", i + 1, capturedFrames.size());
+                    logger.debug("💾 Saved {}/{} frames", i + 1, frames.size());
                 }
             }
 
@@ -297,7 +553,8 @@ public class VideoRecorderMP4 {
             } else {
                 // FFmpeg not available - keep frames and create instruction file
                 logger.warn("⚠️ FFmpeg not available - frames saved for manual conversion");
-                createConversionInstructions(frameDir.getAbsolutePath(), videoPath);
+                createConversionInstructions(frameDir.getAbsolutePath(), videoPath, videoName, frames.size(),
+                        recordingDuration);
                 logger.info("📄 Conversion instructions created: {}", videoPath.replace(".mp4", "_instructions.txt"));
 
                 return frameDir.getAbsolutePath();
@@ -305,6 +562,9 @@ public class VideoRecorderMP4 {
 
         } catch (Exception e) {
             logger.error("❌ Failed to create MP4 video: {}", e.getMessage(), e);
+        } finally {
+            // Clear frames from memory
+            frames.clear();
         }
 
         return null;
@@ -313,7 +573,8 @@ public class VideoRecorderMP4 {
     /**
      * Create instructions file for manual video conversion
      */
-    private static void createConversionInstructions(String framePath, String videoPath) {
+    private static void createConversionInstructions(String framePath, String videoPath, String videoName,
+            int frameCount, long recordingDuration) {
         try {
             String instructionsPath = videoPath.replace(".mp4", "_instructions.txt");
             File instructionsFile = new File(instructionsPath);
@@ -322,12 +583,11 @@ public class VideoRecorderMP4 {
                 writer.write("═════════════════════════════════════════════════════════\n");
                 writer.write("   MP4 VIDEO CONVERSION INSTRUCTIONS\n");
                 writer.write("═════════════════════════════════════════════════════════\n\n");
-                writer.write("Test Name: " + currentVideoName + "\n");
+                writer.write("Test Name: " + videoName + "\n");
                 writer.write("Frames Location: " + framePath + "\n");
-                writer.write("Frame Count: " + capturedFrames.size() + "\n");
+                writer.write("Frame Count: " + frameCount + "\n");
                 writer.write("Frame Rate: " + frameRate + " FPS\n");
-                writer.write("Recording Duration: " + ((System.currentTimeMillis() - recordingStartTime) / 1000.0)
-                        + " seconds\n\n");
+                writer.write("Recording Duration: " + (recordingDuration / 1000.0) + " seconds\n\n");
 
                 writer.write("─────────────────────────────────────────────────────────\n");
                 writer.write("INSTALL FFMPEG:\n");
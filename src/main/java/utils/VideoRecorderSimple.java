@@ -4,6 +4,9 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.concurrent.ScheduledExecutorService;
@@ -30,6 +33,7 @@ public class VideoRecorderSimple {
     private static ScheduledExecutorService scheduler;
     private static Robot robot;
     private static List<String> capturedImages;
+    private static final FrameChangeDetector frameChanges = new FrameChangeDetector();
     private static Rectangle screenRect;
     private static int frameCount = 0;
 
@@ -66,6 +70,7 @@ public class VideoRecorderSimple {
             // Initialize image list
             capturedImages = new ArrayList<>();
             frameCount = 0;
+            frameChanges.reset();
 
             // Create directory for this test's images
             File testVideoDir = new File(videoFolderPath + currentVideoName);
@@ -100,7 +105,13 @@ public class VideoRecorderSimple {
             BufferedImage screenCapture = robot.createScreenCapture(screenRect);
             String imagePath = videoFolderPath + currentVideoName + "/frame_" + String.format("%04d", frameCount)
                     + ".png";
-            ImageIO.write(screenCapture, "PNG", new File(imagePath));
+            if (frameChanges.isDuplicate(screenCapture) && !capturedImages.isEmpty()) {
+                // Repeated frame, copy the previous PNG instead of encoding it again
+                Files.copy(Paths.get(capturedImages.get(capturedImages.size() - 1)), Paths.get(imagePath),
+                        StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                ImageIO.write(screenCapture, "PNG", new File(imagePath));
+            }
             capturedImages.add(imagePath);
             frameCount++;
         } catch (IOException e) {
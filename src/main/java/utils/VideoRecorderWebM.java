@@ -34,6 +34,8 @@ public class VideoRecorderWebM {
     private static int frameCount = 0;
     private static long recordingStartTime;
     private static int frameRate = 2; // Default 2 FPS for lighter recording
+    // Repeated frames are kept as references to the previous frame
+    private static final FrameChangeDetector frameChanges = new FrameChangeDetector();
 
     /**
      * Start video recording with actual screen capture
@@ -73,6 +75,7 @@ public class VideoRecorderWebM {
             // Initialize frame list for in-memory storage
             capturedFrames = new ArrayList<>();
             frameCount = 0;
+            frameChanges.reset();
             recordingStartTime = System.currentTimeMillis();
 
             // Calculate capture interval based on frame rate
@@ -105,7 +108,8 @@ public class VideoRecorderWebM {
         if (robot != null && screenRect != null) {
             BufferedImage screenshot = robot.createScreenCapture(screenRect);
             synchronized (capturedFrames) {
-                capturedFrames.add(screenshot);
+                boolean duplicate = frameChanges.isDuplicate(screenshot) && !capturedFrames.isEmpty();
+                capturedFrames.add(duplicate ? capturedFrames.get(capturedFrames.size() - 1) : screenshot);
                 frameCount++;
             }
         }
@@ -321,7 +325,13 @@ public class VideoRecorderWebM {
             for (int i = 0; i < capturedFrames.size(); i++) {
                 BufferedImage frame = capturedFrames.get(i);
                 File frameFile = new File(frameDir, String.format("frame_%06d.png", i));
-                javax.imageio.ImageIO.write(frame, "PNG", frameFile);
+                if (i > 0 && frame == capturedFrames.get(i - 1)) {
+                    // Repeated frame, copy the PNG instead of encoding it again
+                    java.nio.file.Files.copy(new File(frameDir, String.format("frame_%06d.png", i - 1)).toPath(),
+                            frameFile.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+                } else {
+                    javax.imageio.ImageIO.write(frame, "PNG", frameFile);
+                }
             }
 
             // Create a WebM placeholder file with recording information
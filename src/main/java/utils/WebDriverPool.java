@@ -0,0 +1,374 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * WebDriverPool - Thread-confined pool of browser sessions
+ * Each worker thread checks out its own session and returns it when it is done,
+ * so parallel scenarios never share a browser. The number of live sessions
+ * (checked out + idle) is capped by a configurable maximum size.
+ *
+ * The pool can be pre-warmed: sessions are started in the background and kept
+ * idle, and the pool is refilled to its warm target whenever a thread takes one.
+ */
+public class WebDriverPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebDriverPool.class);
+    private static final long IDLE_POLL_MILLIS = 250;
+
+    private final String name;
+    private final Supplier<WebDriver> sessionFactory;
+    private final int maxSize;
+    private final Duration checkoutTimeout;
+
+    // One permit per live session, so creation blocks once the pool is full
+    private final Semaphore capacity;
+    private final LinkedBlockingDeque<WebDriver> idleSessions = new LinkedBlockingDeque<>();
+    private final Set<WebDriver> liveSessions = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<WebDriver> ownedSession = new ThreadLocal<>();
+    // Number of times each live session has been checked out
+    private final Map<WebDriver, Integer> useCounts = new ConcurrentHashMap<>();
+
+    // Background warm-up state
+    private final AtomicInteger warming = new AtomicInteger();
+    // Threads in checkout() waiting for a warming session instead of starting their own
+    private final AtomicInteger waitingForWarm = new AtomicInteger();
+    private volatile int warmTarget = 0;
+    private volatile boolean closed = false;
+    private ExecutorService warmer;
+
+    /**
+     * Create a new pool
+     *
+     * @param name            Pool name used in log messages
+     * @param sessionFactory  Creates a new browser session when no idle one is available
+     * @param maxSize         Maximum number of live sessions
+     * @param checkoutTimeout Maximum time a thread waits for a free session
+     */
+    public WebDriverPool(String name, Supplier<WebDriver> sessionFactory, int maxSize, Duration checkoutTimeout) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1, got: " + maxSize);
+        }
+        this.name = name;
+        this.sessionFactory = sessionFactory;
+        this.maxSize = maxSize;
+        this.checkoutTimeout = checkoutTimeout;
+        this.capacity = new Semaphore(maxSize, true);
+        logger.info("🏊 Created {} session pool with max size {}", name, maxSize);
+    }
+
+    /**
+     * Check out a session for the calling thread. Returns the session already owned
+     * by the thread if there is one, otherwise an idle session or a newly created one.
+     * Blocks while the pool is full.
+     *
+     * @return Session owned by the calling thread
+     */
+    public WebDriver checkout() {
+        return checkout(false);
+    }
+
+    /**
+     * Check out a session for the calling thread
+     *
+     * @param fresh Only hand out a session no scenario has used yet (a pre-warmed or new
+     *              one); reused idle sessions are quit to make room when the pool is full
+     * @return Session owned by the calling thread
+     * @throws IllegalStateException if the pool has been shut down
+     */
+    public WebDriver checkout(boolean fresh) {
+        checkOpen();
+        WebDriver current = ownedSession.get();
+        if (current != null) {
+            return current;
+        }
+
+        long deadline = System.nanoTime() + checkoutTimeout.toNanos();
+        boolean waiting = false;
+        try {
+            while (true) {
+                checkOpen();
+                WebDriver idle = fresh ? pollUnusedIdle() : idleSessions.pollFirst();
+                if (idle != null) {
+                    return bind(idle, "idle");
+                }
+                // Prefer a session that is already starting over a cold start, as long as
+                // there is one starting for each thread waiting; otherwise start one now
+                int othersWaiting = waitingForWarm.get() - (waiting ? 1 : 0);
+                if (othersWaiting >= warming.get() && capacity.tryAcquire()) {
+                    return bind(createSession(), "new");
+                }
+                if (!waiting) {
+                    waiting = true;
+                    waitingForWarm.incrementAndGet();
+                }
+                if (fresh) {
+                    WebDriver reused = idleSessions.pollLast();
+                    if (reused != null) {
+                        quitSession(reused);
+                        continue;
+                    }
+                }
+
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IllegalStateException(String.format(
+                            "Timed out after %ds waiting for a %s session (max size %d, all in use)",
+                            checkoutTimeout.getSeconds(), name, maxSize));
+                }
+
+                // Wait for a session to be returned; capacity freed by a quit is
+                // picked up on the next loop iteration
+                idle = idleSessions.pollFirst(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(IDLE_POLL_MILLIS)),
+                        TimeUnit.NANOSECONDS);
+                if (idle != null && fresh && useCounts.getOrDefault(idle, 0) > 0) {
+                    quitSession(idle);
+                } else if (idle != null) {
+                    return bind(idle, "idle");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a " + name + " session", e);
+        } finally {
+            if (waiting) {
+                waitingForWarm.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Start sessions in the background until the given number of idle sessions is
+     * ready. The pool keeps refilling to this target as threads check sessions out.
+     *
+     * @param target Number of idle sessions to keep warm (capped at the max size)
+     */
+    public synchronized void prewarm(int target) {
+        if (closed || target < 1) {
+            return;
+        }
+        warmTarget = Math.min(target, maxSize);
+        if (warmer == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            warmer = Executors.newFixedThreadPool(warmTarget, runnable -> {
+                Thread thread = new Thread(runnable, name.toLowerCase() + "-prewarm-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        logger.info("🔥 Pre-warming {} {} session(s) in the background", warmTarget, name);
+        refill();
+    }
+
+    /**
+     * Get the session owned by the calling thread
+     *
+     * @return Owned session or null if the thread has not checked one out
+     */
+    public WebDriver current() {
+        return ownedSession.get();
+    }
+
+    /**
+     * Return the calling thread's session to the pool so another thread can reuse it
+     */
+    public void checkin() {
+        WebDriver driver = ownedSession.get();
+        if (driver == null) {
+            return;
+        }
+        ownedSession.remove();
+        idleSessions.offerFirst(driver);
+        logger.debug("Session returned to {} pool by thread: {}", name, Thread.currentThread().getName());
+    }
+
+    /**
+     * Quit the calling thread's session and free its slot in the pool
+     */
+    public void evict() {
+        WebDriver driver = ownedSession.get();
+        if (driver == null) {
+            return;
+        }
+        ownedSession.remove();
+        quitSession(driver);
+        logger.debug("Session evicted from {} pool by thread: {}", name, Thread.currentThread().getName());
+        refill();
+    }
+
+    /**
+     * Quit every live session, including sessions still checked out by other threads
+     */
+    public void shutdown() {
+        synchronized (this) {
+            closed = true;
+            if (warmer != null) {
+                warmer.shutdownNow();
+            }
+        }
+        List<WebDriver> sessions = new ArrayList<>(liveSessions);
+        idleSessions.clear();
+        // Each quit waits for the browser to exit, so quit them side by side
+        CompletableFuture.allOf(sessions.stream()
+                .map(driver -> CompletableFuture.runAsync(() -> quitSession(driver), runnable -> {
+                    Thread thread = new Thread(runnable, name.toLowerCase() + "-quit");
+                    thread.setDaemon(true);
+                    thread.start();
+                }))
+                .toArray(CompletableFuture[]::new)).join();
+        ownedSession.remove();
+        if (!sessions.isEmpty()) {
+            logger.info("🔒 {} session pool shut down, {} session(s) closed", name, sessions.size());
+        }
+    }
+
+    /**
+     * Get how many times the calling thread's session has been checked out,
+     * including the current checkout
+     *
+     * @return Use count or 0 if the thread does not own a session
+     */
+    public int getUseCount() {
+        WebDriver driver = ownedSession.get();
+        return driver != null ? useCounts.getOrDefault(driver, 0) : 0;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getLiveCount() {
+        return liveSessions.size();
+    }
+
+    public int getIdleCount() {
+        return idleSessions.size();
+    }
+
+    public int getCheckedOutCount() {
+        return Math.max(0, liveSessions.size() - idleSessions.size());
+    }
+
+    public int getWarmTarget() {
+        return warmTarget;
+    }
+
+    private WebDriver bind(WebDriver driver, String origin) {
+        ownedSession.set(driver);
+        useCounts.merge(driver, 1, Integer::sum);
+        logger.debug("Checked out {} {} session for thread: {} ({}/{} live)", origin, name,
+                Thread.currentThread().getName(), liveSessions.size(), maxSize);
+        refill();
+        return driver;
+    }
+
+    /**
+     * Refill policy: start background sessions while idle + starting sessions are
+     * below the warm target and the pool still has capacity
+     */
+    private synchronized void refill() {
+        if (closed || warmer == null) {
+            return;
+        }
+        while (idleSessions.size() + warming.get() < warmTarget && capacity.tryAcquire()) {
+            warming.incrementAndGet();
+            warmer.submit(this::warmOne);
+        }
+    }
+
+    private void warmOne() {
+        try {
+            long start = System.currentTimeMillis();
+            WebDriver driver = sessionFactory.get();
+            synchronized (this) {
+                if (!closed) {
+                    liveSessions.add(driver);
+                    idleSessions.offerLast(driver);
+                    driver = null;
+                }
+            }
+            if (driver != null) {
+                // Pool was shut down while the session was starting
+                driver.quit();
+                capacity.release();
+                return;
+            }
+            logger.debug("Warm {} session ready in {} ms ({} idle)", name, System.currentTimeMillis() - start,
+                    idleSessions.size());
+        } catch (Exception e) {
+            capacity.release();
+            logger.warn("⚠️ Failed to pre-warm {} session: {}", name, e.getMessage());
+        } finally {
+            warming.decrementAndGet();
+        }
+    }
+
+    private WebDriver pollUnusedIdle() {
+        for (WebDriver driver : idleSessions) {
+            if (useCounts.getOrDefault(driver, 0) == 0 && idleSessions.remove(driver)) {
+                return driver;
+            }
+        }
+        return null;
+    }
+
+    private WebDriver createSession() {
+        WebDriver driver;
+        try {
+            driver = sessionFactory.get();
+        } catch (RuntimeException e) {
+            capacity.release();
+            throw e;
+        }
+        synchronized (this) {
+            if (!closed) {
+                liveSessions.add(driver);
+                return driver;
+            }
+        }
+        // Pool was shut down while the session was starting
+        try {
+            driver.quit();
+        } finally {
+            capacity.release();
+        }
+        throw new IllegalStateException(name + " session pool is shut down");
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException(name + " session pool is shut down");
+        }
+    }
+
+    private void quitSession(WebDriver driver) {
+        if (!liveSessions.remove(driver)) {
+            return;
+        }
+        useCounts.remove(driver);
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            logger.warn("⚠️ Failed to quit {} session cleanly: {}", name, e.getMessage());
+        } finally {
+            capacity.release();
+        }
+    }
+}
@@ -9,15 +9,25 @@ import org.openqa.selenium.WebDriver;
 import io.appium.java_client.AppiumDriver;
 import utils.DriverFactory;
 import utils.ApiClientFactory;
-import utils.ConfigReader;
+import utils.GridDispatcher;
+import utils.HostHealthTracker;
 import utils.AllureManager;
+import utils.SessionVideoRecorder;
 import utils.VideoRecorder;
 import utils.VideoManager;
 import utils.MessageFormatter;
+import utils.ParallelScenarioListener;
+import utils.NetworkBlocker;
+import utils.ProfileMetrics;
+import utils.PlatformSelector;
 import io.qameta.allure.Allure;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
 public class Hooks {
     private static final Logger logger = LoggerFactory.getLogger(Hooks.class);
     WebDriver webDriver;
@@ -30,23 +40,35 @@ public class Hooks {
         RestAssured.useRelaxedHTTPSValidation();
         logger.info(MessageFormatter.getMessage("auth.ssl.relaxed"));
 
-        // Load config
-        ConfigReader.loadProperties("src/test/resources/config/config.properties");
+        // Only what the scenario's @WEB/@API/@MOBILE tags ask for is provisioned up front;
+        // untagged scenarios get their driver or API client from the first step that asks
+        Set<PlatformSelector.PlatformType> platforms = getScenarioPlatforms(scenario);
+        logger.debug(MessageFormatter.getMessage("test.platforms.detected", platforms));
 
-        String platformConfig = ConfigReader.getProperty("platform");
-        String[] platforms = platformConfig.split(",");
-        logger.debug(MessageFormatter.getMessage("test.platforms.detected", String.join(", ", platforms)));
+        // Skip before starting a browser when the feature's host is known to be down
+        if (HostHealthTracker.isEnabled()) {
+            HostHealthTracker.getInstance().startScenario(scenario.getUri().toString());
+        }
 
-        // Start video recording for UI tests
-        boolean hasUITest = false;
-        for (String platform : platforms) {
-            if (platform.trim().toUpperCase().equals("WEB") || platform.trim().toUpperCase().equals("MOBILE")) {
-                hasUITest = true;
-                break;
-            }
+        if (ProfileMetrics.isEnabled()) {
+            ProfileMetrics.startScenario();
         }
 
-        if (hasUITest) {
+        // Start video recording for UI tests
+        boolean hasUITest = platforms.contains(PlatformSelector.PlatformType.WEB)
+                || platforms.contains(PlatformSelector.PlatformType.MOBILE);
+        // Session recordings start once the scenario's driver is up, see below
+        boolean sessionRecording = hasUITest && VideoManager.isSessionRecording();
+
+        // The screen recorder captures the whole desktop, so it cannot tell parallel
+        // scenarios apart; it only runs when scenarios run one at a time
+        boolean concurrentScenarios = ParallelScenarioListener.getScenarioThreads() > 1
+                || DriverFactory.hasThreadBrowser();
+        if (sessionRecording) {
+            VideoManager.initializeVideoDirectory();
+        } else if (hasUITest && concurrentScenarios) {
+            logger.debug("Scenarios run in parallel, screen recording skipped for: {}", scenario.getName());
+        } else if (hasUITest) {
             // Initialize video directory and start MP4 recording for UI-based tests
             VideoManager.initializeVideoDirectory();
             String testName = scenario.getName().replaceAll("[^a-zA-Z0-9\\s]", "");
@@ -57,69 +79,72 @@ public class Hooks {
                 logger.warn("💡 Install FFmpeg to enable automatic MP4 video generation.");
             }
 
-            VideoRecorder.startRecording(testName);
+            VideoManager.startRecording(testName);
             logger.info("🎥 MP4 video recording started for: {}", scenario.getName());
         }
 
-        for (String platform : platforms) {
-            switch (platform.trim().toUpperCase()) {
-                case "WEB":
+        for (PlatformSelector.PlatformType platform : platforms) {
+            switch (platform) {
+                case WEB:
                     webDriver = DriverFactory.initWebDriver();
+                    if (DriverFactory.hasThreadBrowser()) {
+                        AllureManager.tagBrowser(DriverFactory.getActiveBrowser());
+                    }
+                    if (DriverFactory.isGridMode()) {
+                        reportGridTiming(scenario);
+                    }
                     break;
-                case "MOBILE":
+                case MOBILE:
                     mobileDriver = DriverFactory.initMobileDriver();
                     break;
-                case "API":
+                case API:
                     ApiClientFactory.initApiClient();
                     apiClient = ApiClientFactory.getApiClient();
                     break;
-                default:
-                    throw new IllegalArgumentException("Unsupported platform: " + platform);
             }
         }
+
+        // Each scenario records its own browser (or app) session, in parallel and headless too
+        WebDriver recordedDriver = webDriver != null ? webDriver : mobileDriver;
+        if (sessionRecording && recordedDriver != null) {
+            VideoManager.startRecording(recordedDriver, scenario.getName().replaceAll("[^a-zA-Z0-9\\s]", ""));
+        }
     }
 
     @After
     public void tearDown(Scenario scenario) {
-        String platformConfig = ConfigReader.getProperty("platform");
-        String[] platforms = platformConfig.split(",");
-
-        // Check if this is a UI test that needs video recording
-        boolean hasUITest = false;
-        for (String platform : platforms) {
-            if (platform.trim().toUpperCase().equals("WEB") || platform.trim().toUpperCase().equals("MOBILE")) {
-                hasUITest = true;
-                break;
-            }
-        }
+        // Sessions started lazily by steps are picked up here as well
+        webDriver = DriverFactory.currentWebDriver();
+        mobileDriver = DriverFactory.currentMobileDriver();
 
         // Stop video recording and attach to report
-        if (hasUITest && VideoRecorder.isRecording()) {
-            String videoPath = VideoManager.stopRecording(true);
+        WebDriver recordedDriver = webDriver != null ? webDriver : mobileDriver;
+        // Only capture stops here; the video is encoded and attached in the background
+        CompletableFuture<String> video = null;
+        if (SessionVideoRecorder.isRecording(recordedDriver)) {
+            video = VideoManager.stopRecordingAsync(recordedDriver, true, scenario.isFailed());
+            logger.info("🎥 Session recording stopped for: {}", scenario.getName());
+        } else if (VideoRecorder.isRecording()) {
+            // In failure-only mode a passed scenario's frames are dropped, not encoded
+            video = VideoManager.stopRecordingAsync(true, scenario.isFailed());
             logger.info("🎥 Video recording stopped for: {}", scenario.getName());
-
-            if (videoPath != null) {
-                logger.info("📹 Video saved at: {}", videoPath);
-            }
+        }
+        if (video != null) {
+            video.thenAccept(videoPath -> {
+                if (videoPath != null) {
+                    logger.info("📹 Video saved at: {}", videoPath);
+                }
+            });
         }
 
         // Capture screenshot for failed scenarios
         if (scenario.isFailed()) {
             logger.warn(MessageFormatter.getMessage("test.scenario.failed", scenario.getName()));
-            for (String platform : platforms) {
-                switch (platform.trim().toUpperCase()) {
-                    case "WEB":
-                        if (webDriver != null) {
-                            AllureManager.attachScreenshot(webDriver, "Failed Test Screenshot - " + scenario.getName());
-                        }
-                        break;
-                    case "MOBILE":
-                        if (mobileDriver != null) {
-                            AllureManager.attachScreenshot(mobileDriver,
-                                    "Failed Test Screenshot - " + scenario.getName());
-                        }
-                        break;
-                }
+            if (webDriver != null) {
+                AllureManager.attachScreenshot(webDriver, "Failed Test Screenshot - " + scenario.getName());
+            }
+            if (mobileDriver != null) {
+                AllureManager.attachScreenshot(mobileDriver, "Failed Test Screenshot - " + scenario.getName());
             }
 
             // Add failure information to Allure
@@ -130,16 +155,53 @@ public class Hooks {
             logger.debug(MessageFormatter.getMessage("test.scenario.passed", scenario.getName()));
         }
 
-        for (String platform : platforms) {
-            switch (platform.trim().toUpperCase()) {
-                case "WEB":
-                case "MOBILE":
-                    DriverFactory.quitDriver();
-                    break;
-                case "API":
-                    ApiClientFactory.resetApiClient();
-                    break;
+        if (webDriver != null && NetworkBlocker.isEnabled()) {
+            NetworkBlocker.BlockingStats blocking = NetworkBlocker.finishScenario(webDriver);
+            if (blocking != null) {
+                logger.info("🚫 {}: {}", scenario.getName(), blocking);
+                AllureManager.attachText("Blocked Requests", blocking.toString());
+            }
+        }
+
+        if (webDriver != null && ProfileMetrics.isEnabled()) {
+            ProfileMetrics.recordScenario(scenario.getName(), scenario.getStatus().toString(), webDriver);
+        }
+
+        if (HostHealthTracker.isEnabled()) {
+            HostHealthTracker.getInstance().finishScenario(scenario.isFailed());
+        }
+
+        if (webDriver != null || mobileDriver != null) {
+            DriverFactory.releaseDriver(scenario.isFailed());
+        }
+        ApiClientFactory.resetApiClient();
+    }
+
+    // Platforms named by the scenario's tags, including tags inherited from the feature
+    private Set<PlatformSelector.PlatformType> getScenarioPlatforms(Scenario scenario) {
+        Set<PlatformSelector.PlatformType> platforms = EnumSet.noneOf(PlatformSelector.PlatformType.class);
+        for (String tag : scenario.getSourceTagNames()) {
+            for (PlatformSelector.PlatformType platform : PlatformSelector.PlatformType.values()) {
+                if (tag.equalsIgnoreCase("@" + platform.name())) {
+                    platforms.add(platform);
+                }
             }
         }
+        return platforms;
+    }
+
+    private void reportGridTiming(Scenario scenario) {
+        GridDispatcher.SessionTiming timing = GridDispatcher.takeLastTiming();
+        String report;
+        if (timing != null) {
+            report = timing.toString();
+        } else if (DriverFactory.getWebSessionUseCount() <= 1) {
+            // Created by a pre-warm thread, which keeps the timing to itself
+            report = "pre-warmed session started in the background, queue wait and create time not measured";
+        } else {
+            report = "reused pooled session, no queue wait or session create";
+        }
+        logger.info("🌐 Grid session for {}: {}", scenario.getName(), report);
+        AllureManager.attachText("Grid Session Timing", report);
     }
 }
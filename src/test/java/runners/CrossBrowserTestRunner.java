@@ -0,0 +1,151 @@
+package runners;
+
+import io.cucumber.testng.CucumberOptions;
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import io.cucumber.testng.TestNGCucumberRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Parameters;
+import org.testng.annotations.Test;
+import utils.ConfigSnapshot;
+import utils.DriverFactory;
+import utils.PlatformSelector;
+import utils.ResourceRegistry;
+
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cross-browser fan-out runner
+ * Runs every @WEB scenario concurrently on each browser listed in crossbrowser.browsers
+ * that is available (Edge is skipped when it is not installed). Each browser has its
+ * own fixed worker pool, so a slow browser cannot starve the others, and every
+ * scenario result is tagged with the browser it ran on.
+ */
+@CucumberOptions(features = {
+                "src/test/resources/features/web"
+}, glue = {
+                "hooks",
+                "stepdefinitions.web"
+}, tags = "@WEB",
+                plugin = {
+                                "pretty",
+                                "json:target/cucumber-reports/cucumber-crossbrowser.json",
+                                "io.qameta.allure.cucumber7jvm.AllureCucumber7Jvm"
+                }, monochrome = true)
+public class CrossBrowserTestRunner {
+        private static final Logger logger = LoggerFactory.getLogger(CrossBrowserTestRunner.class);
+
+        private TestNGCucumberRunner cucumberRunner;
+
+        @Parameters({ "configFile" })
+        @BeforeClass(alwaysRun = true)
+        public void setUp(String configFile) {
+                logger.info("Initializing cross-browser run using config: {}", configFile);
+                PlatformSelector.initializePlatform(configFile);
+                cucumberRunner = new TestNGCucumberRunner(this.getClass());
+        }
+
+        @Test(description = "Run every @WEB scenario on each available browser")
+        public void runScenariosAcrossBrowsers() throws InterruptedException {
+                List<String> browsers = getAvailableBrowsers();
+                Assert.assertFalse(browsers.isEmpty(), "No browser from crossbrowser.browsers is available");
+
+                ConfigSnapshot config = ConfigSnapshot.get();
+                int threadsPerBrowser = config.getInt("crossbrowser.threadsPerBrowser", 2);
+                Object[][] scenarios = cucumberRunner.provideScenarios();
+                logger.info("🌍 Running {} scenario(s) on {} with {} worker(s) per browser", scenarios.length, browsers,
+                                threadsPerBrowser);
+
+                Map<String, ExecutorService> workers = new LinkedHashMap<>();
+                Map<String, AtomicInteger[]> results = new LinkedHashMap<>();
+                ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+                for (String browser : browsers) {
+                        // passed, failed, skipped
+                        AtomicInteger[] counts = { new AtomicInteger(), new AtomicInteger(), new AtomicInteger() };
+                        results.put(browser, counts);
+                        ExecutorService pool = createBrowserWorkers(browser, threadsPerBrowser);
+                        workers.put(browser, pool);
+                        for (Object[] scenario : scenarios) {
+                                Pickle pickle = ((PickleWrapper) scenario[0]).getPickle();
+                                pool.submit(() -> runScenario(browser, pickle, counts, failures));
+                        }
+                        pool.shutdown();
+                }
+
+                long deadline = System.currentTimeMillis()
+                                + config.getDuration("crossbrowser.timeoutMinutes", ChronoUnit.MINUTES, 120).toMillis();
+                for (Map.Entry<String, ExecutorService> entry : workers.entrySet()) {
+                        long remaining = Math.max(0, deadline - System.currentTimeMillis());
+                        if (!entry.getValue().awaitTermination(remaining, TimeUnit.MILLISECONDS)) {
+                                entry.getValue().shutdownNow();
+                                failures.add(entry.getKey() + ": timed out before all scenarios finished");
+                        }
+                }
+
+                results.forEach((browser, counts) -> logger.info("🌍 {}: {} passed, {} failed, {} skipped", browser,
+                                counts[0].get(), counts[1].get(), counts[2].get()));
+                if (!failures.isEmpty()) {
+                        Assert.fail("Cross-browser failures:\n" + String.join("\n", failures));
+                }
+        }
+
+        @AfterClass(alwaysRun = true)
+        public void tearDown() {
+                if (cucumberRunner != null) {
+                        cucumberRunner.finish();
+                }
+                logger.info("Closing all pooled browser sessions...");
+                ResourceRegistry.getInstance().closeAll();
+        }
+
+        private List<String> getAvailableBrowsers() {
+                List<String> configured = ConfigSnapshot.get().getList("crossbrowser.browsers");
+                List<String> browsers = new ArrayList<>();
+                for (String browser : configured.isEmpty() ? Arrays.asList("chrome", "firefox", "edge") : configured) {
+                        browser = browser.toLowerCase();
+                        if (DriverFactory.isBrowserAvailable(browser)) {
+                                browsers.add(browser);
+                        } else {
+                                logger.warn("⚠️ {} is not available, skipping it in the cross-browser run", browser);
+                        }
+                }
+                return browsers;
+        }
+
+        // Worker threads are bound to one browser for their whole life
+        private ExecutorService createBrowserWorkers(String browser, int threads) {
+                AtomicInteger threadCount = new AtomicInteger();
+                return Executors.newFixedThreadPool(threads, runnable -> new Thread(() -> {
+                        DriverFactory.setThreadBrowser(browser);
+                        runnable.run();
+                }, browser + "-worker-" + threadCount.incrementAndGet()));
+        }
+
+        private void runScenario(String browser, Pickle pickle, AtomicInteger[] counts,
+                        ConcurrentLinkedQueue<String> failures) {
+                try {
+                        cucumberRunner.runScenario(pickle);
+                        counts[0].incrementAndGet();
+                } catch (SkipException e) {
+                        counts[2].incrementAndGet();
+                } catch (Throwable t) {
+                        counts[1].incrementAndGet();
+                        failures.add(browser + ": " + pickle.getName() + " - " + t.getMessage());
+                }
+        }
+}
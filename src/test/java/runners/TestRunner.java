@@ -1,16 +1,36 @@
 package runners;
 
 import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeSuite;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Parameters;
+import org.testng.annotations.Test;
 
 import io.cucumber.testng.AbstractTestNGCucumberTests;
 import io.cucumber.testng.CucumberOptions;
+import io.cucumber.testng.FeatureWrapper;
+import io.cucumber.testng.PickleWrapper;
 import utils.DriverFactory;
+import utils.ImpactIndex;
+import utils.ParallelScenarioListener;
 import utils.PlatformSelector;
+import utils.ProfileMetrics;
+import utils.RerunQueue;
+import utils.ResourceRegistry;
+import utils.ScenarioScheduler;
+import utils.ShardPlanner;
+import utils.StepLatencyPlugin;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 @CucumberOptions(features = {
                 "src/test/resources/features/web",
                 // "src/test/resources/features/mobile",
@@ -23,15 +43,45 @@ import org.slf4j.LoggerFactory;
 }, tags = "@WEB or @API", // Run Web tests only (API tests have UI issues)
                 plugin = {
                                 "pretty", // Console output
-                                "html:target/cucumber-reports/cucumber-html-report.html", // HTML report
-                                "json:target/cucumber-reports/cucumber.json", // JSON report
-                                "junit:target/cucumber-reports/cucumber.xml", // JUnit XML report
-                                "com.aventstack.extentreports.cucumber.adapter.ExtentCucumberAdapter:", // For Extent
-                                                                                                        // Reports
                                 "io.qameta.allure.cucumber7jvm.AllureCucumber7Jvm" // For Allure Reports
+                                // Report file plugins are added by registerReportPlugins()
                 }, monochrome = true)
 public class TestRunner extends AbstractTestNGCucumberTests {
         private static final Logger logger = LoggerFactory.getLogger(TestRunner.class);
+        private static final Path CUCUMBER_JSON = Paths.get("target/cucumber-reports/cucumber.json");
+        private final RerunQueue rerunQueue = RerunQueue.fromConfig();
+
+        // Runs before the Cucumber runner is created, which reads cucumber.plugin.
+        // Plugins given in @CucumberOptions cannot be moved, so the ones writing files are
+        // added here: a shard started by utils.ShardLauncher writes them to its own directory.
+        // Extent reads its output paths from extent.properties and is left out of shards.
+        @BeforeSuite(alwaysRun = true)
+        public void registerReportPlugins() {
+                String shardDir = ShardPlanner.getOutputDir();
+                String reportsDir = shardDir != null ? shardDir : "target/cucumber-reports";
+                List<String> plugins = new ArrayList<>(Arrays.asList(
+                                "html:" + reportsDir + "/cucumber-html-report.html", // HTML report
+                                "json:" + reportsDir + "/cucumber.json", // JSON report
+                                "junit:" + reportsDir + "/cucumber.xml", // JUnit XML report
+                                // Step latency percentiles
+                                "utils.StepLatencyPlugin:" + (shardDir != null ? shardDir : "target") + "/step-latency"));
+                if (shardDir == null) {
+                        plugins.add("com.aventstack.extentreports.cucumber.adapter.ExtentCucumberAdapter:"); // Extent
+                }
+                String extraPlugins = System.getProperty("cucumber.plugin", "");
+                if (!extraPlugins.isEmpty()) {
+                        plugins.add(extraPlugins);
+                }
+                System.setProperty("cucumber.plugin", String.join(",", plugins));
+        }
+
+        // Runs before the Cucumber runner is created, which truncates the previous report
+        @BeforeSuite(alwaysRun = true)
+        public void loadScenarioHistory() {
+                if (ScenarioScheduler.isEnabled() || ShardPlanner.isSharded()) {
+                        ScenarioScheduler.loadHistory(CUCUMBER_JSON);
+                }
+        }
 
         @Parameters({ "configFile" })
         @BeforeClass
@@ -40,9 +90,98 @@ public class TestRunner extends AbstractTestNGCucumberTests {
                 PlatformSelector.initializePlatform(configFile);
         }
 
+        // Scenarios run in parallel; the thread count is the suite's
+        // data-provider-thread-count (see utils.ParallelScenarioListener).
+        // With scheduler.lpt.enabled the longest scenarios are handed out first.
+        // With impact.selection.enabled only the scenarios affected by the changes run (see utils.ImpactIndex).
+        // With -Dshard.total=N only this JVM's share of the scenarios runs (see utils.ShardPlanner)
+        // Browsers are pre-warmed only when the selected scenarios include @WEB ones
+        @Override
+        @DataProvider(parallel = true)
+        public Object[][] scenarios() {
+                Object[][] scenarios = super.scenarios();
+                if (ImpactIndex.isEnabled()) {
+                        scenarios = ScenarioScheduler.selectImpacted(scenarios);
+                }
+                if (ShardPlanner.isSharded()) {
+                        scenarios = ScenarioScheduler.selectShard(scenarios, ShardPlanner.getShardIndex(),
+                                        ShardPlanner.getShardTotal());
+                }
+                if (containsWebScenarios(scenarios)) {
+                        DriverFactory.prewarmWebDrivers();
+                }
+                if (ScenarioScheduler.isEnabled()) {
+                        return ScenarioScheduler.order(scenarios, ParallelScenarioListener.getScenarioThreads());
+                }
+                return scenarios;
+        }
+
+        private static boolean containsWebScenarios(Object[][] scenarios) {
+                for (Object[] scenario : scenarios) {
+                        if (scenario.length > 0 && scenario[0] instanceof PickleWrapper
+                                        && ((PickleWrapper) scenario[0]).getPickle().getTags().stream()
+                                                        .anyMatch(tag -> tag.equalsIgnoreCase("@WEB"))) {
+                                return true;
+                        }
+                }
+                return false;
+        }
+
+        // With rerun.enabled a failed first attempt is reported as skipped and queued (see utils.RerunQueue)
+        @Override
+        @Test(groups = "cucumber", description = "Runs Cucumber Scenarios", dataProvider = "scenarios")
+        public void runScenario(PickleWrapper pickleWrapper, FeatureWrapper featureWrapper) {
+                if (!RerunQueue.isEnabled()) {
+                        super.runScenario(pickleWrapper, featureWrapper);
+                        return;
+                }
+                rerunQueue.runFirstAttempt(new Object[] { pickleWrapper, featureWrapper },
+                                () -> super.runScenario(pickleWrapper, featureWrapper));
+        }
+
+        // Runs after every first attempt has finished
+        @Test(groups = "cucumber", description = "Reruns Cucumber Scenarios that failed their first attempt",
+                        dataProvider = "failedScenarios", dependsOnMethods = "runScenario", alwaysRun = true)
+        public void rerunFailedScenario(PickleWrapper pickleWrapper, FeatureWrapper featureWrapper) {
+                rerunQueue.rerun(new Object[] { pickleWrapper, featureWrapper },
+                                () -> super.runScenario(pickleWrapper, featureWrapper));
+        }
+
+        // Called once every first attempt has finished, which ends the scheduled makespan
+        @DataProvider(parallel = true)
+        public Object[][] failedScenarios() {
+                ScenarioScheduler.markScenariosFinished();
+                return rerunQueue.drain();
+        }
+
         @AfterClass
         public void tearDown() {
+                ScenarioScheduler.reportMakespan();
                 logger.info("Quitting drivers...");
                 DriverFactory.quitDriver();
+                // Failures reported as skipped are failed here when rerunFailedScenario was not selected
+                rerunQueue.failUnconsumed();
+        }
+
+        @AfterSuite(alwaysRun = true)
+        public void closeSuiteResources() {
+                // Browser pools, database pools and recordings registered themselves;
+                // everything is closed in parallel where the order allows
+                ResourceRegistry registry = ResourceRegistry.getInstance();
+                // The Cucumber runners have finished, so the step latencies are complete
+                StepLatencyPlugin.attachReport();
+                if (ProfileMetrics.isEnabled()) {
+                        registry.register("profile-summary", ProfileMetrics::logSummary);
+                }
+                if (RerunQueue.isEnabled()) {
+                        registry.register("rerun-report", () -> RerunQueue.writeReport(RerunQueue.getReportFile()));
+                }
+                // The Cucumber report is complete once the runner has finished.
+                // Sharded runs update the history when their reports are merged
+                if (ScenarioScheduler.isEnabled() && !ShardPlanner.isSharded()) {
+                        registry.register("scenario-history", () -> ScenarioScheduler.updateHistory(CUCUMBER_JSON));
+                }
+                logger.info("Closing all pooled browser sessions and suite resources...");
+                registry.closeAll();
         }
 }
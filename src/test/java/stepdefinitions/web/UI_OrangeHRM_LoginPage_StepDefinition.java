@@ -21,7 +21,9 @@ public class UI_OrangeHRM_LoginPage_StepDefinition {
     @Description("Navigate to the OrangeHRM application homepage")
     public void the_application_is_launched() {
         AllureManager.addStep("Launching OrangeHRM application");
-        driver.get(URLManager.getOrangeHrmBaseUrl());
+        String url = URLManager.getOrangeHrmBaseUrl();
+        URLManager.logNavigation("OrangeHRM Home", url);
+        driver.get(url);
         AllureManager.attachScreenshot(driver, "Application Launched");
     }
 
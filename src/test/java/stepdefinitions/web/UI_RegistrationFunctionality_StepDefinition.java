@@ -5,6 +5,7 @@ import org.testng.Assert;
 import pages.UI_RegistrationTestPage;
 import pages.UI_LoginTestPage;
 import utils.DriverFactory;
+import utils.PageReadiness;
 
 public class UI_RegistrationFunctionality_StepDefinition {
     
@@ -44,13 +45,8 @@ public class UI_RegistrationFunctionality_StepDefinition {
     
     @When("User clicks on Register button")
     public void user_clicks_on_register_button() {
+        // The page object waits for the page to settle after the click
         registrationPage.clickRegisterButton();
-        // Wait a moment for any processing or page transition
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
     }
     
     @When("User leaves email field empty")
@@ -92,12 +88,6 @@ public class UI_RegistrationFunctionality_StepDefinition {
     public void user_clicks_on_link(String linkText) {
         if (linkText.equalsIgnoreCase("Sign in")) {
             registrationPage.clickSignInLink();
-            // Wait for page transition
-            try {
-                Thread.sleep(2000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
         }
     }
     
@@ -214,12 +204,8 @@ public class UI_RegistrationFunctionality_StepDefinition {
     @Then("User should be redirected to login page")
     public void user_should_be_redirected_to_login_page() {
         // Wait for page transition
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
+        PageReadiness.waitForPageSettled(DriverFactory.getWebDriver());
+
         boolean isOnLoginPage = registrationPage.isOnLoginPage();
         String currentUrl = DriverFactory.getWebDriver().getCurrentUrl();
         
@@ -13,6 +13,7 @@ import java.time.Duration;
 import java.util.Map;
 
 import utils.DriverFactory;
+import utils.PageReadiness;
 import utils.ExcelUtils;
 import utils.AllureManager;
 import utils.URLManager;
@@ -40,7 +41,8 @@ public class ExcelDataDrivenTest {
     @AfterMethod
     public void tearDown() {
         if (driver != null) {
-            driver.quit();
+            // Quit through the factory so the pooled session slot is released
+            DriverFactory.quitDriver();
             AllureManager.addStep("Browser closed");
         }
     }
@@ -173,7 +175,9 @@ public class ExcelDataDrivenTest {
 
     @Step("Navigate to login page")
     private void navigateToLoginPage() {
-        driver.get(URLManager.getOrangeHrmLoginUrl());
+        String loginUrl = URLManager.getOrangeHrmLoginUrl();
+        URLManager.logNavigation("OrangeHRM Login", loginUrl);
+        driver.get(loginUrl);
         wait.until(ExpectedConditions.presenceOfElementLocated(By.name("username")));
         AllureManager.addStep("Login page loaded successfully");
     }
@@ -196,7 +200,7 @@ public class ExcelDataDrivenTest {
             AllureManager.addStep("Login attempted with credentials");
 
             // Wait for page to load
-            Thread.sleep(2000);
+            PageReadiness.waitForPageSettled(driver);
 
         } catch (Exception e) {
             AllureManager.addStep("Login failed: " + e.getMessage());
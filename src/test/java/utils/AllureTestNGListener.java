@@ -1,6 +1,7 @@
 package utils;
 
 import io.qameta.allure.Allure;
+import org.openqa.selenium.WebDriver;
 import org.testng.ITestListener;
 import org.testng.ITestResult;
 import java.io.FileInputStream;
@@ -46,8 +47,9 @@ public class AllureTestNGListener implements ITestListener {
 
         // Try to capture screenshot if WebDriver is available
         try {
-            if (DriverFactory.getWebDriver() != null) {
-                AllureManager.attachScreenshot(DriverFactory.getWebDriver(), "Failure Screenshot");
+            WebDriver webDriver = DriverFactory.currentWebDriver();
+            if (webDriver != null) {
+                AllureManager.attachScreenshot(webDriver, "Failure Screenshot");
             }
         } catch (Exception e) {
             // Ignore screenshot errors
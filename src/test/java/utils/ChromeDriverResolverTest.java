@@ -0,0 +1,74 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Unit tests for ChromeDriverResolver version parsing and manifest cache
+ */
+public class ChromeDriverResolverTest {
+
+    private Path workDir;
+
+    @BeforeMethod
+    public void createWorkDir() throws IOException {
+        workDir = Files.createTempDirectory("chromedriver-resolver");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteWorkDir() throws IOException {
+        try (Stream<Path> files = Files.walk(workDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test(description = "Verify Chrome versions are parsed from command and registry output")
+    public void testParseVersion() {
+        Assert.assertEquals(ChromeDriverResolver.parseVersion("Google Chrome 120.0.6099.109 \n"), "120.0.6099.109",
+                "Version should be parsed from --version output");
+        Assert.assertEquals(ChromeDriverResolver.parseVersion(
+                "HKEY_CURRENT_USER\\Software\\Google\\Chrome\\BLBeacon\n    version    REG_SZ    121.0.6167.85"),
+                "121.0.6167.85", "Version should be parsed from registry output");
+        Assert.assertNull(ChromeDriverResolver.parseVersion("command not found"), "No version should be found");
+        Assert.assertEquals(ChromeDriverResolver.toBuildKey("120.0.6099.109"), "120.0.6099",
+                "Build key should drop the patch number");
+    }
+
+    @Test(description = "Verify recorded drivers are found and modified binaries are rejected")
+    public void testManifestLookup() throws IOException {
+        Path manifest = workDir.resolve("cache/manifest.properties");
+        Path driver = workDir.resolve("chromedriver");
+        Files.write(driver, "driver-binary".getBytes(StandardCharsets.UTF_8));
+
+        Assert.assertNull(ChromeDriverResolver.lookup(manifest, "120.0.6099"), "Empty manifest should miss");
+
+        ChromeDriverResolver.record(manifest, "120.0.6099", driver);
+        Assert.assertEquals(ChromeDriverResolver.lookup(manifest, "120.0.6099"), driver.toAbsolutePath().toString(),
+                "Recorded driver should be found");
+        Assert.assertNull(ChromeDriverResolver.lookup(manifest, "121.0.6167"), "Other builds should miss");
+
+        Files.write(driver, "tampered".getBytes(StandardCharsets.UTF_8));
+        Assert.assertNull(ChromeDriverResolver.lookup(manifest, "120.0.6099"),
+                "Driver with a different checksum should be rejected");
+    }
+
+    @Test(description = "Verify a browser that hangs on --version is killed after the timeout")
+    public void testHungVersionCommandTimesOut() {
+        long start = System.nanoTime();
+        Assert.assertNull(ChromeDriverResolver.runCommand(Arrays.asList("sh", "-c", "echo 120.0.1.2; sleep 30"), 1));
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 10, "Timeout should apply");
+        Assert.assertEquals(ChromeDriverResolver.runCommand(Arrays.asList("sh", "-c", "echo Chrome 120.0.1.2"), 5)
+                .trim(), "Chrome 120.0.1.2");
+    }
+}
@@ -0,0 +1,103 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Unit tests for ConfigSnapshot layering and typed accessors
+ */
+public class ConfigSnapshotTest {
+
+    private Path configDir;
+    private Path masterFile;
+
+    @BeforeClass
+    public void writeConfigFiles() throws IOException {
+        configDir = Files.createTempDirectory("config-snapshot");
+        masterFile = configDir.resolve("config.properties");
+        Files.write(masterFile, Arrays.asList(
+                "platform=web",
+                "web.browser=chrome",
+                "web.pool.maxSize=6",
+                "web.grid.pollMillis=500",
+                "web.session.recycle=true",
+                "crossbrowser.browsers=chrome, firefox,,edge",
+                "api.baseUrl=https://master.example"), StandardCharsets.UTF_8);
+        Files.write(configDir.resolve("config_web.properties"), Arrays.asList(
+                "web.pool.maxSize=8",
+                "web.readiness.timeoutSeconds=PT15S"), StandardCharsets.UTF_8);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void deleteConfigFiles() throws IOException {
+        Files.deleteIfExists(configDir.resolve("config_web.properties"));
+        Files.deleteIfExists(masterFile);
+        Files.deleteIfExists(configDir);
+    }
+
+    @Test(description = "Verify platform file, environment variables and system properties override the master file")
+    public void testLayering() {
+        Map<String, String> environment = new HashMap<>();
+        environment.put("WEB_BROWSER", "firefox");
+        environment.put("API_BASEURL", "https://env.example");
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("api.baseUrl", "https://system.example");
+
+        ConfigSnapshot config = ConfigSnapshot.load(masterFile, environment, systemProperties);
+
+        Assert.assertEquals(config.getInt("web.pool.maxSize", 0), 8, "Platform file should override master file");
+        Assert.assertEquals(config.getString("web.browser"), "firefox", "Environment should override files");
+        Assert.assertEquals(config.getString("api.baseUrl"), "https://system.example",
+                "System property should override environment");
+        Assert.assertEquals(config.getString("platform"), "web", "Master value should be kept");
+    }
+
+    @Test(description = "Verify system property platform selects the platform file")
+    public void testPlatformOverrideSelectsPlatformFile() {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("platform", "api");
+
+        ConfigSnapshot config = ConfigSnapshot.load(masterFile, Collections.emptyMap(), systemProperties);
+
+        Assert.assertEquals(config.getInt("web.pool.maxSize", 0), 6, "config_web.properties should not be loaded");
+    }
+
+    @Test(description = "Verify typed accessors, defaults and invalid values")
+    public void testTypedAccessors() {
+        ConfigSnapshot config = ConfigSnapshot.load(masterFile, Collections.emptyMap(), new Properties());
+
+        Assert.assertTrue(config.getBoolean("web.session.recycle", false));
+        Assert.assertTrue(config.getBoolean("missing.flag", true), "Missing boolean should use default");
+        Assert.assertEquals(config.getLong("missing.number", 42L), 42L);
+        Assert.assertEquals(config.getDuration("web.grid.pollMillis", ChronoUnit.MILLIS, 0), Duration.ofMillis(500));
+        Assert.assertEquals(config.getDuration("web.readiness.timeoutSeconds", ChronoUnit.SECONDS, 10),
+                Duration.ofSeconds(15), "ISO-8601 durations should be accepted");
+        Assert.assertEquals(config.getDuration("missing.timeoutSeconds", ChronoUnit.SECONDS, 120),
+                Duration.ofSeconds(120));
+        Assert.assertEquals(config.getList("crossbrowser.browsers"), Arrays.asList("chrome", "firefox", "edge"));
+        Assert.assertTrue(config.getList("missing.list").isEmpty(), "Missing list should be empty");
+        Assert.assertThrows(IllegalArgumentException.class, () -> config.getInt("web.browser", 0));
+        Assert.assertThrows(UnsupportedOperationException.class,
+                () -> config.getList("crossbrowser.browsers").add("safari"));
+    }
+
+    @Test(description = "Verify the JVM snapshot is loaded once")
+    public void testSnapshotIsLoadedOnce() {
+        Assert.assertSame(ConfigSnapshot.get(), ConfigSnapshot.get(), "Snapshot should be shared");
+        Assert.assertEquals(ConfigSnapshot.toEnvironmentName("web.pool.maxSize"), "WEB_POOL_MAXSIZE");
+    }
+}
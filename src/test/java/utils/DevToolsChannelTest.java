@@ -0,0 +1,101 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Unit tests for DevToolsChannel, with a fake connection that records the tabs it is
+ * attached to. FakeChannel is also used by the tests of the features sharing the channel.
+ */
+public class DevToolsChannelTest {
+
+    @Test(description = "Verify the channel moves to a recycled session's new tab once")
+    public void testAttachFollowsCurrentTab() {
+        SessionRecyclerTest.FakeBrowser browser = new SessionRecyclerTest.FakeBrowser(true, "tab-1");
+        List<FakeChannel> opened = new ArrayList<>();
+        Function<WebDriver, DevToolsChannel> opener = useFakeChannels(opened);
+        try {
+            DevToolsChannel channel = DevToolsChannel.of(browser.driver);
+            Assert.assertSame(DevToolsChannel.of(browser.driver), channel, "One channel per session");
+            Assert.assertEquals(channel.attach(), "tab-1");
+            Assert.assertEquals(channel.attach(), "tab-1");
+
+            Assert.assertTrue(SessionRecycler.reset(browser.driver, Collections.singletonList("https://app.example")));
+            Assert.assertEquals(channel.attach(), "tab-2");
+            Assert.assertEquals(channel.getWindowHandle(), "tab-2");
+        } finally {
+            DevToolsChannel.opener = opener;
+        }
+
+        Assert.assertEquals(opened.size(), 1);
+        Assert.assertEquals(opened.get(0).connected, Arrays.asList("tab-1", "tab-2"), "Connected once per tab");
+    }
+
+    /**
+     * Open fake channels for new sessions until the returned opener is restored
+     */
+    static Function<WebDriver, DevToolsChannel> useFakeChannels(List<FakeChannel> opened) {
+        Function<WebDriver, DevToolsChannel> opener = DevToolsChannel.opener;
+        DevToolsChannel.opener = driver -> {
+            FakeChannel channel = new FakeChannel(driver);
+            opened.add(channel);
+            return channel;
+        };
+        return opener;
+    }
+
+    /**
+     * Fake connection: commands are recorded with the tab they went to, and events only
+     * arrive while the connection is attached to the browser's current tab
+     */
+    static class FakeChannel extends DevToolsChannel {
+        final List<String> connected = new CopyOnWriteArrayList<>();
+        final List<String> commands = new CopyOnWriteArrayList<>();
+        private final Map<String, List<Consumer<Map<String, Object>>>> listeners = new HashMap<>();
+        private final WebDriver driver;
+
+        FakeChannel(WebDriver driver) {
+            super(driver, null);
+            this.driver = driver;
+        }
+
+        @Override
+        void connect(String windowHandle, boolean first) {
+            connected.add(windowHandle);
+        }
+
+        @Override
+        public void send(String method, Map<String, Object> params) {
+            commands.add(getWindowHandle() + " " + method);
+        }
+
+        @Override
+        public synchronized void addListener(String event, Consumer<Map<String, Object>> listener) {
+            listeners.computeIfAbsent(event, name -> new ArrayList<>()).add(listener);
+        }
+
+        /**
+         * Deliver an event from the browser's current tab
+         *
+         * @return false if the connection is not attached to that tab and nothing was delivered
+         */
+        synchronized boolean emit(String event, Map<String, Object> params) {
+            if (!driver.getWindowHandle().equals(getWindowHandle())) {
+                return false;
+            }
+            listeners.getOrDefault(event, Collections.emptyList()).forEach(listener -> listener.accept(params));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package utils;
+
+import com.sun.net.httpserver.HttpServer;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for DeviceRegistry against a local stand-in Appium /status endpoint
+ */
+public class DeviceRegistryTest {
+
+    private HttpServer appium;
+    private String appiumUrl;
+    private String deadUrl;
+
+    @BeforeClass
+    public void startStandInAppium() throws IOException {
+        appium = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        appium.createContext("/wd/hub/status", exchange -> {
+            byte[] body = "{\"value\":{\"ready\":true,\"message\":\"stand-in\"}}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        appium.start();
+        appiumUrl = "http://127.0.0.1:" + appium.getAddress().getPort() + "/wd/hub";
+
+        // A port that was open a moment ago and is now closed
+        HttpServer closed = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        deadUrl = "http://127.0.0.1:" + closed.getAddress().getPort() + "/wd/hub";
+        closed.stop(0);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopStandInAppium() {
+        appium.stop(0);
+    }
+
+    @Test(description = "Verify parallel scenarios lease distinct devices and wait when all are busy")
+    public void testParallelLeasesGetDistinctDevices() throws Exception {
+        DeviceRegistry registry = new DeviceRegistry(Arrays.asList(
+                new DeviceRegistry.Device("emulator1", appiumUrl, "emulator-5554", 8200),
+                new DeviceRegistry.Device("emulator2", appiumUrl, "emulator-5556", 8201)),
+                Duration.ofMillis(500), true);
+
+        CountDownLatch bothLeased = new CountDownLatch(2);
+        ExecutorService scenarios = Executors.newFixedThreadPool(2);
+        try {
+            Future<DeviceRegistry.Device> first = scenarios.submit(() -> leaseAndHold(registry, bothLeased));
+            Future<DeviceRegistry.Device> second = scenarios.submit(() -> leaseAndHold(registry, bothLeased));
+            Assert.assertTrue(bothLeased.await(5, TimeUnit.SECONDS), "Both scenarios should get a device");
+
+            Assert.assertThrows(IllegalStateException.class, registry::lease);
+
+            Set<Integer> systemPorts = new HashSet<>();
+            systemPorts.add(first.get(5, TimeUnit.SECONDS).getSystemPort());
+            systemPorts.add(second.get(5, TimeUnit.SECONDS).getSystemPort());
+            Assert.assertEquals(systemPorts.size(), 2, "Scenarios should run on different devices");
+        } finally {
+            scenarios.shutdownNow();
+        }
+    }
+
+    @Test(description = "Verify released devices are leased again")
+    public void testReleaseMakesDeviceAvailable() {
+        DeviceRegistry.Device device = new DeviceRegistry.Device("emulator1", appiumUrl, "emulator-5554", 8200);
+        DeviceRegistry registry = new DeviceRegistry(Arrays.asList(device), Duration.ofMillis(300), true);
+
+        Assert.assertSame(registry.lease(), device, "Only device should be leased");
+        Assert.assertEquals(registry.getFreeCount(), 0, "No device should be free while leased");
+        registry.release(device);
+        registry.release(device);
+        Assert.assertEquals(registry.getFreeCount(), 1, "Releasing twice should not duplicate the device");
+        Assert.assertSame(registry.lease(), device, "Released device should be leased again");
+    }
+
+    @Test(description = "Verify devices whose Appium server is down are skipped")
+    public void testUnreachableDeviceIsSkipped() {
+        DeviceRegistry.Device dead = new DeviceRegistry.Device("offline", deadUrl, "emulator-5558", 8202);
+        DeviceRegistry.Device live = new DeviceRegistry.Device("online", appiumUrl, "emulator-5554", 8200);
+        DeviceRegistry registry = new DeviceRegistry(Arrays.asList(dead, live), Duration.ofSeconds(5), true);
+
+        Assert.assertFalse(registry.isServerReachable(dead), "Closed port should not be reachable");
+        Assert.assertTrue(registry.isServerReachable(live), "Stand-in Appium should be reachable");
+        Assert.assertSame(registry.lease(), live, "Lease should skip the offline device");
+        Assert.assertEquals(registry.getFreeCount(), 1, "Offline device should stay in the registry");
+    }
+
+    @Test(description = "Verify devices without a configured systemPort get distinct ports")
+    public void testDefaultSystemPortsAreDistinct() throws IOException {
+        Path masterFile = Files.createTempFile("device-registry", ".properties");
+        try {
+            Files.write(masterFile, Arrays.asList(
+                    "mobile.devices=emulator1,emulator2,emulator3",
+                    "mobile.device.emulator2.systemPort=8300"), StandardCharsets.UTF_8);
+            ConfigSnapshot config = ConfigSnapshot.load(masterFile, Collections.emptyMap(), new Properties());
+
+            List<DeviceRegistry.Device> devices = DeviceRegistry.devicesFromConfig(config);
+
+            Assert.assertEquals(devices.size(), 3);
+            Assert.assertEquals(devices.get(0).getSystemPort(), 8200);
+            Assert.assertEquals(devices.get(1).getSystemPort(), 8300, "Configured port should be kept");
+            Assert.assertEquals(devices.get(2).getSystemPort(), 8202, "Default port should follow the index");
+        } finally {
+            Files.deleteIfExists(masterFile);
+        }
+    }
+
+    private static DeviceRegistry.Device leaseAndHold(DeviceRegistry registry, CountDownLatch bothLeased)
+            throws InterruptedException {
+        DeviceRegistry.Device device = registry.lease();
+        bothLeased.countDown();
+        bothLeased.await(5, TimeUnit.SECONDS);
+        return device;
+    }
+}
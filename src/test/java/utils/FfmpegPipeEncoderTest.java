@@ -0,0 +1,69 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for FfmpegPipeEncoder, using a shell script in place of ffmpeg
+ * that copies the raw frames from stdin to the output file
+ */
+public class FfmpegPipeEncoderTest {
+
+    @Test(description = "Verify frames are piped as BGR bytes, cropped to even dimensions")
+    public void testFramesAreStreamedAsBgr() throws Exception {
+        Path dir = Files.createTempDirectory("ffmpeg-pipe");
+        File output = dir.resolve("video.mp4").toFile();
+        FfmpegPipeEncoder encoder = FfmpegPipeEncoder.start(fakeFfmpeg(dir, "cat > \"$last\""), output, 5, 3, 10);
+        Assert.assertEquals(encoder.getWidth(), 4);
+        Assert.assertEquals(encoder.getHeight(), 2);
+
+        BufferedImage frame = new BufferedImage(5, 3, BufferedImage.TYPE_INT_RGB);
+        frame.setRGB(0, 0, 0x112233);
+        frame.setRGB(3, 1, 0xAABBCC);
+        encoder.writeFrame(frame);
+        encoder.writeFrame(frame);
+
+        Assert.assertTrue(encoder.finish(10, TimeUnit.SECONDS), "Encoder finishes");
+        Assert.assertEquals(encoder.getFrameCount(), 2);
+        byte[] bytes = Files.readAllBytes(output.toPath());
+        Assert.assertEquals(bytes.length, 2 * 4 * 2 * 3, "Two 4x2 frames of 3 bytes per pixel");
+        Assert.assertEquals(new byte[] { bytes[0], bytes[1], bytes[2] }, new byte[] { 0x33, 0x22, 0x11 });
+        int last = (1 * 4 + 3) * 3;
+        Assert.assertEquals(new byte[] { bytes[last], bytes[last + 1], bytes[last + 2] },
+                new byte[] { (byte) 0xCC, (byte) 0xBB, (byte) 0xAA });
+        Assert.assertFalse(new File(output.getPath() + ".log").exists(), "Log removed after success");
+    }
+
+    @Test(description = "Verify a failing ffmpeg is reported and its log kept")
+    public void testFailedEncodingIsReported() throws Exception {
+        Path dir = Files.createTempDirectory("ffmpeg-pipe");
+        File output = dir.resolve("video.mp4").toFile();
+        FfmpegPipeEncoder encoder = FfmpegPipeEncoder.start(
+                fakeFfmpeg(dir, "cat > /dev/null; echo 'unknown encoder' >&2; exit 1"), output, 4, 4, 10);
+        encoder.writeFrame(new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB));
+
+        Assert.assertFalse(encoder.finish(10, TimeUnit.SECONDS));
+        String log = new String(Files.readAllBytes(new File(output.getPath() + ".log").toPath()),
+                StandardCharsets.UTF_8);
+        Assert.assertTrue(log.contains("unknown encoder"), log);
+    }
+
+    static String fakeFfmpeg(Path dir, String body) throws IOException {
+        if (File.separatorChar != '/') {
+            throw new SkipException("Stand-in ffmpeg is a shell script");
+        }
+        Path script = dir.resolve("ffmpeg");
+        Files.write(script, ("#!/bin/sh\nfor last; do :; done\n" + body + "\n").getBytes(StandardCharsets.UTF_8));
+        script.toFile().setExecutable(true);
+        return script.toString();
+    }
+}
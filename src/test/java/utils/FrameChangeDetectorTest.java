@@ -0,0 +1,54 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Unit tests for FrameChangeDetector
+ */
+public class FrameChangeDetectorTest {
+
+    @Test(description = "Verify repeated frames are duplicates and changed frames are not")
+    public void testDetectsRepeatedFrames() {
+        FrameChangeDetector detector = new FrameChangeDetector();
+        Assert.assertFalse(detector.isDuplicate(page(0)), "First frame");
+        Assert.assertTrue(detector.isDuplicate(page(0)), "Same content in a new image");
+        Assert.assertFalse(detector.isDuplicate(page(1)), "A line of text appeared");
+        Assert.assertTrue(detector.isDuplicate(page(1)));
+        Assert.assertFalse(detector.isDuplicate(new BufferedImage(320, 100, BufferedImage.TYPE_INT_RGB)),
+                "Resized window");
+
+        detector.reset();
+        Assert.assertFalse(detector.isDuplicate(page(1)), "Nothing to compare with after a reset");
+    }
+
+    @Test(description = "Verify an image redrawn in place is compared by content")
+    public void testReusedImageIsComparedByContent() {
+        FrameChangeDetector detector = new FrameChangeDetector();
+        BufferedImage reused = page(0);
+        Assert.assertFalse(detector.isDuplicate(reused));
+        Graphics2D graphics = reused.createGraphics();
+        graphics.setColor(Color.BLACK);
+        graphics.fillRect(10, 50, 30, 8);
+        graphics.dispose();
+        Assert.assertFalse(detector.isDuplicate(reused), "Same image object, new content");
+    }
+
+    // White page with the given number of 8 px tall text lines
+    private static BufferedImage page(int lines) {
+        BufferedImage image = new BufferedImage(320, 200, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, 320, 200);
+        graphics.setColor(Color.DARK_GRAY);
+        for (int line = 0; line < lines; line++) {
+            graphics.fillRect(20, 20 + line * 16, 200, 8);
+        }
+        graphics.dispose();
+        return image;
+    }
+}
@@ -0,0 +1,110 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the FrameRingBuffer of failure-only recordings
+ */
+public class FrameRingBufferTest {
+
+    @Test(description = "Verify the buffer keeps the latest frames and writes them oldest first")
+    public void testKeepsLatestFramesInOrder() throws Exception {
+        FrameRingBuffer buffer = new FrameRingBuffer(3, 2, 2);
+        for (int i = 1; i <= 5; i++) {
+            buffer.add(frame(i));
+        }
+        Assert.assertEquals(buffer.size(), 3);
+        Assert.assertEquals(buffer.getRetainedBytes(), 3 * 2 * 2 * 3, "One slot per frame kept");
+
+        Path dir = Files.createTempDirectory("ring-buffer");
+        File output = dir.resolve("failed.mp4").toFile();
+        FfmpegPipeEncoder encoder = FfmpegPipeEncoder.start(
+                FfmpegPipeEncoderTest.fakeFfmpeg(dir, "cat > \"$last\""), output, 2, 2, 10);
+        Assert.assertEquals(buffer.writeTo(encoder), 3);
+        Assert.assertTrue(encoder.finish(10, TimeUnit.SECONDS));
+
+        byte[] bytes = Files.readAllBytes(output.toPath());
+        Assert.assertEquals(bytes.length, 3 * 12);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(bytes[i * 12], (byte) (3 + i), "Frame " + (3 + i) + " at position " + i);
+        }
+    }
+
+    @Test(description = "Verify clearing forgets the frames but keeps the slots for the next recording")
+    public void testClearKeepsSlots() {
+        FrameRingBuffer buffer = new FrameRingBuffer(4, 3, 3);
+        buffer.add(frame(1));
+        buffer.add(frame(2));
+        long retained = buffer.getRetainedBytes();
+
+        buffer.clear();
+        Assert.assertEquals(buffer.size(), 0);
+        Assert.assertEquals(buffer.getRetainedBytes(), retained, "Slots are reused, not released");
+        Assert.assertTrue(buffer.fits(4, 3, 3), "Odd sizes are cropped to even like the encoder's");
+        Assert.assertTrue(buffer.fits(4, 2, 2));
+        Assert.assertFalse(buffer.fits(5, 2, 2));
+    }
+
+    @Test(description = "Verify an idle buffer can free all but a few slots and still record")
+    public void testClearFreesSlotsBeyondKept() throws Exception {
+        FrameRingBuffer buffer = new FrameRingBuffer(4, 2, 2);
+        for (int i = 1; i <= 4; i++) {
+            buffer.add(frame(i));
+        }
+
+        buffer.clear(1);
+        Assert.assertEquals(buffer.size(), 0);
+        Assert.assertEquals(buffer.getRetainedBytes(), 2 * 2 * 3, "Only one slot kept allocated");
+        Assert.assertEquals(buffer.getSlotsInUse(), 0);
+
+        for (int i = 5; i <= 10; i++) {
+            buffer.add(frame(i));
+        }
+        Assert.assertEquals(buffer.size(), 4);
+        Assert.assertEquals(buffer.getRetainedBytes(), 4 * 2 * 2 * 3, "Freed slots allocated again when needed");
+
+        Path dir = Files.createTempDirectory("ring-buffer");
+        File output = dir.resolve("failed.mp4").toFile();
+        FfmpegPipeEncoder encoder = FfmpegPipeEncoder.start(
+                FfmpegPipeEncoderTest.fakeFfmpeg(dir, "cat > \"$last\""), output, 2, 2, 10);
+        Assert.assertEquals(buffer.writeTo(encoder), 4);
+        Assert.assertTrue(encoder.finish(10, TimeUnit.SECONDS));
+        Assert.assertEquals(Files.readAllBytes(output.toPath())[0], (byte) 7, "Oldest frame kept is frame 7");
+    }
+
+    @Test(description = "Verify repeated frames share a slot and dropped frames free their slots")
+    public void testRepeatedFramesShareSlots() {
+        FrameRingBuffer buffer = new FrameRingBuffer(4, 2, 2);
+        Assert.assertFalse(buffer.add(frame(1)));
+        Assert.assertTrue(buffer.add(frame(1)), "Repeat of the previous frame");
+        Assert.assertTrue(buffer.add(frame(1)));
+        Assert.assertEquals(buffer.size(), 3);
+        Assert.assertEquals(buffer.getSlotsInUse(), 1, "Three frames in one slot");
+
+        for (int i = 2; i <= 9; i++) {
+            buffer.add(frame(i));
+        }
+        Assert.assertEquals(buffer.getSlotsInUse(), 4);
+        Assert.assertEquals(buffer.getRetainedBytes(), 4 * 2 * 2 * 3, "Freed slots are reused, never more than capacity");
+        buffer.clear();
+        Assert.assertEquals(buffer.getSlotsInUse(), 0);
+    }
+
+    // Frame whose pixels are all blue = value, so the first BGR byte identifies it
+    private static BufferedImage frame(int value) {
+        BufferedImage image = new BufferedImage(2, 2, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < 2; x++) {
+            for (int y = 0; y < 2; y++) {
+                image.setRGB(x, y, value);
+            }
+        }
+        return image;
+    }
+}
@@ -0,0 +1,55 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for the Grid 4 /status parsing of GridDispatcher
+ */
+public class GridDispatcherTest {
+
+    private static final String IDLE_CHROME = "{\"session\": null, \"stereotype\": {\"browserName\": \"chrome\"}}";
+    private static final String BUSY_CHROME = "{\"session\": {\"sessionId\": \"f1e2\", \"capabilities\": {}},"
+            + " \"stereotype\": {\"browserName\": \"chrome\"}}";
+    private static final String IDLE_FIREFOX = "{\"session\": null, \"stereotype\": {\"browserName\": \"firefox\"}}";
+
+    @Test(description = "Verify idle slots are counted per browser on nodes that are up")
+    public void testCountsIdleSlotsOfUpNodes() {
+        String status = status(true,
+                node("UP", IDLE_CHROME, BUSY_CHROME, IDLE_CHROME),
+                node("UP", IDLE_FIREFOX));
+
+        Assert.assertEquals(GridDispatcher.countFreeSlots(status, "chrome"), 2);
+        Assert.assertEquals(GridDispatcher.countFreeSlots(status, "CHROME"), 2, "Browser names match case-insensitively");
+        Assert.assertEquals(GridDispatcher.countFreeSlots(status, "firefox"), 1);
+        Assert.assertEquals(GridDispatcher.countFreeSlots(status, "MicrosoftEdge"), 0);
+    }
+
+    @Test(description = "Verify draining and down nodes offer no slots")
+    public void testDrainingNodesAreSkipped() {
+        String status = status(true,
+                node("DRAINING", IDLE_CHROME, IDLE_CHROME),
+                node("DOWN", IDLE_CHROME),
+                node("UP", BUSY_CHROME, IDLE_CHROME));
+
+        Assert.assertEquals(GridDispatcher.countFreeSlots(status, "chrome"), 1);
+    }
+
+    @Test(description = "Verify a hub that is not ready or a malformed body counts as no free slot")
+    public void testNotReadyAndMalformedStatus() {
+        Assert.assertEquals(GridDispatcher.countFreeSlots(status(false, node("UP", IDLE_CHROME)), "chrome"), 0);
+        Assert.assertEquals(GridDispatcher.countFreeSlots("<html>502 Bad Gateway</html>", "chrome"), 0);
+        Assert.assertEquals(GridDispatcher.countFreeSlots("{\"value\": {\"ready\": true", "chrome"), 0);
+        Assert.assertEquals(GridDispatcher.countFreeSlots("", "chrome"), 0);
+    }
+
+    private static String status(boolean ready, String... nodes) {
+        return "{\"value\": {\"ready\": " + ready + ", \"message\": \"Selenium Grid ready.\", \"nodes\": ["
+                + String.join(",", nodes) + "]}}";
+    }
+
+    private static String node(String availability, String... slots) {
+        return "{\"uri\": \"http://10.0.0.2:5555\", \"availability\": \"" + availability + "\", \"slots\": ["
+                + String.join(",", slots) + "]}";
+    }
+}
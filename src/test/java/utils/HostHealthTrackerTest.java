@@ -0,0 +1,89 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for the HostHealthTracker circuit breaker
+ */
+public class HostHealthTrackerTest {
+
+    private static final String FEATURE = "file:src/test/resources/features/web/UI_OrangeHRM_PIMPage.feature";
+    private static final String LOGIN_URL = "https://opensource-demo.orangehrmlive.com/web/index.php/auth/login";
+
+    @Test(description = "Verify the circuit opens after consecutive host failures and skips scenarios up front")
+    public void testCircuitOpensAndSkipsScenarios() {
+        AtomicInteger probes = new AtomicInteger();
+        HostHealthTracker tracker = new HostHealthTracker(2, Duration.ofMinutes(5), origin -> {
+            probes.incrementAndGet();
+            return false;
+        });
+
+        runFailedScenario(tracker);
+        Assert.assertEquals(tracker.getState(LOGIN_URL), HostHealthTracker.State.CLOSED, "One failure is tolerated");
+        runFailedScenario(tracker);
+        Assert.assertEquals(tracker.getState(LOGIN_URL), HostHealthTracker.State.OPEN);
+        Assert.assertEquals(probes.get(), 2, "Each failed scenario probes the host once");
+
+        HostUnavailableException skip = Assert.expectThrows(HostUnavailableException.class,
+                () -> tracker.startScenario(FEATURE));
+        Assert.assertTrue(skip.getMessage().contains("https://opensource-demo.orangehrmlive.com"), skip.getMessage());
+        tracker.finishScenario(false);
+        Assert.assertThrows(HostUnavailableException.class, () -> tracker.beforeNavigation(LOGIN_URL + "?retry"));
+        tracker.finishScenario(false);
+        Assert.assertEquals(probes.get(), 2, "Open circuit does not probe before the cool-down");
+    }
+
+    @Test(description = "Verify application failures on a healthy host do not open the circuit")
+    public void testHealthyHostResetsFailures() {
+        AtomicBoolean reachable = new AtomicBoolean(false);
+        HostHealthTracker tracker = new HostHealthTracker(2, Duration.ofMinutes(5), origin -> reachable.get());
+
+        runFailedScenario(tracker);
+        reachable.set(true);
+        runFailedScenario(tracker);
+        reachable.set(false);
+        runFailedScenario(tracker);
+
+        Assert.assertEquals(tracker.getState(LOGIN_URL), HostHealthTracker.State.CLOSED,
+                "Failures must be consecutive host failures");
+    }
+
+    @Test(description = "Verify the host is probed again after the cool-down and the circuit closes")
+    public void testCircuitClosesAfterCoolDown() throws InterruptedException {
+        AtomicBoolean reachable = new AtomicBoolean(false);
+        HostHealthTracker tracker = new HostHealthTracker(1, Duration.ofMillis(200), origin -> reachable.get());
+
+        runFailedScenario(tracker);
+        Assert.assertEquals(tracker.getState(LOGIN_URL), HostHealthTracker.State.OPEN);
+
+        Thread.sleep(250);
+        Assert.assertThrows(HostUnavailableException.class, () -> tracker.startScenario(FEATURE));
+        tracker.finishScenario(false);
+
+        Thread.sleep(250);
+        reachable.set(true);
+        tracker.startScenario(FEATURE);
+        tracker.beforeNavigation(LOGIN_URL);
+        tracker.finishScenario(false);
+        Assert.assertEquals(tracker.getState(LOGIN_URL), HostHealthTracker.State.CLOSED);
+    }
+
+    @Test(description = "Verify hosts are keyed by origin")
+    public void testOriginOf() {
+        Assert.assertEquals(HostHealthTracker.originOf("https://testerbud.com/practice-login-form"),
+                "https://testerbud.com");
+        Assert.assertEquals(HostHealthTracker.originOf("http://localhost:8080/app"), "http://localhost:8080");
+        Assert.assertNull(HostHealthTracker.originOf("about:blank"));
+    }
+
+    private static void runFailedScenario(HostHealthTracker tracker) {
+        tracker.startScenario(FEATURE);
+        tracker.beforeNavigation(LOGIN_URL);
+        tracker.finishScenario(true);
+    }
+}
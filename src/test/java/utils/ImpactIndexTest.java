@@ -0,0 +1,127 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Unit tests for ImpactIndex change-impact selection
+ */
+public class ImpactIndexTest {
+
+    private ImpactIndex index;
+
+    @BeforeClass
+    public void buildIndex() throws IOException {
+        Path project = Files.createTempDirectory("impact-index");
+        write(project, "src/main/java/pages/UI_PIMPage.java",
+                "package pages;\npublic class UI_PIMPage {\n    public void clickAddUserButton() { PageReadiness.waitFor(); }\n}\n");
+        write(project, "src/main/java/pages/UI_DashboardPage.java",
+                "package pages;\npublic class UI_DashboardPage {\n    public void clickPIMTab() { }\n}\n");
+        write(project, "src/main/java/utils/PageReadiness.java",
+                "package utils;\npublic class PageReadiness {\n    public static void waitFor() { }\n}\n");
+        write(project, "src/main/java/utils/DriverFactory.java",
+                "package utils;\npublic class DriverFactory {\n}\n");
+        write(project, "src/main/java/utils/ExcelReader.java",
+                "package utils;\npublic class ExcelReader {\n}\n");
+        write(project, "src/test/java/hooks/Hooks.java",
+                "package hooks;\npublic class Hooks {\n    void setUp() { DriverFactory.getWebDriver(); }\n}\n");
+        write(project, "src/test/java/stepdefinitions/web/PIMSteps.java",
+                "package stepdefinitions.web;\n"
+                        + "public class PIMSteps {\n"
+                        + "    WebDriver driver = DriverFactory.getWebDriver();\n"
+                        + "    UI_DashboardPage dashboardPage = new UI_DashboardPage(driver);\n"
+                        + "    UI_PIMPage pimPage = new UI_PIMPage(driver);\n\n"
+                        + "    @When(\"the admin clicks the PIM button\")\n"
+                        + "    public void clickPim() {\n        dashboardPage.clickPIMTab();\n    }\n\n"
+                        + "    // @When(\"the admin opens the {word} tab\")\n"
+                        + "    @And(\"the admin enters first name {string} and age {int}\")\n"
+                        + "    @And(\"the admin clicks the add-user button(s)\")\n"
+                        + "    public void addUser() {\n        pimPage.clickAddUserButton(); // ExcelReader later\n    }\n"
+                        + "}\n");
+        write(project, "src/test/resources/features/web/PIM.feature",
+                "@WEB\nFeature: PIM\n\n  Background:\n    Given the admin clicks the PIM button\n\n"
+                        + "  Scenario: Open PIM\n    Then the admin clicks the PIM button\n\n"
+                        + "  Scenario Outline: Add user\n    When the admin enters first name \"<name>\" and age <age>\n\n"
+                        + "    Examples:\n      | name | age |\n      | Jean | 30  |\n      | Paul | x   |\n");
+        write(project, "src/test/resources/features/web/Login.feature",
+                "@WEB\nFeature: Login\n\n  Scenario: Add users\n    When the admin clicks the add-user buttons\n");
+        index = ImpactIndex.build(project);
+    }
+
+    @Test(description = "Verify scenarios are indexed per Examples row")
+    public void testScenarioCount() {
+        Assert.assertEquals(index.getScenarioCount(), 4);
+    }
+
+    @Test(description = "Verify a page object change selects only the scenarios using it")
+    public void testPageObjectChange() {
+        Set<String> affected = index.findAffectedScenarios(
+                Collections.singletonList("src/main/java/pages/UI_PIMPage.java"));
+        // Row 16 has no number for {int} and matches no step
+        Assert.assertEquals(affected.toString(), "[features/web/Login.feature:4, features/web/PIM.feature:15]");
+    }
+
+    @Test(description = "Verify background steps and helpers used by page objects are followed")
+    public void testTransitiveAndBackground() {
+        Set<String> affected = index.findAffectedScenarios(
+                Collections.singletonList("src/main/java/pages/UI_DashboardPage.java"));
+        Assert.assertEquals(affected.size(), 3, affected.toString());
+        Assert.assertFalse(affected.contains("features/web/Login.feature:4"));
+
+        affected = index.findAffectedScenarios(Collections.singletonList("src/main/java/utils/PageReadiness.java"));
+        Assert.assertTrue(affected.contains("features/web/PIM.feature:15"), affected.toString());
+    }
+
+    @Test(description = "Verify comments and unused helpers select nothing")
+    public void testUnusedClass() {
+        Set<String> affected = index.findAffectedScenarios(Arrays.asList("src/main/java/utils/ExcelReader.java",
+                "README.md"));
+        Assert.assertTrue(affected.isEmpty(), affected.toString());
+    }
+
+    @Test(description = "Verify feature and step definition changes")
+    public void testFeatureAndStepChanges() {
+        Assert.assertEquals(index.findAffectedScenarios(
+                Collections.singletonList("src/test/resources/features/web/Login.feature")).toString(),
+                "[features/web/Login.feature:4]");
+        Assert.assertEquals(index.findAffectedScenarios(
+                Collections.singletonList("src/test/java/stepdefinitions/web/PIMSteps.java")).size(), 4);
+    }
+
+    @Test(description = "Verify hook dependencies and unknown files select every scenario")
+    public void testGlobalChanges() {
+        Assert.assertNull(index.findAffectedScenarios(
+                Collections.singletonList("src/main/java/utils/DriverFactory.java")));
+        Assert.assertNull(index.findAffectedScenarios(Collections.singletonList("pom.xml")));
+        Assert.assertNull(index.findAffectedScenarios(Collections.singletonList("src/main/java/utils/Removed.java")),
+                "A deleted class may have been used by any scenario");
+        Assert.assertNull(index.findAffectedScenarios(Collections.singletonList("tools/src/Generator.java")));
+        Assert.assertNull(index.findAffectedScenarios(null));
+    }
+
+    @Test(description = "Verify Cucumber expressions are converted to regular expressions")
+    public void testToPattern() {
+        Assert.assertTrue(ImpactIndex.toPattern("I enter {string} and {int}").matcher("I enter \"a b\" and -3")
+                .matches());
+        Assert.assertTrue(ImpactIndex.toPattern("I see {int} item(s)").matcher("I see 1 item").matches());
+        Assert.assertTrue(ImpactIndex.toPattern("I open the login/home page").matcher("I open the home page")
+                .matches());
+        Assert.assertFalse(ImpactIndex.toPattern("I click the button.").matcher("I click the buttonX").matches());
+        Assert.assertTrue(ImpactIndex.toPattern("^I wait (\\d+) seconds$").matcher("I wait 5 seconds").matches());
+    }
+
+    private static void write(Path project, String path, String content) throws IOException {
+        Path file = project.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,74 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for LatencyHistogram bucketing and percentiles
+ */
+public class LatencyHistogramTest {
+
+    @Test(description = "Verify buckets are contiguous and each value falls inside its bucket")
+    public void testBucketsAreContiguous() {
+        long previousUpperBound = -1;
+        for (int index = 0; index < LatencyHistogram.bucketIndex(Long.MAX_VALUE); index++) {
+            long upperBound = LatencyHistogram.bucketUpperBound(index);
+            Assert.assertTrue(upperBound > previousUpperBound, "Bucket " + index + " starts after the previous one");
+            Assert.assertEquals(LatencyHistogram.bucketIndex(previousUpperBound + 1), index);
+            Assert.assertEquals(LatencyHistogram.bucketIndex(upperBound), index);
+            previousUpperBound = upperBound;
+        }
+    }
+
+    @Test(description = "Verify percentiles stay within the bucket precision of the exact values")
+    public void testPercentilesAreAccurate() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random random = new Random(42);
+        List<Long> values = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            // 5 ms to 5 s, like the steps of a UI suite
+            long value = TimeUnit.MICROSECONDS.toNanos(5_000 + random.nextInt(5_000_000));
+            values.add(value);
+            histogram.record(value);
+        }
+        values.sort(null);
+
+        for (double percentile : new double[] { 50, 95, 99 }) {
+            long exact = values.get((int) Math.ceil(percentile / 100 * values.size()) - 1);
+            long reported = histogram.getPercentileNanos(percentile);
+            Assert.assertTrue(reported >= exact && reported <= exact * 1.04,
+                    "p" + percentile + " " + reported + " should be close to " + exact);
+        }
+        Assert.assertEquals(histogram.getCount(), values.size());
+        Assert.assertEquals(histogram.getMaxNanos(), (long) values.get(values.size() - 1));
+        Assert.assertEquals(histogram.getPercentileNanos(100), histogram.getMaxNanos());
+        Assert.assertEquals(new LatencyHistogram().getPercentileNanos(95), 0, "Empty histogram");
+    }
+
+    @Test(description = "Verify concurrent recording loses no values")
+    public void testConcurrentRecording() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 1; i <= 10_000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertEquals(histogram.getCount(), 80_000);
+        Assert.assertEquals(histogram.getTotalNanos(), 8L * 10_000 * 10_001 / 2);
+        Assert.assertEquals(histogram.getMaxNanos(), 10_000);
+    }
+}
@@ -0,0 +1,88 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Unit tests for the request accounting of NetworkBlocker, fed with DevTools events
+ */
+public class NetworkBlockerTest {
+
+    @Test(description = "Verify only our own blocks are counted and finished requests are forgotten")
+    public void testCountsInspectorBlocksOnly() {
+        NetworkBlocker blocker = new NetworkBlocker(Collections.singletonList("*ads.example*"), false);
+        blocker.onRequestWillBeSent(request("1", "https://ads.example/tag.js"));
+        blocker.onRequestWillBeSent(request("2", "https://ads.example/tag.js"));
+        blocker.onRequestWillBeSent(request("3", "http://cdn.example/mixed.png"));
+        blocker.onRequestWillBeSent(request("4", "https://app.example/index.html"));
+
+        blocker.onLoadingFailed(failed("1", "inspector"));
+        blocker.onLoadingFailed(failed("2", "inspector"));
+        blocker.onLoadingFailed(failed("3", "mixed-content"));
+        blocker.onLoadingFinished(event("4"));
+
+        NetworkBlocker.BlockingStats stats = blocker.getStats();
+        Assert.assertEquals(stats.getBlockedRequests(), 2);
+        Assert.assertEquals(stats.getBytesSaved(), -1, "Bytes are not measured by default");
+        Assert.assertEquals(stats.toString(), "2 request(s) blocked (1 distinct URLs)");
+        Assert.assertEquals(blocker.getPendingRequestCount(), 0, "No request left behind");
+    }
+
+    @Test(description = "Verify requests are still blocked after the session is reset for the next scenario")
+    public void testBlockingSurvivesSessionReset() {
+        SessionRecyclerTest.FakeBrowser browser = new SessionRecyclerTest.FakeBrowser(true, "tab-1");
+        List<DevToolsChannelTest.FakeChannel> opened = new ArrayList<>();
+        Function<WebDriver, DevToolsChannel> opener = DevToolsChannelTest.useFakeChannels(opened);
+        try {
+            NetworkBlocker.install(browser.driver, Collections.singletonList("*ads.example*"), false);
+            DevToolsChannelTest.FakeChannel channel = opened.get(0);
+            for (int scenario = 1; scenario <= 2; scenario++) {
+                NetworkBlocker.startScenario(browser.driver);
+                Assert.assertTrue(channel.emit("Network.requestWillBeSent", request("1", "https://ads.example/tag.js")),
+                        "Scenario " + scenario + " should get the page's events");
+                channel.emit("Network.loadingFailed", failed("1", "inspector"));
+
+                Assert.assertEquals(NetworkBlocker.finishScenario(browser.driver).getBlockedRequests(), 1,
+                        "Scenario " + scenario);
+                Assert.assertTrue(SessionRecycler.reset(browser.driver, Collections.singletonList("https://app.example")));
+            }
+
+            Assert.assertEquals(channel.commands, Arrays.asList(
+                    "tab-1 Network.enable", "tab-1 Network.setBlockedURLs",
+                    "tab-2 Network.enable", "tab-2 Network.setBlockedURLs"),
+                    "Block list sent again to the new tab, once");
+        } finally {
+            DevToolsChannel.opener = opener;
+        }
+    }
+
+    private static Map<String, Object> event(String requestId) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("requestId", requestId);
+        return event;
+    }
+
+    private static Map<String, Object> request(String requestId, String url) {
+        Map<String, Object> request = new HashMap<>();
+        request.put("url", url);
+        Map<String, Object> event = event(requestId);
+        event.put("request", request);
+        return event;
+    }
+
+    private static Map<String, Object> failed(String requestId, String blockedReason) {
+        Map<String, Object> event = event(requestId);
+        event.put("errorText", "net::ERR_BLOCKED_BY_CLIENT");
+        event.put("blockedReason", blockedReason);
+        return event;
+    }
+}
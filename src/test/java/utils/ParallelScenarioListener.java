@@ -0,0 +1,42 @@
+package utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlSuite;
+
+import java.util.List;
+
+/**
+ * TestNG listener that sets how many Cucumber scenarios run in parallel
+ * The runners' scenarios() data provider is parallel, so its thread count is the
+ * suite's data-provider-thread-count. The -Dscenario.threads system property
+ * overrides the value from the suite XML. Register it in the suite XML listeners.
+ */
+public class ParallelScenarioListener implements IAlterSuiteListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelScenarioListener.class);
+    private static volatile int scenarioThreads = 1;
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        String override = System.getProperty("scenario.threads");
+        for (XmlSuite suite : suites) {
+            if (override != null && !override.trim().isEmpty()) {
+                suite.setDataProviderThreadCount(Integer.parseInt(override.trim()));
+            }
+            scenarioThreads = Math.max(1, suite.getDataProviderThreadCount());
+            logger.info("⚡ Suite '{}' runs up to {} scenario(s) in parallel per runner", suite.getName(),
+                    scenarioThreads);
+        }
+    }
+
+    /**
+     * Get the number of scenarios that may run at the same time
+     *
+     * @return Scenario thread count, 1 when scenarios run sequentially
+     */
+    public static int getScenarioThreads() {
+        return scenarioThreads;
+    }
+}
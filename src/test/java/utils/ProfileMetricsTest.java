@@ -0,0 +1,42 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Unit tests for the ProfileMetrics CSV and the per-profile summary
+ */
+public class ProfileMetricsTest {
+
+    @Test(description = "Verify a row quotes the scenario name and keeps the column order")
+    public void testCsvRow() {
+        String row = ProfileMetrics.toCsvRow(LocalDateTime.of(2026, 1, 2, 3, 4, 5), "lean",
+                "Login, \"admin\" user", "PASSED", 1234, 204800, "session");
+
+        Assert.assertEquals(row, "2026-01-02T03:04:05,lean,\"Login, \"\"admin\"\" user\",PASSED,1234,204800,session");
+    }
+
+    @Test(description = "Verify rows of several runs are averaged per profile")
+    public void testSummaryAcrossRuns() throws Exception {
+        Path file = Files.createTempDirectory("profile-metrics").resolve("nested").resolve("metrics.csv");
+        LocalDateTime now = LocalDateTime.now();
+        ProfileMetrics.append(file, ProfileMetrics.toCsvRow(now, "default", "Login, admin", "PASSED", 3000, 409600,
+                "session"));
+        ProfileMetrics.append(file, ProfileMetrics.toCsvRow(now, "default", "Logout", "PASSED", 1000, -1, "none"));
+        ProfileMetrics.append(file, ProfileMetrics.toCsvRow(now, "lean", "Login, admin", "FAILED", 1000, 102400,
+                "all-sessions"));
+
+        Map<String, String> summary = ProfileMetrics.summarize(file);
+
+        Assert.assertEquals(Files.readAllLines(file).get(0),
+                "timestamp,profile,scenario,status,wall_ms,chrome_rss_kb,rss_scope");
+        Assert.assertEquals(summary.get("default"), "2 scenarios, avg wall 2000 ms, avg Chrome RSS 400 MB");
+        Assert.assertEquals(summary.get("lean"), "1 scenarios, avg wall 1000 ms, avg Chrome RSS 100 MB");
+        Assert.assertTrue(ProfileMetrics.summarize(file.resolveSibling("missing.csv")).isEmpty());
+    }
+}
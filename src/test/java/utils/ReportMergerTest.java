@@ -0,0 +1,120 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Unit tests for merging the reports of sharded runs
+ */
+public class ReportMergerTest {
+
+    private static final String FEATURE = "file:src/test/resources/features/web/UI_Login_Functionality.feature";
+
+    private Path workDir;
+    private List<Path> shards;
+
+    @BeforeClass
+    public void writeShardReports() throws IOException {
+        workDir = Files.createTempDirectory("report-merger");
+        Path shard0 = Files.createDirectories(workDir.resolve("shards/shard-0/allure-results"));
+        Path shard1 = Files.createDirectories(workDir.resolve("shards/shard-1/allure-results"));
+
+        // The feature was split: scenario on line 20 ran in shard 0, line 10 in shard 1
+        write(shard0.resolveSibling("cucumber.json"), "[{\"uri\": \"" + FEATURE + "\", \"name\": \"Login\", "
+                + "\"elements\": [{\"type\": \"background\", \"line\": 4}, {\"type\": \"scenario\", \"line\": 20}]}]");
+        write(shard1.resolveSibling("cucumber.json"), "[{\"uri\": \"" + FEATURE + "\", \"name\": \"Login\", "
+                + "\"elements\": [{\"type\": \"background\", \"line\": 4}, {\"type\": \"scenario\", \"line\": 10}]}]");
+        write(shard0.resolveSibling("cucumber.xml"), "<testsuite name=\"cucumber\" tests=\"2\" failures=\"1\" "
+                + "skipped=\"0\" errors=\"0\" time=\"12.5\"><testcase name=\"a\"/><testcase name=\"b\"/></testsuite>");
+        write(shard1.resolveSibling("cucumber.xml"), "<testsuite name=\"cucumber\" tests=\"1\" failures=\"0\" "
+                + "skipped=\"1\" errors=\"0\" time=\"3.25\"><testcase name=\"c\"/></testsuite>");
+        write(shard0.resolve("1111-result.json"), "{}");
+        write(shard0.resolve("environment.properties"), "browser=chrome");
+        write(shard1.resolve("2222-result.json"), "{}");
+        write(shard1.resolve("environment.properties"), "browser=firefox");
+        write(shard0.resolveSibling("rerun-report.json"), "{\"firstAttempt\": {\"passed\": 3, \"failed\": 1}, "
+                + "\"scenarios\": [{\"scenario\": \"a\", \"finalStatus\": \"flaky\"}]}");
+        write(shard1.resolveSibling("rerun-report.json"), "{\"firstAttempt\": {\"passed\": 2, \"failed\": 1}, "
+                + "\"scenarios\": [{\"scenario\": \"b\", \"finalStatus\": \"failed\"}]}");
+
+        shards = ReportMerger.listShards(workDir.resolve("shards"));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void deleteWorkDir() throws IOException {
+        try (Stream<Path> files = Files.walk(workDir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test(description = "Verify a feature split across shards is joined with scenarios in file order")
+    public void testMergeCucumberJson() throws IOException {
+        Path merged = workDir.resolve("cucumber.json");
+        Assert.assertEquals(shards.size(), 2);
+        Assert.assertEquals(ReportMerger.mergeCucumberJson(shards, merged), 1, "Split feature should appear once");
+
+        JsonNode elements = new ObjectMapper().readTree(merged.toFile()).path(0).path("elements");
+        Assert.assertEquals(elements.size(), 4);
+        Assert.assertEquals(elements.path(0).path("type").asText(), "background");
+        Assert.assertEquals(elements.path(1).path("line").asInt(), 10);
+        Assert.assertEquals(elements.path(2).path("type").asText(), "background");
+        Assert.assertEquals(elements.path(3).path("line").asInt(), 20);
+    }
+
+    @Test(description = "Verify JUnit test cases are combined and the suite totals summed")
+    public void testMergeJUnitXml() throws Exception {
+        Path merged = workDir.resolve("cucumber.xml");
+        Assert.assertEquals(ReportMerger.mergeJUnitXml(shards, merged), 3);
+
+        Element suite = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(merged.toFile())
+                .getDocumentElement();
+        Assert.assertEquals(suite.getAttribute("tests"), "3");
+        Assert.assertEquals(suite.getAttribute("failures"), "1");
+        Assert.assertEquals(suite.getAttribute("skipped"), "1");
+        Assert.assertEquals(suite.getAttribute("time"), "15.750");
+    }
+
+    @Test(description = "Verify Allure results of all shards are collected")
+    public void testMergeAllureResults() throws IOException {
+        Path merged = workDir.resolve("allure-results");
+        Assert.assertEquals(ReportMerger.mergeAllureResults(shards, merged), 3, "Shared files are copied once");
+        Assert.assertTrue(Files.exists(merged.resolve("1111-result.json")));
+        Assert.assertTrue(Files.exists(merged.resolve("2222-result.json")));
+        Assert.assertEquals(new String(Files.readAllBytes(merged.resolve("environment.properties")),
+                StandardCharsets.UTF_8).trim(), "browser=chrome");
+    }
+
+    @Test(description = "Verify rerun counters are summed and scenario outcomes combined")
+    public void testMergeRerunReports() throws IOException {
+        Path merged = workDir.resolve("rerun-report.json");
+        Assert.assertEquals(ReportMerger.mergeRerunReports(shards, merged), 2);
+
+        JsonNode report = new ObjectMapper().readTree(merged.toFile());
+        Assert.assertEquals(report.path("firstAttempt").path("passed").asInt(), 5);
+        Assert.assertEquals(report.path("firstAttempt").path("failed").asInt(), 2);
+        Assert.assertEquals(report.path("scenarios").size(), 2);
+        Assert.assertEquals(report.path("scenarios").path(1).path("finalStatus").asText(), "failed");
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.write(file, Arrays.asList(content), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,285 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.SkipException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * RerunQueue - Collects failed scenarios and reruns them once the first attempts are done
+ * A scenario that fails its first attempt is queued and reported as skipped
+ * ("queued for rerun") instead of failed. After every scenario has had its first
+ * attempt, the runner's rerun test runs the queue on its own parallel data provider,
+ * on browser sessions no scenario has used before. Only a failed rerun fails the build.
+ * If the rerun test is not part of the run (a suite or -Dtest selecting runScenario
+ * only), the runner's teardown fails the scenarios still queued (see failUnconsumed).
+ *
+ * Configured in config.properties:
+ *   rerun.enabled=true
+ *   rerun.maxAttempts=1       reruns per failed scenario
+ *   rerun.maxScenarios=10     failed scenarios queued per runner; later failures are
+ *                             not rerun, many failures usually mean the environment is down
+ *   rerun.reportFile=target/cucumber-reports/rerun-report.json
+ *
+ * The report lists first-attempt and rerun outcomes separately; the Cucumber and
+ * Allure reports contain every attempt of a rerun scenario.
+ */
+public class RerunQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(RerunQueue.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Outcomes of all runners of this JVM, written once at suite end
+    private static final AtomicInteger firstAttemptsPassed = new AtomicInteger();
+    private static final AtomicInteger firstAttemptsFailed = new AtomicInteger();
+    private static final AtomicInteger firstAttemptsSkipped = new AtomicInteger();
+    private static final List<Map<String, Object>> scenarioOutcomes = Collections.synchronizedList(new ArrayList<>());
+
+    private final int maxScenarios;
+    private final int maxAttempts;
+    private final Queue<Object[]> queued = new ConcurrentLinkedQueue<>();
+    // Outcome record of each queued scenario, keyed by its pickle
+    private final Map<Object, Map<String, Object>> queuedOutcomes = new ConcurrentHashMap<>();
+    private final AtomicInteger accepted = new AtomicInteger();
+
+    /**
+     * Create a queue
+     *
+     * @param maxScenarios Failed scenarios that may be queued
+     * @param maxAttempts  Reruns per queued scenario
+     */
+    public RerunQueue(int maxScenarios, int maxAttempts) {
+        this.maxScenarios = maxScenarios;
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    public static RerunQueue fromConfig() {
+        ConfigSnapshot config = ConfigSnapshot.get();
+        return new RerunQueue(config.getInt("rerun.maxScenarios", 10), config.getInt("rerun.maxAttempts", 1));
+    }
+
+    public static boolean isEnabled() {
+        return ConfigSnapshot.get().getBoolean("rerun.enabled", false);
+    }
+
+    public static Path getReportFile() {
+        return Paths.get(ConfigSnapshot.get().getString("rerun.reportFile",
+                "target/cucumber-reports/rerun-report.json"));
+    }
+
+    /**
+     * Run the first attempt of a scenario. A failure is queued while the budget lasts
+     * and turned into a skip; once the budget is used up it is thrown as it is.
+     *
+     * @param scenario Scenario arguments of the Cucumber data provider (pickle and feature)
+     * @param attempt  Runs the scenario
+     */
+    public void runFirstAttempt(Object[] scenario, Runnable attempt) {
+        try {
+            attempt.run();
+            firstAttemptsPassed.incrementAndGet();
+        } catch (SkipException e) {
+            firstAttemptsSkipped.incrementAndGet();
+            throw e;
+        } catch (RuntimeException | Error e) {
+            firstAttemptsFailed.incrementAndGet();
+            Map<String, Object> outcome = newOutcome(scenario, e);
+            if (accepted.incrementAndGet() > maxScenarios) {
+                outcome.put("finalStatus", "failed");
+                outcome.put("note", "not rerun, rerun.maxScenarios (" + maxScenarios + ") reached");
+                scenarioOutcomes.add(outcome);
+                throw e;
+            }
+            queuedOutcomes.put(scenario[0], outcome);
+            queued.add(scenario);
+            logger.warn("🔁 {} failed on its first attempt, queued for rerun: {}", outcome.get("scenario"),
+                    e.getMessage());
+            throw new SkipException("Failed on first attempt, queued for rerun: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Take the queued scenarios for the rerun data provider
+     *
+     * @return Scenario arguments, as passed to the first attempt
+     */
+    public Object[][] drain() {
+        List<Object[]> scenarios = new ArrayList<>();
+        Object[] scenario;
+        while ((scenario = queued.poll()) != null) {
+            scenarios.add(scenario);
+        }
+        if (!scenarios.isEmpty()) {
+            logger.info("🔁 Rerunning {} failed scenario(s) on fresh sessions, up to {} attempt(s) each",
+                    scenarios.size(), maxAttempts);
+        }
+        return scenarios.toArray(new Object[0][]);
+    }
+
+    /**
+     * Fail the scenarios that are still queued because the rerun test did not run.
+     * Their first attempt was reported as skipped, so the run would pass otherwise.
+     *
+     * @throws AssertionError listing the scenarios and their first-attempt errors
+     */
+    public void failUnconsumed() {
+        List<String> failures = new ArrayList<>();
+        Object[] scenario;
+        while ((scenario = queued.poll()) != null) {
+            Map<String, Object> outcome = queuedOutcomes.remove(scenario[0]);
+            if (outcome == null) {
+                outcome = newOutcome(scenario, null);
+            }
+            outcome.put("finalStatus", "failed");
+            outcome.put("note", "not rerun, the rerun test did not run");
+            scenarioOutcomes.add(outcome);
+            failures.add(outcome.get("scenario") + ": " + outcome.get("firstAttemptError"));
+        }
+        if (!failures.isEmpty()) {
+            logger.error("❌ {} scenario(s) failed their first attempt and were not rerun, "
+                    + "include rerunFailedScenario in the suite", failures.size());
+            throw new AssertionError(failures.size() + " scenario(s) failed and were not rerun: "
+                    + String.join("; ", failures));
+        }
+    }
+
+    /**
+     * Rerun a queued scenario until it passes or its attempts are used up
+     *
+     * @param scenario Scenario arguments from drain()
+     * @param attempt  Runs the scenario
+     */
+    public void rerun(Object[] scenario, Runnable attempt) {
+        Map<String, Object> outcome = queuedOutcomes.remove(scenario[0]);
+        if (outcome == null) {
+            outcome = newOutcome(scenario, null);
+        }
+        List<Map<String, Object>> attempts = new ArrayList<>();
+        outcome.put("reruns", attempts);
+        outcome.put("finalStatus", "failed");
+        scenarioOutcomes.add(outcome);
+        DriverFactory.setFreshSessionRequired(true);
+        try {
+            for (int number = 1; ; number++) {
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("attempt", number);
+                attempts.add(result);
+                long start = System.nanoTime();
+                try {
+                    attempt.run();
+                    result.put("status", "passed");
+                    outcome.put("finalStatus", "flaky");
+                    logger.info("✅ {} passed on rerun {}, marked flaky", outcome.get("scenario"), number);
+                    return;
+                } catch (SkipException e) {
+                    result.put("status", "skipped");
+                    outcome.put("finalStatus", "skipped");
+                    throw e;
+                } catch (RuntimeException | Error e) {
+                    result.put("status", "failed");
+                    result.put("error", String.valueOf(e.getMessage()));
+                    if (number >= maxAttempts) {
+                        logger.error("❌ {} failed again on rerun {}", outcome.get("scenario"), number);
+                        throw e;
+                    }
+                } finally {
+                    result.put("durationMillis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+            }
+        } finally {
+            DriverFactory.setFreshSessionRequired(false);
+        }
+    }
+
+    /**
+     * Log the rerun summary and write the rerun report
+     *
+     * @param reportFile JSON report file
+     */
+    public static void writeReport(Path reportFile) {
+        Map<String, Object> report = buildReport();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> reruns = (Map<String, Object>) report.get("reruns");
+        logger.info("🔁 First attempt: {} passed, {} failed, {} skipped; reruns: {} flaky, {} failed, {} not rerun",
+                firstAttemptsPassed.get(), firstAttemptsFailed.get(), firstAttemptsSkipped.get(),
+                reruns.get("flaky"), reruns.get("failed"), reruns.get("notRerun"));
+        try {
+            if (reportFile.getParent() != null) {
+                Files.createDirectories(reportFile.getParent());
+            }
+            objectMapper.writeValue(reportFile.toFile(), report);
+        } catch (IOException e) {
+            logger.warn("⚠️ Could not write rerun report {}: {}", reportFile, e.getMessage());
+        }
+    }
+
+    static Map<String, Object> buildReport() {
+        int flaky = 0;
+        int failed = 0;
+        int notRerun = 0;
+        List<Map<String, Object>> scenarios;
+        synchronized (scenarioOutcomes) {
+            scenarios = new ArrayList<>(scenarioOutcomes);
+        }
+        for (Map<String, Object> outcome : scenarios) {
+            if (!outcome.containsKey("reruns")) {
+                notRerun++;
+            } else if ("flaky".equals(outcome.get("finalStatus"))) {
+                flaky++;
+            } else if ("failed".equals(outcome.get("finalStatus"))) {
+                failed++;
+            }
+        }
+        Map<String, Object> firstAttempt = new LinkedHashMap<>();
+        firstAttempt.put("passed", firstAttemptsPassed.get());
+        firstAttempt.put("failed", firstAttemptsFailed.get());
+        firstAttempt.put("skipped", firstAttemptsSkipped.get());
+        Map<String, Object> reruns = new LinkedHashMap<>();
+        reruns.put("flaky", flaky);
+        reruns.put("failed", failed);
+        reruns.put("notRerun", notRerun);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("firstAttempt", firstAttempt);
+        report.put("reruns", reruns);
+        report.put("scenarios", scenarios);
+        return report;
+    }
+
+    static void resetReport() {
+        firstAttemptsPassed.set(0);
+        firstAttemptsFailed.set(0);
+        firstAttemptsSkipped.set(0);
+        scenarioOutcomes.clear();
+    }
+
+    private static Map<String, Object> newOutcome(Object[] scenario, Throwable firstFailure) {
+        Map<String, Object> outcome = new LinkedHashMap<>();
+        if (scenario.length > 0 && scenario[0] instanceof PickleWrapper) {
+            Pickle pickle = ((PickleWrapper) scenario[0]).getPickle();
+            outcome.put("scenario", ScenarioDurationHistory.key(pickle.getUri().toString(), pickle.getLine()));
+            outcome.put("name", pickle.getName());
+        } else {
+            outcome.put("scenario", String.valueOf(scenario.length > 0 ? scenario[0] : "?"));
+        }
+        outcome.put("firstAttempt", "failed");
+        outcome.put("firstAttemptError", firstFailure != null ? String.valueOf(firstFailure.getMessage()) : null);
+        return outcome;
+    }
+}
@@ -0,0 +1,108 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for the RerunQueue of failed scenarios
+ */
+public class RerunQueueTest {
+
+    @BeforeMethod
+    public void resetReport() {
+        RerunQueue.resetReport();
+    }
+
+    @Test(description = "Verify a failed first attempt is queued and reported as skipped")
+    public void testFailureIsQueued() {
+        RerunQueue queue = new RerunQueue(5, 1);
+        queue.runFirstAttempt(new Object[] { "passing" }, () -> { });
+        SkipException skip = Assert.expectThrows(SkipException.class,
+                () -> queue.runFirstAttempt(new Object[] { "flaky" }, () -> {
+                    throw new AssertionError("element not found");
+                }));
+        Assert.assertTrue(skip.getMessage().contains("element not found"), skip.getMessage());
+        Assert.assertTrue(skip.getCause() instanceof AssertionError);
+
+        Object[][] queued = queue.drain();
+        Assert.assertEquals(queued.length, 1);
+        Assert.assertEquals(queued[0][0], "flaky");
+        Assert.assertEquals(queue.drain().length, 0, "Drained scenarios are not handed out twice");
+    }
+
+    @Test(description = "Verify queued failures fail the run when no rerun takes them")
+    @SuppressWarnings("unchecked")
+    public void testUnconsumedFailuresFail() {
+        RerunQueue queue = new RerunQueue(5, 1);
+        Assert.assertThrows(SkipException.class, () -> queue.runFirstAttempt(new Object[] { "broken" }, () -> {
+            throw new AssertionError("element not found");
+        }));
+
+        AssertionError error = Assert.expectThrows(AssertionError.class, queue::failUnconsumed);
+        Assert.assertTrue(error.getMessage().contains("broken: element not found"), error.getMessage());
+        Map<String, Object> reruns = (Map<String, Object>) RerunQueue.buildReport().get("reruns");
+        Assert.assertEquals(reruns.get("notRerun"), 1);
+        queue.failUnconsumed();
+        Assert.assertEquals(queue.drain().length, 0);
+
+        RerunQueue drained = new RerunQueue(5, 1);
+        Assert.assertThrows(SkipException.class, () -> drained.runFirstAttempt(new Object[] { "flaky" }, () -> {
+            throw new AssertionError("timeout");
+        }));
+        drained.drain();
+        drained.failUnconsumed();
+    }
+
+    @Test(description = "Verify failures beyond the budget fail right away")
+    public void testBudgetExhausted() {
+        RerunQueue queue = new RerunQueue(1, 1);
+        Runnable failing = () -> {
+            throw new IllegalStateException("down");
+        };
+        Assert.assertThrows(SkipException.class, () -> queue.runFirstAttempt(new Object[] { "first" }, failing));
+        Assert.assertThrows(IllegalStateException.class, () -> queue.runFirstAttempt(new Object[] { "second" },
+                failing));
+        Assert.assertEquals(queue.drain().length, 1);
+    }
+
+    @Test(description = "Verify reruns use their attempts and the report separates both outcomes")
+    @SuppressWarnings("unchecked")
+    public void testRerunOutcomes() {
+        RerunQueue queue = new RerunQueue(5, 2);
+        Runnable failing = () -> {
+            throw new AssertionError("boom");
+        };
+        queue.runFirstAttempt(new Object[] { "passing" }, () -> { });
+        Assert.assertThrows(SkipException.class, () -> queue.runFirstAttempt(new Object[] { "flaky" }, failing));
+        Assert.assertThrows(SkipException.class, () -> queue.runFirstAttempt(new Object[] { "broken" }, failing));
+        Object[][] queued = queue.drain();
+
+        AtomicInteger flakyRuns = new AtomicInteger();
+        queue.rerun(queued[0], () -> {
+            if (flakyRuns.incrementAndGet() == 1) {
+                throw new AssertionError("still flaky");
+            }
+        });
+        Assert.assertEquals(flakyRuns.get(), 2, "Second rerun attempt should pass");
+        Assert.assertThrows(AssertionError.class, () -> queue.rerun(queued[1], failing));
+
+        Map<String, Object> report = RerunQueue.buildReport();
+        Map<String, Object> firstAttempt = (Map<String, Object>) report.get("firstAttempt");
+        Map<String, Object> reruns = (Map<String, Object>) report.get("reruns");
+        Assert.assertEquals(firstAttempt.get("passed"), 1);
+        Assert.assertEquals(firstAttempt.get("failed"), 2);
+        Assert.assertEquals(reruns.get("flaky"), 1);
+        Assert.assertEquals(reruns.get("failed"), 1);
+
+        List<Map<String, Object>> scenarios = (List<Map<String, Object>>) report.get("scenarios");
+        Assert.assertEquals(scenarios.get(0).get("firstAttemptError"), "boom");
+        Assert.assertEquals(((List<?>) scenarios.get(0).get("reruns")).size(), 2);
+        Assert.assertEquals(((List<?>) scenarios.get(1).get("reruns")).size(), 2);
+    }
+}
@@ -0,0 +1,94 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for ResourceRegistry teardown ordering, parallelism and leak reporting
+ */
+public class ResourceRegistryTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Test(description = "Verify independent resources close in parallel and dependents wait")
+    public void testOrderedParallelTeardown() {
+        ResourceRegistry registry = new ResourceRegistry();
+        Map<String, Long> closedAt = new ConcurrentHashMap<>();
+        // Both pools only finish once the other one has started closing
+        CountDownLatch bothClosing = new CountDownLatch(2);
+        AutoCloseable pool = () -> {
+            bothClosing.countDown();
+            Assert.assertTrue(bothClosing.await(2, TimeUnit.SECONDS), "Pools should close concurrently");
+        };
+        registry.register("video-recorder", () -> closedAt.put("video-recorder", System.nanoTime()), TIMEOUT);
+        registry.register("web-pool:chrome", () -> {
+            pool.close();
+            closedAt.put("web-pool:chrome", System.nanoTime());
+        }, TIMEOUT, "video-recorder");
+        registry.register("web-pool:firefox", () -> {
+            pool.close();
+            closedAt.put("web-pool:firefox", System.nanoTime());
+        }, TIMEOUT, "video-recorder", "not-registered");
+
+        List<ResourceRegistry.Result> results = registry.closeAll();
+        Assert.assertEquals(results.size(), 3);
+        Assert.assertTrue(results.stream().noneMatch(ResourceRegistry.Result::isLeaked), results.toString());
+        Assert.assertTrue(closedAt.get("video-recorder") < closedAt.get("web-pool:chrome"));
+        Assert.assertTrue(closedAt.get("video-recorder") < closedAt.get("web-pool:firefox"));
+        Assert.assertFalse(registry.isRegistered("web-pool:chrome"), "Closed resources are unregistered");
+    }
+
+    @Test(description = "Verify failed and hanging resources are reported as leaked without blocking the rest")
+    public void testLeakedResources() {
+        ResourceRegistry registry = new ResourceRegistry();
+        CountDownLatch never = new CountDownLatch(1);
+        registry.register("hanging", never::await, Duration.ofMillis(200));
+        registry.register("failing", () -> {
+            throw new IllegalStateException("pool busy");
+        }, TIMEOUT);
+        registry.register("reports", () -> { }, TIMEOUT, "hanging", "failing");
+
+        long start = System.nanoTime();
+        List<ResourceRegistry.Result> results = registry.closeAll();
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 3000, "Timeout should apply");
+        Assert.assertEquals(results.get(0).getOutcome(), ResourceRegistry.Outcome.TIMED_OUT);
+        Assert.assertEquals(results.get(1).getOutcome(), ResourceRegistry.Outcome.FAILED);
+        Assert.assertTrue(results.get(1).toString().contains("pool busy"), results.get(1).toString());
+        Assert.assertEquals(results.get(2).getOutcome(), ResourceRegistry.Outcome.CLOSED,
+                "Dependents still close after a leaked resource");
+    }
+
+    @Test(description = "Verify duplicate names are ignored and circular orders rejected")
+    public void testRegistration() {
+        ResourceRegistry registry = new ResourceRegistry();
+        Assert.assertTrue(registry.register("a", () -> { }, TIMEOUT, "b"));
+        Assert.assertFalse(registry.register("a", () -> { }, TIMEOUT));
+        Assert.assertTrue(registry.register("b", () -> { }, TIMEOUT, "c"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> registry.register("c", () -> { }, TIMEOUT, "a"));
+        Assert.assertEquals(registry.closeAll().size(), 2);
+        Assert.assertTrue(registry.closeAll().isEmpty());
+    }
+
+    @Test(description = "Verify a single resource can be closed and unregistered ahead of the rest")
+    public void testCloseOne() throws Exception {
+        ResourceRegistry registry = new ResourceRegistry();
+        List<String> closed = new ArrayList<>();
+        registry.register("videos", () -> closed.add("videos"), TIMEOUT);
+        registry.register("pool", () -> closed.add("pool"), TIMEOUT, "videos");
+
+        Assert.assertTrue(registry.close("videos"));
+        Assert.assertFalse(registry.isRegistered("videos"));
+        Assert.assertFalse(registry.close("videos"), "Already closed");
+        Assert.assertEquals(registry.closeAll().size(), 1, "Only the pool is left");
+        Assert.assertEquals(closed, Arrays.asList("videos", "pool"));
+    }
+}
@@ -0,0 +1,229 @@
+package utils;
+
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * ScenarioScheduler - Runs the longest scenarios first to shorten the suite tail
+ * Scenario durations come from ScenarioDurationHistory. The runners' parallel data
+ * provider hands scenarios to free worker threads in array order, so ordering them
+ * longest-first gives longest-processing-time-first scheduling. Scenarios without
+ * history are estimated with the median known duration.
+ *
+ * Configured in config.properties:
+ *   scheduler.lpt.enabled=true
+ *   scheduler.historyFile=.scenario-history/durations.properties
+ *   scheduler.defaultEstimateSeconds=30
+ */
+public class ScenarioScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScenarioScheduler.class);
+
+    private static final ScenarioDurationHistory history = new ScenarioDurationHistory();
+    private static volatile long predictedMakespanMillis = -1;
+    private static volatile long runStartNanos;
+    // End of the first attempts, set when reruns follow
+    private static volatile long scenariosEndNanos;
+
+    public static boolean isEnabled() {
+        return ConfigSnapshot.get().getBoolean("scheduler.lpt.enabled", false);
+    }
+
+    /**
+     * Load the durations of earlier runs. Call before the Cucumber runner starts, as the
+     * JSON formatter truncates the previous report when it is created.
+     * Sharded runs only use the history file: every shard and CI agent has a Cucumber
+     * report of its own, so reading it would give the shards different plans.
+     *
+     * @param cucumberReport Cucumber JSON report of the previous run
+     */
+    public static synchronized void loadHistory(Path cucumberReport) {
+        if (history.size() > 0) {
+            return;
+        }
+        Path historyFile = ScenarioDurationHistory.getHistoryFile();
+        if (!history.readHistory(historyFile)) {
+            if (ShardPlanner.isSharded()) {
+                logger.warn("⚠️ No scenario history at {}, shards are split with the default estimate", historyFile);
+                return;
+            }
+            history.readCucumberReport(cucumberReport);
+        }
+        logger.info("⏱️ Scenario history loaded with {} scenario duration(s)", history.size());
+    }
+
+    /**
+     * Order scenarios longest-first
+     *
+     * @param scenarios Scenarios from the Cucumber data provider
+     * @param workers   Number of scenarios that run in parallel
+     * @return Scenarios in scheduling order
+     */
+    public static Object[][] order(Object[][] scenarios, int workers) {
+        long defaultEstimate = getDefaultEstimateMillis();
+        ToLongFunction<Object[]> estimate = scenario -> estimateMillis(scenario, defaultEstimate);
+        List<Object[]> ordered = longestFirst(Arrays.asList(scenarios), estimate);
+
+        List<Long> estimates = new ArrayList<>();
+        int unknown = 0;
+        for (Object[] scenario : ordered) {
+            estimates.add(estimate.applyAsLong(scenario));
+            String key = getHistoryKey(scenario);
+            if (key == null || history.getDurationMillis(key) == null) {
+                unknown++;
+            }
+        }
+        predictedMakespanMillis = predictMakespan(estimates, workers);
+        runStartNanos = System.nanoTime();
+        scenariosEndNanos = 0;
+        logger.info("⏱️ {} scenario(s) ordered longest-first on {} worker(s), {} without history (estimated {} ms); "
+                + "predicted makespan {} s", ordered.size(), workers, unknown, defaultEstimate,
+                predictedMakespanMillis / 1000);
+        return ordered.toArray(new Object[0][]);
+    }
+
+    /**
+     * Keep the scenarios of one shard, split by estimated duration (see ShardPlanner)
+     *
+     * @param scenarios Scenarios from the Cucumber data provider
+     * @param index     Shard index, from 0
+     * @param total     Number of shards
+     * @return Scenarios of the shard
+     */
+    public static Object[][] selectShard(Object[][] scenarios, int index, int total) {
+        long defaultEstimate = getDefaultEstimateMillis();
+        List<Object[]> shard = ShardPlanner.select(Arrays.asList(scenarios),
+                scenario -> String.valueOf(getHistoryKey(scenario)),
+                scenario -> estimateMillis(scenario, defaultEstimate), index, total);
+        return shard.toArray(new Object[0][]);
+    }
+
+    /**
+     * Keep the scenarios affected by the changes since impact.baseRef (see ImpactIndex)
+     *
+     * @param scenarios Scenarios from the Cucumber data provider
+     * @return Affected scenarios, or all scenarios if the changes cannot be narrowed down
+     */
+    public static Object[][] selectImpacted(Object[][] scenarios) {
+        Set<String> affected;
+        try {
+            affected = ImpactIndex.build(Paths.get(".")).findAffectedScenarios(ImpactIndex.getChangedFiles());
+        } catch (IOException e) {
+            logger.warn("⚠️ Could not build the impact index, running all scenarios: {}", e.getMessage());
+            return scenarios;
+        }
+        if (affected == null) {
+            return scenarios;
+        }
+        Object[][] selected = Arrays.stream(scenarios)
+                .filter(scenario -> affected.contains(getHistoryKey(scenario)))
+                .toArray(Object[][]::new);
+        logger.info("🎯 Running {} of {} scenario(s) affected by the changes", selected.length, scenarios.length);
+        return selected;
+    }
+
+    /**
+     * Mark the end of the ordered scenarios' first attempts. Reruns that follow are not
+     * part of the predicted makespan and are reported separately.
+     */
+    public static void markScenariosFinished() {
+        if (predictedMakespanMillis >= 0 && scenariosEndNanos == 0) {
+            scenariosEndNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Log the predicted and actual makespan of the last ordered run
+     */
+    public static void reportMakespan() {
+        if (predictedMakespanMillis < 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long end = scenariosEndNanos != 0 ? scenariosEndNanos : now;
+        long actualMillis = TimeUnit.NANOSECONDS.toMillis(end - runStartNanos);
+        if (scenariosEndNanos != 0) {
+            logger.info("⏱️ Makespan: predicted {} s, actual {} s, reruns {} s", predictedMakespanMillis / 1000,
+                    actualMillis / 1000, TimeUnit.NANOSECONDS.toSeconds(now - scenariosEndNanos));
+        } else {
+            logger.info("⏱️ Makespan: predicted {} s, actual {} s", predictedMakespanMillis / 1000, actualMillis / 1000);
+        }
+        predictedMakespanMillis = -1;
+    }
+
+    /**
+     * Merge the durations of this run into the history file
+     *
+     * @param cucumberReport Cucumber JSON report written by this run
+     */
+    public static synchronized void updateHistory(Path cucumberReport) {
+        int scenarios = history.readCucumberReport(cucumberReport);
+        if (scenarios > 0) {
+            history.save(ScenarioDurationHistory.getHistoryFile());
+            logger.info("⏱️ Scenario history updated with {} scenario duration(s)", scenarios);
+        }
+    }
+
+    /**
+     * Sort items by descending estimate; equal estimates keep their original order
+     */
+    static <T> List<T> longestFirst(List<T> items, ToLongFunction<T> estimate) {
+        List<T> ordered = new ArrayList<>(items);
+        ordered.sort(Comparator.comparingLong(estimate).reversed());
+        return ordered;
+    }
+
+    /**
+     * Makespan when each item goes to the worker that becomes free first
+     *
+     * @param durations Durations in scheduling order
+     * @param workers   Number of workers
+     * @return Time until the last worker finishes
+     */
+    static long predictMakespan(List<Long> durations, int workers) {
+        PriorityQueue<Long> workerLoads = new PriorityQueue<>();
+        for (int i = 0; i < Math.max(1, workers); i++) {
+            workerLoads.add(0L);
+        }
+        long makespan = 0;
+        for (long duration : durations) {
+            long finish = workerLoads.poll() + duration;
+            workerLoads.add(finish);
+            makespan = Math.max(makespan, finish);
+        }
+        return makespan;
+    }
+
+    private static long getDefaultEstimateMillis() {
+        return history.getDefaultEstimateMillis(TimeUnit.SECONDS.toMillis(
+                ConfigSnapshot.get().getLong("scheduler.defaultEstimateSeconds", 30)));
+    }
+
+    private static long estimateMillis(Object[] scenario, long defaultEstimate) {
+        String key = getHistoryKey(scenario);
+        Long known = key != null ? history.getDurationMillis(key) : null;
+        return known != null ? known : defaultEstimate;
+    }
+
+    private static String getHistoryKey(Object[] scenario) {
+        if (scenario.length == 0 || !(scenario[0] instanceof PickleWrapper)) {
+            return null;
+        }
+        Pickle pickle = ((PickleWrapper) scenario[0]).getPickle();
+        return ScenarioDurationHistory.key(pickle.getUri().toString(), pickle.getLine());
+    }
+}
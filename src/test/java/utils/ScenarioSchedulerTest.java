@@ -0,0 +1,88 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for ScenarioDurationHistory and the longest-first ordering of ScenarioScheduler
+ */
+public class ScenarioSchedulerTest {
+
+    private static final String REPORT = "[{"
+            + "\"uri\": \"file:src/test/resources/features/web/UI_OrangeHRM_PIMPage.feature\","
+            + "\"elements\": ["
+            + "  {\"type\": \"background\", \"line\": 3,"
+            + "   \"steps\": [{\"result\": {\"status\": \"passed\", \"duration\": 1000000000}}]},"
+            + "  {\"type\": \"scenario\", \"line\": 7,"
+            + "   \"before\": [{\"result\": {\"status\": \"passed\", \"duration\": 500000000}}],"
+            + "   \"steps\": [{\"result\": {\"status\": \"passed\", \"duration\": 40000000000}},"
+            + "             {\"result\": {\"status\": \"passed\", \"duration\": 2000000000}}],"
+            + "   \"after\": [{\"result\": {\"status\": \"passed\", \"duration\": 500000000}}]},"
+            + "  {\"type\": \"scenario\", \"line\": 15,"
+            + "   \"steps\": [{\"result\": {\"status\": \"skipped\"}}]}"
+            + "]}]";
+
+    private Path workDir;
+
+    @BeforeClass
+    public void createWorkDir() throws IOException {
+        workDir = Files.createTempDirectory("scenario-history");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void deleteWorkDir() throws IOException {
+        for (String file : new String[] { "cucumber.json", "durations.properties" }) {
+            Files.deleteIfExists(workDir.resolve(file));
+        }
+        Files.deleteIfExists(workDir);
+    }
+
+    @Test(description = "Verify scenario durations are read from a Cucumber JSON report and saved for the next run")
+    public void testHistoryFromCucumberReport() throws IOException {
+        Path report = workDir.resolve("cucumber.json");
+        Files.write(report, REPORT.getBytes(StandardCharsets.UTF_8));
+
+        ScenarioDurationHistory history = new ScenarioDurationHistory();
+        Assert.assertEquals(history.readCucumberReport(report), 1, "Skipped scenario without duration is ignored");
+
+        String key = ScenarioDurationHistory.key(
+                "file:///root/project/src/test/resources/features/web/UI_OrangeHRM_PIMPage.feature", 7);
+        Assert.assertEquals(key, "features/web/UI_OrangeHRM_PIMPage.feature:7");
+        Assert.assertEquals(history.getDurationMillis(key), Long.valueOf(44000),
+                "Duration should include hooks, steps and background");
+
+        Path historyFile = workDir.resolve("durations.properties");
+        history.save(historyFile);
+        ScenarioDurationHistory nextRun = new ScenarioDurationHistory();
+        Assert.assertTrue(nextRun.readHistory(historyFile));
+        Assert.assertEquals(nextRun.getDurationMillis(key), Long.valueOf(44000));
+        Assert.assertNull(nextRun.getDurationMillis("features/web/Unknown.feature:1"));
+        Assert.assertEquals(nextRun.getDefaultEstimateMillis(30000), 44000, "Median of one known duration");
+        Assert.assertEquals(new ScenarioDurationHistory().getDefaultEstimateMillis(30000), 30000,
+                "Fallback when there is no history");
+    }
+
+    @Test(description = "Verify longest-first ordering shortens the predicted makespan")
+    public void testLongestFirstReducesMakespan() {
+        List<Long> featureOrder = Arrays.asList(10L, 10L, 10L, 10L, 40L);
+
+        List<Long> ordered = ScenarioScheduler.longestFirst(featureOrder, Long::longValue);
+
+        Assert.assertEquals(ordered, Arrays.asList(40L, 10L, 10L, 10L, 10L));
+        Assert.assertEquals(ScenarioScheduler.predictMakespan(featureOrder, 2), 60L,
+                "Long scenario landing last stretches the tail");
+        Assert.assertEquals(ScenarioScheduler.predictMakespan(ordered, 2), 40L);
+        Assert.assertEquals(ScenarioScheduler.predictMakespan(ordered, 1), 80L, "One worker runs everything");
+        Assert.assertEquals(ScenarioScheduler.predictMakespan(Collections.emptyList(), 4), 0L);
+    }
+}
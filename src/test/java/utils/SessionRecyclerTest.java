@@ -0,0 +1,143 @@
+package utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchWindowException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unit tests for SessionRecycler using a fake session that keeps track of its tabs
+ * and records the commands it receives. No browser is started.
+ */
+public class SessionRecyclerTest {
+
+    private static final List<String> ORIGINS = Arrays.asList("https://app.example", "https://api.example:8443");
+
+    @Test(description = "Verify a CDP session gets a fresh tab and its data cleared through CDP")
+    public void testResetWithCdp() {
+        FakeBrowser browser = new FakeBrowser(true, "tab-1", "popup");
+
+        Assert.assertTrue(SessionRecycler.reset(browser.driver, ORIGINS));
+
+        Assert.assertEquals(browser.tabs, Collections.singleton("tab-3"), "Old tabs closed, only the new one left");
+        Assert.assertEquals(browser.current, "tab-3");
+        Assert.assertEquals(browser.commands, Arrays.asList(
+                "cdp Network.clearBrowserCookies {}",
+                "cdp Network.clearBrowserCache {}",
+                "cdp Storage.clearDataForOrigin https://app.example",
+                "cdp Storage.clearDataForOrigin https://api.example:8443",
+                "get about:blank"));
+    }
+
+    @Test(description = "Verify a session without CDP clears each origin from the page")
+    public void testResetWithScript() {
+        FakeBrowser browser = new FakeBrowser(false, "tab-1");
+
+        Assert.assertTrue(SessionRecycler.reset(browser.driver, ORIGINS));
+
+        Assert.assertEquals(browser.tabs, Collections.singleton("tab-2"));
+        Assert.assertEquals(browser.commands, Arrays.asList(
+                "get https://app.example", "deleteAllCookies", "script",
+                "get https://api.example:8443", "deleteAllCookies", "script",
+                "get about:blank"));
+    }
+
+    @Test(description = "Verify a failing reset is reported so the session is discarded")
+    public void testFailedResetReturnsFalse() {
+        FakeBrowser browser = new FakeBrowser(true, "tab-1");
+        browser.failOn = "Storage.clearDataForOrigin";
+
+        Assert.assertFalse(SessionRecycler.reset(browser.driver, ORIGINS));
+        Assert.assertFalse(browser.commands.contains("get about:blank"), "Session not handed on as clean");
+    }
+
+    /**
+     * Fake session: tabs are handle names, every other command is recorded. Also used
+     * by the tests of features that must survive a reset.
+     */
+    static class FakeBrowser {
+        final Set<String> tabs = new LinkedHashSet<>();
+        final List<String> commands = new ArrayList<>();
+        final WebDriver driver;
+        String current;
+        String failOn;
+        private int tabCount;
+
+        FakeBrowser(boolean cdp, String... openTabs) {
+            tabs.addAll(Arrays.asList(openTabs));
+            tabCount = openTabs.length;
+            current = openTabs[0];
+            Class<?>[] interfaces = cdp
+                    ? new Class<?>[] { WebDriver.class, JavascriptExecutor.class, HasCdp.class, HasDevTools.class }
+                    : new Class<?>[] { WebDriver.class, JavascriptExecutor.class };
+            driver = (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(), interfaces,
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "getWindowHandles":
+                                return new LinkedHashSet<>(tabs);
+                            case "getWindowHandle":
+                                return current;
+                            case "close":
+                                tabs.remove(current);
+                                return null;
+                            case "switchTo":
+                                return targetLocator(proxy);
+                            case "manage":
+                                return Proxy.newProxyInstance(getClass().getClassLoader(),
+                                        new Class<?>[] { WebDriver.Options.class }, (options, call, callArgs) -> {
+                                            commands.add(call.getName());
+                                            return null;
+                                        });
+                            case "get":
+                                commands.add("get " + args[0]);
+                                return null;
+                            case "executeScript":
+                                commands.add("script");
+                                return null;
+                            case "executeCdpCommand":
+                                if (args[0].equals(failOn)) {
+                                    throw new IllegalStateException("CDP command failed: " + args[0]);
+                                }
+                                Map<?, ?> params = (Map<?, ?>) args[1];
+                                commands.add("cdp " + args[0] + " "
+                                        + (params.containsKey("origin") ? params.get("origin") : params));
+                                return null;
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "equals":
+                                return proxy == args[0];
+                            default:
+                                return null;
+                        }
+                    });
+        }
+
+        private Object targetLocator(Object proxy) {
+            return Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] { WebDriver.TargetLocator.class }, (locator, method, args) -> {
+                        if (method.getName().equals("newWindow")) {
+                            current = "tab-" + (++tabCount);
+                            tabs.add(current);
+                        } else if (method.getName().equals("window")) {
+                            if (!tabs.contains(args[0])) {
+                                throw new NoSuchWindowException("No window " + args[0]);
+                            }
+                            current = (String) args[0];
+                        }
+                        return proxy;
+                    });
+        }
+    }
+}
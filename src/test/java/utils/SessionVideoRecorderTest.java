@@ -0,0 +1,198 @@
+package utils;
+
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Unit tests for SessionVideoRecorder, recording a fake session through WebDriver
+ * screenshots into the stand-in ffmpeg of FfmpegPipeEncoderTest
+ */
+public class SessionVideoRecorderTest {
+
+    // start() and stopAsync() register the shared recorder and encoding queue for suite teardown
+    @AfterClass(alwaysRun = true)
+    public void closeSharedResources() throws Exception {
+        ResourceRegistry.getInstance().close(SessionVideoRecorder.RESOURCE_NAME);
+        ResourceRegistry.getInstance().close(VideoEncodingQueue.RESOURCE_NAME);
+    }
+
+    @Test(description = "Verify a session is recorded at the frame rate, resized frames included")
+    public void testRecordsSessionScreenshots() throws Exception {
+        Path dir = Files.createTempDirectory("session-video");
+        String ffmpeg = FfmpegPipeEncoderTest.fakeFfmpeg(dir, "cat > \"$last\"");
+        AtomicInteger screenshots = new AtomicInteger();
+        // The window doubles in size after three screenshots
+        WebDriver driver = fakeSession(() -> screenshots.incrementAndGet() <= 3 ? png(4, 2) : png(8, 4));
+        File output = dir.resolve("scenario.mp4").toFile();
+
+        Assert.assertTrue(SessionVideoRecorder.start(driver, output, ffmpeg, 20, 0));
+        Assert.assertTrue(SessionVideoRecorder.isRecording(driver));
+        while (screenshots.get() < 6) {
+            Thread.sleep(20);
+        }
+        String videoPath = SessionVideoRecorder.stop(driver, false);
+
+        Assert.assertEquals(videoPath, output.getPath());
+        Assert.assertFalse(SessionVideoRecorder.isRecording(driver));
+        long bytes = output.length();
+        Assert.assertTrue(bytes >= 6 * 4 * 2 * 3 && bytes % (4 * 2 * 3) == 0,
+                "Whole 4x2 frames written, got " + bytes + " bytes");
+    }
+
+    @Test(description = "Verify stopAsync returns once capture stops and completes when ffmpeg is done")
+    public void testStopAsyncEncodesInBackground() throws Exception {
+        Path dir = Files.createTempDirectory("session-video");
+        // ffmpeg takes a second to finish once its input is closed
+        String ffmpeg = FfmpegPipeEncoderTest.fakeFfmpeg(dir, "cat > \"$last\"; sleep 1");
+        AtomicInteger screenshots = new AtomicInteger();
+        WebDriver driver = fakeSession(() -> {
+            screenshots.incrementAndGet();
+            return png(4, 2);
+        });
+        File output = dir.resolve("async.mp4").toFile();
+
+        Assert.assertTrue(SessionVideoRecorder.start(driver, output, ffmpeg, 20, 0));
+        while (screenshots.get() < 3) {
+            Thread.sleep(20);
+        }
+        CompletableFuture<String> videoPath = SessionVideoRecorder.stopAsync(driver, false);
+
+        Assert.assertFalse(SessionVideoRecorder.isRecording(driver), "Session free for the next scenario");
+        Assert.assertFalse(videoPath.isDone(), "Teardown does not wait for ffmpeg");
+        Assert.assertEquals(videoPath.get(10, TimeUnit.SECONDS), output.getPath());
+        Assert.assertTrue(output.length() > 0);
+    }
+
+    @Test(description = "Verify a failure-only recording of a passed scenario writes nothing")
+    public void testPassedFailureOnlyRecordingIsDropped() throws Exception {
+        Path dir = Files.createTempDirectory("session-video");
+        String ffmpeg = FfmpegPipeEncoderTest.fakeFfmpeg(dir, "cat > \"$last\"");
+        AtomicInteger screenshots = new AtomicInteger();
+        WebDriver driver = fakeSession(() -> {
+            screenshots.incrementAndGet();
+            return png(4, 2);
+        });
+        File output = dir.resolve("passed.mp4").toFile();
+
+        Assert.assertTrue(SessionVideoRecorder.start(driver, output, ffmpeg, 20, 5));
+        while (screenshots.get() < 3) {
+            Thread.sleep(20);
+        }
+
+        Assert.assertNull(SessionVideoRecorder.stop(driver, false));
+        Assert.assertFalse(output.exists(), "Nothing encoded for a passed scenario");
+    }
+
+    @Test(description = "Verify failed failure-only recordings are encoded, reusing the previous ring buffer")
+    public void testFailedFailureOnlyRecordingsAreEncoded() throws Exception {
+        Path dir = Files.createTempDirectory("session-video");
+        String ffmpeg = FfmpegPipeEncoderTest.fakeFfmpeg(dir, "cat > \"$last\"");
+        for (int run = 1; run <= 2; run++) {
+            AtomicInteger screenshots = new AtomicInteger();
+            WebDriver driver = fakeSession(() -> {
+                screenshots.incrementAndGet();
+                return png(6, 4);
+            });
+            File output = dir.resolve("failed-" + run + ".mp4").toFile();
+
+            Assert.assertTrue(SessionVideoRecorder.start(driver, output, ffmpeg, 20, 7));
+            while (screenshots.get() < 3) {
+                Thread.sleep(20);
+            }
+
+            Assert.assertEquals(SessionVideoRecorder.stop(driver, true), output.getPath(), "Run " + run);
+            Assert.assertTrue(output.length() > 0 && output.length() % (6 * 4 * 3) == 0, "Run " + run);
+            Assert.assertEquals(SessionVideoRecorder.getSpareRingBufferCount(), 1,
+                    "One recording at a time keeps one spare buffer");
+        }
+    }
+
+    @Test(description = "Verify a recycled session's screencast follows the new tab in the next scenario")
+    public void testScreencastFollowsRecycledTab() throws Exception {
+        Path dir = Files.createTempDirectory("session-video");
+        String ffmpeg = FfmpegPipeEncoderTest.fakeFfmpeg(dir, "cat > \"$last\"");
+        SessionRecyclerTest.FakeBrowser browser = new SessionRecyclerTest.FakeBrowser(true, "tab-1");
+        Map<String, Object> frame = new HashMap<>();
+        frame.put("data", Base64.getEncoder().encodeToString(png(4, 2)));
+        frame.put("sessionId", 1);
+        List<DevToolsChannelTest.FakeChannel> opened = new ArrayList<>();
+        Function<WebDriver, DevToolsChannel> opener = DevToolsChannelTest.useFakeChannels(opened);
+        try {
+            for (int scenario = 1; scenario <= 2; scenario++) {
+                File output = dir.resolve("scenario-" + scenario + ".mp4").toFile();
+
+                Assert.assertTrue(SessionVideoRecorder.start(browser.driver, output, ffmpeg, 20, 0));
+                Assert.assertTrue(opened.get(0).emit("Page.screencastFrame", frame),
+                        "Scenario " + scenario + " should get screencast frames");
+                Thread.sleep(200);
+
+                Assert.assertEquals(SessionVideoRecorder.stop(browser.driver, false), output.getPath());
+                Assert.assertTrue(output.length() > 0 && output.length() % (4 * 2 * 3) == 0,
+                        "Scenario " + scenario);
+                // Scenario ends: the pooled session gets a new tab and the old one is closed
+                Assert.assertTrue(SessionRecycler.reset(browser.driver, Collections.singletonList("https://app.example")));
+            }
+        } finally {
+            DevToolsChannel.opener = opener;
+        }
+
+        Assert.assertEquals(opened.size(), 1, "One channel for the pooled session");
+        Assert.assertEquals(opened.get(0).connected, Arrays.asList("tab-1", "tab-2"));
+        Assert.assertTrue(opened.get(0).commands.contains("tab-2 Page.startScreencast"));
+    }
+
+    private interface Screenshots {
+        byte[] take();
+    }
+
+    private static WebDriver fakeSession(Screenshots screenshots) {
+        return (WebDriver) Proxy.newProxyInstance(SessionVideoRecorderTest.class.getClassLoader(),
+                new Class<?>[] { WebDriver.class, TakesScreenshot.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getScreenshotAs":
+                            return screenshots.take();
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    private static byte[] png(int width, int height) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", bytes);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for ShardLauncher
+ */
+public class ShardLauncherTest {
+
+    @Test(description = "Verify each shard's reports go to its own directory")
+    public void testBuildCommandUsesShardDir() {
+        List<String> command = ShardLauncher.buildCommand(1, 3, Paths.get("target", "shards", "shard-1"),
+                Collections.singletonList("-DsuiteXmlFile=testng.xml"));
+
+        Assert.assertTrue(command.contains("-Dshard.index=1"));
+        Assert.assertTrue(command.contains("-Dshard.total=3"));
+        Assert.assertTrue(command.contains("-Dshard.outputDir=target/shards/shard-1"));
+        Assert.assertTrue(command.contains("-Dallure.results.directory=target/shards/shard-1/allure-results"));
+        Assert.assertEquals(command.get(command.size() - 1), "-DsuiteXmlFile=testng.xml");
+    }
+
+    @Test(description = "Verify the shards of an earlier run are deleted")
+    public void testDeleteDirectory() throws IOException {
+        Path shardsDir = Files.createTempDirectory("shards");
+        Path report = shardsDir.resolve("shard-5").resolve("allure-results").resolve("result.json");
+        Files.createDirectories(report.getParent());
+        Files.write(report, "{}".getBytes());
+
+        ShardLauncher.deleteDirectory(shardsDir);
+        Assert.assertFalse(Files.exists(shardsDir));
+        ShardLauncher.deleteDirectory(shardsDir);
+    }
+}
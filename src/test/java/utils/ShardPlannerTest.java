@@ -0,0 +1,68 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.Set;
+
+/**
+ * Unit tests for ShardPlanner
+ */
+public class ShardPlannerTest {
+
+    private static final Map<String, Long> DURATIONS = new HashMap<>();
+
+    static {
+        // One long PIM scenario and several short login scenarios
+        DURATIONS.put("pim:7", 90L);
+        DURATIONS.put("login:5", 20L);
+        DURATIONS.put("login:12", 20L);
+        DURATIONS.put("login:19", 20L);
+        DURATIONS.put("login:26", 20L);
+        DURATIONS.put("claim:8", 30L);
+    }
+
+    @Test(description = "Verify shards are balanced by duration rather than by count")
+    public void testShardsBalancedByDuration() {
+        List<String> scenarios = new ArrayList<>(DURATIONS.keySet());
+        Collections.sort(scenarios);
+
+        List<List<String>> shards = ShardPlanner.plan(scenarios, key -> key, DURATIONS::get, 2);
+
+        // A 3/3 split by count could put 130 units in one shard
+        Assert.assertTrue(shards.get(0).contains("pim:7"));
+        Assert.assertEquals(shards.get(0).size(), 2, "Shard with the long scenario gets fewer scenarios");
+        Assert.assertEquals(load(shards.get(0)), 110L);
+        Assert.assertEquals(load(shards.get(1)), 90L);
+        Set<String> all = new HashSet<>(shards.get(0));
+        all.addAll(shards.get(1));
+        Assert.assertEquals(all, new HashSet<>(scenarios), "Every scenario runs in exactly one shard");
+        Assert.assertEquals(shards.get(0).size() + shards.get(1).size(), scenarios.size());
+    }
+
+    @Test(description = "Verify every shard computes the same plan whatever the input order")
+    public void testPlanIsDeterministic() {
+        List<String> scenarios = Arrays.asList("a:1", "b:1", "c:1", "d:1", "e:1");
+        List<String> reversed = new ArrayList<>(scenarios);
+        Collections.reverse(reversed);
+
+        for (int index = 0; index < 3; index++) {
+            Assert.assertEquals(new HashSet<>(ShardPlanner.select(scenarios, key -> key, key -> 10L, index, 3)),
+                    new HashSet<>(ShardPlanner.select(reversed, key -> key, key -> 10L, index, 3)),
+                    "Shard " + index + " should not depend on scenario order");
+        }
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> ShardPlanner.select(scenarios, key -> key, key -> 10L, 3, 3));
+    }
+
+    private static long load(List<String> shard) {
+        return shard.stream().mapToLong(DURATIONS::get).sum();
+    }
+}
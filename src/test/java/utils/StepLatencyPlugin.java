@@ -0,0 +1,183 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.HookTestStep;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.Status;
+import io.cucumber.plugin.event.TestRunFinished;
+import io.cucumber.plugin.event.TestStep;
+import io.cucumber.plugin.event.TestStepFinished;
+import io.qameta.allure.Allure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * StepLatencyPlugin - Cucumber plugin recording step durations per step definition
+ * Every executed step is recorded in a LatencyHistogram keyed by its step-definition
+ * pattern, e.g. "I should receive a {int} response with employee data", so all
+ * scenarios using a step count towards the same histogram. Hooks are recorded as
+ * "@Before hooks.Hooks.setUp(...)". When the run finishes, count, total, p50, p95, p99
+ * and max per step are written, slowest total first, to
+ *   target/step-latency/step-latency.json
+ *   target/step-latency/step-latency.csv
+ * TestRunner attaches the CSV to Allure in its @AfterSuite (the suite tear-down), as no
+ * test is active when the run finishes.
+ *
+ * Registered by TestRunner as "utils.StepLatencyPlugin:target/step-latency", or with the
+ * shard's own directory in local shards.
+ * Histograms are shared by all runners of the JVM, so the files always cover the whole run.
+ */
+public class StepLatencyPlugin implements ConcurrentEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(StepLatencyPlugin.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String CSV_HEADER = "step,count,totalMillis,p50Millis,p95Millis,p99Millis,maxMillis";
+
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    // CSV of the last export, for attachReport()
+    private static volatile String latestCsv;
+
+    private final Path outputDir;
+
+    public StepLatencyPlugin() {
+        this("target/step-latency");
+    }
+
+    /**
+     * @param outputDir Directory for step-latency.json and step-latency.csv
+     */
+    public StepLatencyPlugin(String outputDir) {
+        this.outputDir = Paths.get(outputDir);
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestStepFinished.class, this::handleStepFinished);
+        publisher.registerHandlerFor(TestRunFinished.class, event -> export());
+    }
+
+    void handleStepFinished(TestStepFinished event) {
+        Status status = event.getResult().getStatus();
+        // Steps that did not run have no duration worth recording
+        if (status == Status.SKIPPED || status == Status.UNDEFINED || status == Status.UNUSED
+                || event.getResult().getDuration() == null) {
+            return;
+        }
+        histograms.computeIfAbsent(keyOf(event.getTestStep()), key -> new LatencyHistogram())
+                .record(event.getResult().getDuration().toNanos());
+    }
+
+    static String keyOf(TestStep step) {
+        if (step instanceof PickleStepTestStep) {
+            String pattern = ((PickleStepTestStep) step).getPattern();
+            return pattern != null && !pattern.isEmpty() ? pattern : ((PickleStepTestStep) step).getStep().getText();
+        }
+        if (step instanceof HookTestStep) {
+            String type = ((HookTestStep) step).getHookType().name().toLowerCase(Locale.ROOT);
+            String hookName = Character.toUpperCase(type.charAt(0)) + type.substring(1).replace("_step", "Step");
+            return "@" + hookName + " " + step.getCodeLocation();
+        }
+        return step.getCodeLocation();
+    }
+
+    /**
+     * Write the JSON and CSV reports
+     */
+    void export() {
+        List<Map<String, Object>> rows = summarize();
+        if (rows.isEmpty()) {
+            return;
+        }
+        StringBuilder csv = new StringBuilder(CSV_HEADER).append('\n');
+        for (Map<String, Object> row : rows) {
+            csv.append(csvField(String.valueOf(row.get("step"))));
+            for (String column : CSV_HEADER.substring("step,".length()).split(",")) {
+                csv.append(',').append(row.get(column));
+            }
+            csv.append('\n');
+        }
+        try {
+            Files.createDirectories(outputDir);
+            writeAtomically(outputDir.resolve("step-latency.json"), objectMapper.writeValueAsString(rows));
+            writeAtomically(outputDir.resolve("step-latency.csv"), csv.toString());
+        } catch (IOException e) {
+            logger.warn("⚠️ Could not write step latency report to {}: {}", outputDir, e.getMessage());
+        }
+        latestCsv = csv.toString();
+
+        logger.info("⏱️ Step latency for {} step definition(s) written to {}; slowest in total:", rows.size(),
+                outputDir);
+        rows.stream().limit(5).forEach(row -> logger.info("⏱️   {} ms total, p95 {} ms, {}x  {}",
+                row.get("totalMillis"), row.get("p95Millis"), row.get("count"), row.get("step")));
+    }
+
+    /**
+     * Attach the CSV of the finished run to Allure. Call from a TestNG configuration
+     * method that runs after the Cucumber runner has finished, such as @AfterSuite.
+     */
+    public static void attachReport() {
+        String csv = latestCsv;
+        if (csv != null) {
+            Allure.addAttachment("Step Latency", "text/csv", csv, ".csv");
+        }
+    }
+
+    static List<Map<String, Object>> summarize() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        histograms.entrySet().stream()
+                .sorted(Comparator.comparingLong(
+                        (Map.Entry<String, LatencyHistogram> entry) -> entry.getValue().getTotalNanos()).reversed())
+                .forEach(entry -> {
+                    LatencyHistogram histogram = entry.getValue();
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("step", entry.getKey());
+                    row.put("count", histogram.getCount());
+                    row.put("totalMillis", round(LatencyHistogram.toMillis(histogram.getTotalNanos())));
+                    row.put("p50Millis", round(histogram.getPercentileMillis(50)));
+                    row.put("p95Millis", round(histogram.getPercentileMillis(95)));
+                    row.put("p99Millis", round(histogram.getPercentileMillis(99)));
+                    row.put("maxMillis", round(LatencyHistogram.toMillis(histogram.getMaxNanos())));
+                    rows.add(row);
+                });
+        return rows;
+    }
+
+    static void reset() {
+        histograms.clear();
+        latestCsv = null;
+    }
+
+    private static double round(double millis) {
+        return Math.round(millis * 10) / 10.0;
+    }
+
+    private static String csvField(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    // Runners finishing at the same time must not interleave their writes
+    private static void writeAtomically(Path file, String content) throws IOException {
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        Files.write(temp, content.getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
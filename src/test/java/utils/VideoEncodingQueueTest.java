@@ -0,0 +1,93 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unit tests for VideoEncodingQueue
+ */
+public class VideoEncodingQueueTest {
+
+    // The tests use queues of their own; the shared queue is closed in case one was created
+    @AfterClass(alwaysRun = true)
+    public void closeSharedQueue() throws Exception {
+        ResourceRegistry.getInstance().close(VideoEncodingQueue.RESOURCE_NAME);
+    }
+
+    @Test(description = "Verify jobs run in the background and drain waits for all of them")
+    public void testDrainWaitsForSubmittedJobs() throws Exception {
+        VideoEncodingQueue queue = new VideoEncodingQueue(2, 4);
+        CountDownLatch encoding = new CountDownLatch(1);
+        List<CompletableFuture<String>> videos = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            String path = "video-" + i + ".mp4";
+            videos.add(queue.submit(path, () -> {
+                encoding.await();
+                return path;
+            }));
+        }
+
+        Assert.assertTrue(videos.stream().noneMatch(CompletableFuture::isDone), "Submit does not wait");
+        Assert.assertEquals(queue.getPendingCount(), 3);
+        encoding.countDown();
+        Assert.assertTrue(queue.drain(Duration.ofSeconds(10)));
+
+        Assert.assertEquals(queue.getPendingCount(), 0);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(videos.get(i).getNow(null), "video-" + i + ".mp4");
+        }
+        queue.close();
+    }
+
+    @Test(description = "Verify a job runs on the submitting thread when the queue is full")
+    public void testFullQueueRunsJobOnCaller() throws Exception {
+        VideoEncodingQueue queue = new VideoEncodingQueue(1, 1);
+        CountDownLatch encoding = new CountDownLatch(1);
+        queue.submit("running", () -> {
+            encoding.await();
+            return "running.mp4";
+        });
+        queue.submit("queued", () -> "queued.mp4");
+
+        AtomicReference<Thread> encodedOn = new AtomicReference<>();
+        CompletableFuture<String> overflow = queue.submit("overflow", () -> {
+            encodedOn.set(Thread.currentThread());
+            return "overflow.mp4";
+        });
+
+        Assert.assertTrue(overflow.isDone(), "Encoded before submit returned");
+        Assert.assertSame(encodedOn.get(), Thread.currentThread());
+        encoding.countDown();
+        Assert.assertTrue(queue.drain(Duration.ofSeconds(10)));
+        queue.close();
+    }
+
+    @Test(description = "Verify drain gives up after its timeout and failed jobs complete the future")
+    public void testDrainTimeoutAndFailedJob() throws Exception {
+        VideoEncodingQueue queue = new VideoEncodingQueue(1, 1);
+        CompletableFuture<String> failed = queue.submit("failed", () -> {
+            throw new IllegalStateException("ffmpeg crashed");
+        });
+        CountDownLatch encoding = new CountDownLatch(1);
+        queue.submit("stuck", () -> {
+            encoding.await();
+            return null;
+        });
+
+        Assert.assertFalse(queue.drain(Duration.ofMillis(200)));
+        Assert.assertTrue(failed.isCompletedExceptionally());
+        encoding.countDown();
+        Assert.assertTrue(queue.drain(Duration.ofSeconds(10)));
+        Assert.assertEquals(queue.getPendingCount(), 0);
+        queue.close();
+    }
+}
@@ -0,0 +1,200 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for WebDriverPool using fake sessions. No browser is started.
+ */
+public class WebDriverPoolTest {
+
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger quit = new AtomicInteger();
+
+    @BeforeMethod
+    public void resetCounters() {
+        created.set(0);
+        quit.set(0);
+    }
+
+    private WebDriver fakeSession() {
+        created.incrementAndGet();
+        return (WebDriver) Proxy.newProxyInstance(WebDriver.class.getClassLoader(), new Class<?>[] { WebDriver.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("quit")) {
+                        quit.incrementAndGet();
+                    }
+                    if (method.getName().equals("equals")) {
+                        return proxy == args[0];
+                    }
+                    if (method.getName().equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    }
+                    return null;
+                });
+    }
+
+    @Test(description = "Verify each worker thread owns a distinct session")
+    public void testThreadsGetDistinctSessions() throws Exception {
+        WebDriverPool pool = new WebDriverPool("fake", this::fakeSession, 4, Duration.ofSeconds(5));
+        Set<WebDriver> sessions = ConcurrentHashMap.newKeySet();
+        CountDownLatch allCheckedOut = new CountDownLatch(4);
+        ExecutorService workers = Executors.newFixedThreadPool(4);
+        try {
+            for (int i = 0; i < 4; i++) {
+                workers.submit(() -> {
+                    WebDriver driver = pool.checkout();
+                    Assert.assertSame(pool.checkout(), driver, "Repeated checkout should return the owned session");
+                    sessions.add(driver);
+                    allCheckedOut.countDown();
+                    allCheckedOut.await();
+                    pool.evict();
+                    return null;
+                });
+            }
+            workers.shutdown();
+            Assert.assertTrue(workers.awaitTermination(10, TimeUnit.SECONDS), "Workers did not finish");
+        } finally {
+            workers.shutdownNow();
+        }
+
+        Assert.assertEquals(sessions.size(), 4, "Each thread should have its own session");
+        Assert.assertEquals(quit.get(), 4, "Evicted sessions should be quit");
+        Assert.assertEquals(pool.getLiveCount(), 0, "No sessions should remain live");
+    }
+
+    @Test(description = "Verify returned sessions are reused and the max size is enforced")
+    public void testCheckinReusesSessionAndMaxSizeIsEnforced() throws Exception {
+        WebDriverPool pool = new WebDriverPool("fake", this::fakeSession, 1, Duration.ofMillis(300));
+        WebDriver first = pool.checkout();
+        pool.checkin();
+        Assert.assertNull(pool.current(), "Thread should no longer own the session after checkin");
+
+        WebDriver second = pool.checkout();
+        Assert.assertSame(second, first, "Returned session should be reused");
+        Assert.assertEquals(created.get(), 1, "Only one session should have been created");
+        Assert.assertEquals(pool.getUseCount(), 2, "Use count should include every checkout of the session");
+
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try {
+            Throwable error = other.submit(() -> {
+                try {
+                    pool.checkout();
+                    return null;
+                } catch (IllegalStateException e) {
+                    return e;
+                }
+            }).get(5, TimeUnit.SECONDS);
+            Assert.assertNotNull(error, "Checkout should time out while the only session is in use");
+        } finally {
+            other.shutdownNow();
+        }
+
+        pool.shutdown();
+        Assert.assertEquals(quit.get(), 1, "Shutdown should quit the live session");
+    }
+
+    @Test(description = "Verify a fresh checkout never hands out a reused session")
+    public void testFreshCheckoutReplacesReusedSession() {
+        WebDriverPool pool = new WebDriverPool("fake", this::fakeSession, 1, Duration.ofMillis(300));
+        WebDriver used = pool.checkout();
+        pool.checkin();
+
+        WebDriver fresh = pool.checkout(true);
+        Assert.assertNotSame(fresh, used, "Reused session must not be handed out");
+        Assert.assertEquals(quit.get(), 1, "Reused idle session should be quit to make room");
+        Assert.assertEquals(pool.getUseCount(), 1);
+        Assert.assertEquals(pool.getLiveCount(), 1, "Max size must still hold");
+        pool.shutdown();
+    }
+
+    @Test(description = "Verify pre-warmed sessions are handed out and the pool is refilled")
+    public void testPrewarmAndRefill() throws Exception {
+        WebDriverPool pool = new WebDriverPool("fake", this::fakeSession, 4, Duration.ofSeconds(5));
+        pool.prewarm(2);
+        waitFor(() -> pool.getIdleCount() == 2);
+        Assert.assertEquals(created.get(), 2, "Two sessions should be started in the background");
+
+        WebDriver driver = pool.checkout();
+        Assert.assertNotNull(driver, "Checkout should return a warm session");
+        waitFor(() -> pool.getIdleCount() == 2);
+        Assert.assertEquals(pool.getLiveCount(), 3, "Pool should refill to two idle sessions");
+
+        pool.shutdown();
+        Assert.assertEquals(quit.get(), 3, "Shutdown should quit warm and checked-out sessions");
+    }
+
+    @Test(description = "Verify threads beyond the warming sessions start their own sessions concurrently")
+    public void testCheckoutDoesNotQueueBehindPrewarm() throws Exception {
+        AtomicInteger starting = new AtomicInteger();
+        AtomicInteger maxStarting = new AtomicInteger();
+        WebDriverPool pool = new WebDriverPool("fake", () -> {
+            maxStarting.accumulateAndGet(starting.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                starting.decrementAndGet();
+            }
+            return fakeSession();
+        }, 6, Duration.ofSeconds(10));
+        pool.prewarm(2);
+
+        Set<WebDriver> sessions = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService workers = Executors.newFixedThreadPool(4);
+        try {
+            for (int i = 0; i < 4; i++) {
+                workers.submit(() -> {
+                    start.await();
+                    sessions.add(pool.checkout());
+                    return null;
+                });
+            }
+            start.countDown();
+            workers.shutdown();
+            Assert.assertTrue(workers.awaitTermination(10, TimeUnit.SECONDS), "Workers did not finish");
+        } finally {
+            workers.shutdownNow();
+        }
+
+        Assert.assertEquals(sessions.size(), 4, "Each thread should have its own session");
+        Assert.assertTrue(maxStarting.get() >= 4,
+                "Two warming and two direct sessions should start together, max was " + maxStarting.get());
+        pool.shutdown();
+    }
+
+    @Test(description = "Verify a shut down pool refuses checkouts instead of starting unmanaged sessions")
+    public void testCheckoutAfterShutdownFails() {
+        WebDriverPool pool = new WebDriverPool("fake", this::fakeSession, 2, Duration.ofSeconds(5));
+        pool.checkout();
+        pool.shutdown();
+
+        Assert.assertThrows(IllegalStateException.class, pool::checkout);
+        Assert.assertEquals(created.get(), 1, "No session should be started after shutdown");
+        Assert.assertEquals(pool.getLiveCount(), 0);
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                Assert.fail("Condition not met within 5 seconds");
+            }
+            Thread.sleep(20);
+        }
+    }
+}